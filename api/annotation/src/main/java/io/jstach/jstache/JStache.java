@@ -7,6 +7,9 @@ import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
 
 /**
  * Generates a JStachio Renderer from a template and a model (the annotated class).
@@ -148,6 +151,11 @@ import java.util.Optional;
  * <p>
  * You may also remap partial names via {@link io.jstach.jstache.JStachePartial} to a
  * different location as well as to an inline template (string literal).
+ * <p>
+ * Partials and parents are compiled into every template that includes them. Names in a
+ * partial are resolved at compile time against the model of the including template so the
+ * same partial used by two different models is generated as two different pieces of code
+ * and is not shared between templates.
  *
  * <h4 id="_fragments">Fragments</h4>
  *
@@ -295,6 +303,21 @@ import java.util.Optional;
  * {@link Optional} empty is treated like an empty list or a boolean false. Optional
  * values are always assumed to be non null.
  * <p>
+ * {@link Supplier}, {@link CompletionStage},
+ * {@link java.util.concurrent.CompletableFuture} and {@link Future} are unwrapped and
+ * their value is used as though it was the value of the binding. Only bindings declared
+ * exactly as one of these types are unwrapped. Types that implement them (for example a
+ * list that is also a supplier) are rendered as themselves. The value is resolved at the
+ * point of use and at most once per section: a <code>Supplier</code> is only called if
+ * the section (or variable) using it is actually rendered and a
+ * <code>CompletionStage</code> or <code>Future</code> is waited for (similar to
+ * {@link java.util.concurrent.CompletableFuture#join()}) only when its value is needed.
+ * Consequently expensive values can be computed lazily and independent asynchronous
+ * values can be started before rendering so that they run concurrently. Waiting does not
+ * pin virtual threads. Inverted sections resolve the value inline and thus may call a
+ * <code>Supplier</code> more than once. Like <code>Optional</code> the wrappers
+ * themselves are assumed to be non null.
+ * <p>
  * {@code Map<String,?>} follow different nesting rules than other types. If you are in a
  * {@link Map} nested section the rest of the context is checked before the
  * <code>Map</code>. Once that is done the Map is then checked using
@@ -383,6 +406,14 @@ import java.util.Optional;
  * first item would be {@code 0}.
  * </ol>
  *
+ * <h4 id="_flush_support">Flush Extension</h4>
+ *
+ * A template can mark where the output should be flushed with <code>{{&#64;flush}}</code>
+ * ({@value #FLUSH_BINDING_NAME}). Everything rendered before the tag is then sent
+ * downstream before the rest of the template is rendered which is useful for sending the
+ * HTML <code>head</code> early. Flushing is only a hint and outputs that cannot flush
+ * ignore it.
+ *
  * <h3 id="_lambdas">Lambda Support</h3>
  *
  * <strong>&#64;{@link JStacheLambda}</strong>
@@ -693,4 +724,15 @@ public @interface JStache {
 	 */
 	public static final String INDEX_JMUSTACHE_BINDING_NAME = "-index";
 
+	/**
+	 * A virtual variable that when used as a variable tag (escaped or unescaped) does not
+	 * output anything but instead flushes the output. This allows progressive rendering
+	 * where the start of a document (for example the HTML <code>head</code>) is sent to
+	 * the client while the rest of the template is still rendering.
+	 * <p>
+	 * Whether or not flushing actually sends anything downstream depends on the output.
+	 * See <code>io.jstach.jstachio.Output.flush()</code>.
+	 */
+	public static final String FLUSH_BINDING_NAME = "@flush";
+
 }
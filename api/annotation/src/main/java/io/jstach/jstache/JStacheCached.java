@@ -0,0 +1,53 @@
+package io.jstach.jstache;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Caches the rendered output of sections of the annotated method (or record component).
+ * <p>
+ * The value returned by the method is the cache key and thus <strong>the section can only
+ * depend on the returned value</strong>. Names in the section (including partials in the
+ * section) that are not found in the returned value are not looked up in the rest of the
+ * context stack and fail compilation. For the same reason <code>@context</code>,
+ * <code>@root</code> and lambdas cannot be used in the section. The returned value should
+ * be small and have proper {@link Object#equals(Object)} and {@link Object#hashCode()}
+ * such as a <code>record</code> of ids and versions. For example a navigation menu that
+ * only changes with the current user role:
+ *
+ * <pre><code class="language-java">
+ * &#64;JStache(template = """
+ *     {{#nav}}{{&gt; nav}}{{/nav}}
+ *     """)
+ * public record Page(&#64;JStacheCached(ttlSeconds = 60) Nav nav, String body) {
+ * }
+ * public record Nav(String role) {
+ * }
+ * </code> </pre>
+ *
+ * On a cache hit the entire section is written with a single write of the previously
+ * rendered output (pre-encoded bytes if the template is rendered to an encoded output).
+ * <p>
+ * Fragments are cached with <code>io.jstach.jstachio.FragmentCache.of()</code> which is
+ * bounded by the size of the cached output. Only regular sections are cached and not
+ * inverted sections, variables or lambdas. Zero dependency renderers
+ * ({@link JStacheType#STACHE}) ignore this annotation as the cache is part of the
+ * jstachio runtime.
+ *
+ * @author agentgt
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+@Documented
+public @interface JStacheCached {
+
+	/**
+	 * How long in seconds the rendered section is cached for.
+	 * @return time to live in seconds.
+	 */
+	long ttlSeconds() default 300;
+
+}
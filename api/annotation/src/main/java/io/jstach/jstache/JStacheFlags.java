@@ -159,7 +159,47 @@ public @interface JStacheFlags {
 		/**
 		 * Will always bind "@context" with a empty ContextNode.
 		 */
-		CONTEXT_SUPPORT_DISABLE;
+		CONTEXT_SUPPORT_DISABLE,
+
+		/**
+		 * <strong>EXPERIMENTAL:</strong> Assumes the methods and fields of the model are
+		 * pure (no side effects and return the same value when called repeatedly during a
+		 * single render) so that the generated code can cache them in local variables.
+		 * <p>
+		 * Without this flag a dotted name like <code>{{page.currency.symbol}}</code>
+		 * re-evaluates the entire chain for the null check of every part and again for
+		 * the output. Furthermore inside a list section the chain is re-evaluated on
+		 * every iteration even though it does not depend on the element. With this flag:
+		 * <ul>
+		 * <li>Each part of a dotted section or path is evaluated once and stored in a
+		 * local variable.</li>
+		 * <li>Inside list and array sections accessors of the root model (and accessors
+		 * chained from them) are evaluated once before the loop and reused by every
+		 * iteration and every reference to the same name in the loop.</li>
+		 * </ul>
+		 * Values hoisted out of a loop are evaluated even if the loop body never uses
+		 * them (for example an empty list or a false condition in the body) which is why
+		 * this is not the default.
+		 */
+		HOIST_ACCESSORS,
+
+		/**
+		 * <strong>EXPERIMENTAL:</strong> Packs all the pre-encoded static text of a
+		 * template (including partials and layouts) into a single byte array that is
+		 * encoded once when the generated renderer is initialized. The generated code
+		 * then writes ranges of the array with
+		 * <code>EncodedOutput.write(byte[], int, int)</code> instead of writing a byte
+		 * array per part.
+		 * <p>
+		 * This reduces the work done initializing renderers which matters for
+		 * applications with many templates and improves locality of the static text.
+		 * However outputs that keep references to the written arrays instead of copying
+		 * them (chunked and threshold outputs) have to copy the ranges and the encoded
+		 * text of partials is no longer shared with other templates. Packing is only done
+		 * for UTF-8, ISO-8859-1 and US-ASCII templates and is ignored if
+		 * {@link #PRE_ENCODE_DISABLE} is set.
+		 */
+		PACK_TEXT;
 
 	}
 
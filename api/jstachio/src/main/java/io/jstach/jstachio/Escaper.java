@@ -2,6 +2,7 @@ package io.jstach.jstachio;
 
 import java.io.IOException;
 import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
 import java.util.function.Function;
 
 import org.eclipse.jdt.annotation.Nullable;
@@ -10,6 +11,7 @@ import io.jstach.jstache.JStacheConfig;
 import io.jstach.jstache.JStacheContentType;
 import io.jstach.jstache.JStacheLambda;
 import io.jstach.jstache.JStacheType;
+import io.jstach.jstachio.Output.EncodedOutput;
 import io.jstach.jstachio.escapers.Html;
 import io.jstach.jstachio.escapers.PlainText;
 
@@ -146,6 +148,62 @@ public non-sealed interface Escaper extends Appender, Function<String, String> {
 		append(a, String.valueOf(b));
 	}
 
+	/**
+	 * An escaper that can escape straight to an {@link EncodedOutput} without creating
+	 * intermediate Strings. Replacements (for example HTML entities) are written as
+	 * pre-encoded bytes with {@link EncodedOutput#write(byte[])} and the unescaped runs
+	 * in between are passed to {@link EncodedOutput#append(CharSequence, int, int)} which
+	 * buffered outputs like {@link io.jstach.jstachio.output.ByteBufferedOutputStream}
+	 * encode directly into their buffer.
+	 * <p>
+	 * Generated templates always call the escaper through the formatter with
+	 * {@link #append(Output, CharSequence)} so implementations are expected to check if
+	 * the output is an {@link EncodedOutput} whose charset is
+	 * {@linkplain #isEncodable(Charset) encodable} and if so use the encode methods.
+	 *
+	 * @apiNote Implementations should be threadsafe and expect reuse!
+	 * @author agentgt
+	 */
+	public interface EncodedEscaper extends Escaper {
+
+		/**
+		 * Whether or not the pre-encoded replacements are valid for the charset.
+		 * @param charset charset of the encoded output.
+		 * @return true if {@link #encode(EncodedOutput, CharSequence, int, int)} can
+		 * write pre-encoded bytes.
+		 */
+		public boolean isEncodable(Charset charset);
+
+		/**
+		 * Escapes and encodes the characters straight to the encoded output. If the
+		 * output charset is not {@linkplain #isEncodable(Charset) encodable}
+		 * implementations should fallback to {@link #append(Output, CharSequence)}.
+		 * @param <A> output type
+		 * @param <E> error type
+		 * @param a output to write to
+		 * @param csq characters to escape
+		 * @param start start index inclusive
+		 * @param end end index exclusive
+		 * @throws E if the output throws an error
+		 */
+		public <A extends EncodedOutput<E>, E extends Exception> void encode(A a, CharSequence csq, int start, int end)
+				throws E;
+
+		/**
+		 * Escapes and encodes the characters straight to the encoded output.
+		 * @param <A> output type
+		 * @param <E> error type
+		 * @param a output to write to
+		 * @param csq characters to escape
+		 * @throws E if the output throws an error
+		 * @see #encode(EncodedOutput, CharSequence, int, int)
+		 */
+		default <A extends EncodedOutput<E>, E extends Exception> void encode(A a, CharSequence csq) throws E {
+			encode(a, csq, 0, csq.length());
+		}
+
+	}
+
 	/**
 	 * Adapts a function to an Escaper.
 	 *
@@ -0,0 +1,335 @@
+package io.jstach.jstachio;
+
+import java.nio.charset.Charset;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+import io.jstach.jstachio.Output.StringOutput;
+import io.jstach.jstachio.output.ByteBufferedOutputStream;
+
+/**
+ * A cache of rendered template sections (fragments) used by generated renderers for
+ * sections of methods annotated with {@link io.jstach.jstache.JStacheCached}.
+ * <p>
+ * The cache is bounded by weight which is the size of the cached output (bytes for
+ * pre-encoded output and chars otherwise) and once the maximum weight is exceeded
+ * fragments are evicted in approximately least recently used order: a clock hand sweeps
+ * the fragments and evicts the first one that was not read since the hand last passed it.
+ * Reads do not lock so rendering threads do not contend on cache hits. Only evicting
+ * writers take a lock. Fragments also expire after the time to live configured on the
+ * annotation. A fragment bigger than the maximum weight is rendered but not cached.
+ * <p>
+ * Generated code uses the {@linkplain #of() default cache} and the methods used by
+ * generated code are public but not intended to be called directly. Applications may
+ * {@linkplain #stats() monitor} or {@linkplain #clear() clear} the cache for example when
+ * the data the cached sections depend on changes.
+ * <p>
+ * The default cache is deliberately a process wide static rather than part of
+ * {@link io.jstach.jstachio.spi.JStachioExtensions} or {@link TemplateConfig}: generated
+ * renderers are routinely used directly (for example {@code PageRenderer.of()}) without a
+ * {@link JStachio} instance and a cached section must be shared by all of them. Because
+ * the key of a fragment includes the formatter and escaper, renderers with different
+ * configurations never share output. The default can be replaced with
+ * {@link #setDefault(FragmentCache)} once on startup and code that replaces it
+ * temporarily, such as tests, should restore the previous cache afterwards.
+ *
+ * @author agentgt
+ */
+public final class FragmentCache {
+
+	/**
+	 * The maximum weight of the default cache: <code>8MB</code> of output.
+	 */
+	public static final long DEFAULT_MAX_WEIGHT = 8 * 1024 * 1024;
+
+	private static volatile FragmentCache defaultCache = new FragmentCache(DEFAULT_MAX_WEIGHT, System::nanoTime);
+
+	private final long maxWeight;
+
+	private final LongSupplier ticker;
+
+	private final ConcurrentHashMap<Key, Fragment> fragments = new ConcurrentHashMap<>();
+
+	private final AtomicLong weight = new AtomicLong();
+
+	private final ReentrantLock evictionLock = new ReentrantLock();
+
+	/*
+	 * The clock hand. Guarded by the eviction lock.
+	 */
+	private @Nullable Iterator<Map.Entry<Key, Fragment>> hand;
+
+	private final LongAdder hits = new LongAdder();
+
+	private final LongAdder misses = new LongAdder();
+
+	private final LongAdder evictions = new LongAdder();
+
+	private final LongAdder expirations = new LongAdder();
+
+	FragmentCache(long maxWeight, LongSupplier ticker) {
+		if (maxWeight < 0) {
+			throw new IllegalArgumentException("maxWeight should not be negative");
+		}
+		this.maxWeight = maxWeight;
+		this.ticker = ticker;
+	}
+
+	/**
+	 * The cache used by generated renderers.
+	 * @return the default cache.
+	 */
+	public static FragmentCache of() {
+		return defaultCache;
+	}
+
+	/**
+	 * Creates a new cache that is not used by generated renderers unless
+	 * {@linkplain #setDefault(FragmentCache) made the default}.
+	 * @param maxWeight maximum total size of the cached output. Zero disables caching.
+	 * @return new empty cache.
+	 */
+	public static FragmentCache of(long maxWeight) {
+		return new FragmentCache(maxWeight, System::nanoTime);
+	}
+
+	/**
+	 * Replaces the cache used by generated renderers of every {@link JStachio} instance
+	 * in the process (more precisely every renderer loaded with this class). This should
+	 * be done on startup before templates are rendered.
+	 * @param cache the new default cache.
+	 * @return the previous default cache so that it can be restored.
+	 */
+	public static FragmentCache setDefault(FragmentCache cache) {
+		var previous = defaultCache;
+		defaultCache = Objects.requireNonNull(cache);
+		return previous;
+	}
+
+	/**
+	 * Identifies a rendered section.
+	 * @param fragment unique name of the section in the generated renderer.
+	 * @param value the value the section was rendered with which is the return value of
+	 * the annotated method.
+	 * @param formatter the formatter used to render the section.
+	 * @param escaper the escaper used to render the section.
+	 * @param charset the charset of the pre-encoded output or <code>null</code> if the
+	 * section is rendered as chars.
+	 */
+	public record Key(String fragment, @Nullable Object value, Object formatter, Object escaper,
+			@Nullable Charset charset) {
+	}
+
+	private static final class Fragment {
+
+		private final Object output;
+
+		private final long weight;
+
+		private final long expiresAt;
+
+		/*
+		 * Set on read and cleared by the clock hand.
+		 */
+		private volatile boolean referenced;
+
+		Fragment(Object output, long weight, long expiresAt) {
+			this.output = output;
+			this.weight = weight;
+			this.expiresAt = expiresAt;
+		}
+
+		boolean isExpired(long now) {
+			return now - expiresAt >= 0;
+		}
+
+	}
+
+	/**
+	 * Metrics of the fragment cache.
+	 * @param hits number of sections written from the cache.
+	 * @param misses number of sections that had to be rendered.
+	 * @param evictions number of fragments removed because the cache was full.
+	 * @param expirations number of fragments removed because their time to live elapsed.
+	 * @param size number of fragments currently cached.
+	 * @param weight total size of the currently cached output.
+	 * @param maxWeight the maximum total size of the cached output.
+	 */
+	public record Stats(long hits, long misses, long evictions, long expirations, int size, long weight,
+			long maxWeight) {
+	}
+
+	/**
+	 * Gets the pre-encoded output of a section.
+	 * @param key section key.
+	 * @return bytes or <code>null</code> if the section should be rendered.
+	 */
+	public byte @Nullable [] getBytes(Key key) {
+		return (byte @Nullable []) get(key);
+	}
+
+	/**
+	 * Gets the output of a section.
+	 * @param key section key.
+	 * @return output or <code>null</code> if the section should be rendered.
+	 */
+	public @Nullable String getString(Key key) {
+		return (@Nullable String) get(key);
+	}
+
+	/**
+	 * Creates the buffer a missed section is rendered to.
+	 * @param key section key with a charset.
+	 * @return buffer to be passed to
+	 * {@link #putBytes(Key, ByteBufferedOutputStream, long)}
+	 */
+	public ByteBufferedOutputStream bytesOutput(Key key) {
+		return new ByteBufferedOutputStream(1024, Objects.requireNonNull(key.charset()));
+	}
+
+	/**
+	 * Creates the buffer a missed section is rendered to.
+	 * @param key section key.
+	 * @return buffer to be passed to {@link #putString(Key, StringOutput, long)}
+	 */
+	public StringOutput stringOutput(Key key) {
+		return Output.of(new StringBuilder());
+	}
+
+	/**
+	 * Caches the rendered pre-encoded output of a section.
+	 * @param key section key.
+	 * @param output the output the section was rendered to.
+	 * @param ttlSeconds time to live.
+	 * @return the rendered bytes to write.
+	 */
+	public byte[] putBytes(Key key, ByteBufferedOutputStream output, long ttlSeconds) {
+		byte[] bytes = output.toByteArray();
+		put(key, bytes, bytes.length, ttlSeconds);
+		return bytes;
+	}
+
+	/**
+	 * Caches the rendered output of a section.
+	 * @param key section key.
+	 * @param output the output the section was rendered to.
+	 * @param ttlSeconds time to live.
+	 * @return the rendered output to write.
+	 */
+	public String putString(Key key, StringOutput output, long ttlSeconds) {
+		String s = output.toString();
+		put(key, s, s.length(), ttlSeconds);
+		return s;
+	}
+
+	/**
+	 * Removes all cached fragments.
+	 */
+	public void clear() {
+		for (var e : fragments.entrySet()) {
+			remove(e.getKey(), e.getValue());
+		}
+	}
+
+	/**
+	 * Current metrics of the cache.
+	 * @return stats
+	 */
+	public Stats stats() {
+		return new Stats(hits.sum(), misses.sum(), evictions.sum(), expirations.sum(), fragments.size(), weight.get(),
+				maxWeight);
+	}
+
+	private @Nullable Object get(Key key) {
+		var fragment = fragments.get(key);
+		if (fragment != null && fragment.isExpired(ticker.getAsLong())) {
+			if (remove(key, fragment)) {
+				expirations.increment();
+			}
+			fragment = null;
+		}
+		if (fragment == null) {
+			misses.increment();
+			return null;
+		}
+		if (!fragment.referenced) {
+			fragment.referenced = true;
+		}
+		hits.increment();
+		return fragment.output;
+	}
+
+	private void put(Key key, Object output, long outputWeight, long ttlSeconds) {
+		if (outputWeight > maxWeight || ttlSeconds <= 0) {
+			return;
+		}
+		long expiresAt = ticker.getAsLong() + TimeUnit.SECONDS.toNanos(ttlSeconds);
+		var fragment = new Fragment(output, outputWeight, expiresAt);
+		/*
+		 * The weight of a fragment is added when it is mapped and subtracted by whoever
+		 * unmaps it (replacing or removing) so that the total stays consistent without a
+		 * lock.
+		 */
+		var previous = fragments.put(key, fragment);
+		weight.addAndGet(previous == null ? outputWeight : outputWeight - previous.weight);
+		if (weight.get() > maxWeight) {
+			evict();
+		}
+	}
+
+	private boolean remove(Key key, Fragment fragment) {
+		if (fragments.remove(key, fragment)) {
+			weight.addAndGet(-fragment.weight);
+			return true;
+		}
+		return false;
+	}
+
+	/*
+	 * Second chance (clock) eviction. Expired fragments the hand passes are removed as
+	 * well. Referenced fragments are skipped at most for one full sweep so that readers
+	 * cannot keep the writer here forever.
+	 */
+	private void evict() {
+		evictionLock.lock();
+		try {
+			long now = ticker.getAsLong();
+			int chances = fragments.size();
+			while (weight.get() > maxWeight) {
+				var h = hand;
+				if (h == null || !h.hasNext()) {
+					h = hand = fragments.entrySet().iterator();
+					if (!h.hasNext()) {
+						return;
+					}
+				}
+				var e = h.next();
+				var fragment = e.getValue();
+				if (fragment.isExpired(now)) {
+					if (remove(e.getKey(), fragment)) {
+						expirations.increment();
+					}
+				}
+				else if (fragment.referenced && chances-- > 0) {
+					fragment.referenced = false;
+				}
+				else if (remove(e.getKey(), fragment)) {
+					evictions.increment();
+				}
+			}
+		}
+		finally {
+			evictionLock.unlock();
+		}
+	}
+
+}
@@ -1,6 +1,7 @@
 package io.jstach.jstachio;
 
 import java.io.DataOutput;
+import java.io.Flushable;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.charset.Charset;
@@ -113,6 +114,19 @@ public interface Output<E extends Exception> {
 		append(String.valueOf(b));
 	}
 
+	/**
+	 * A hint that everything written so far should be sent downstream. Generated
+	 * templates call this where the template has a <code>{{&#64;flush}}</code> tag
+	 * (<code>JStache.FLUSH_BINDING_NAME</code>) so that the start of a document can be
+	 * sent while the rest is still rendering.
+	 * <p>
+	 * Outputs that buffer (for example to calculate content length) may honor the hint by
+	 * sending what has been buffered. The default implementation does nothing.
+	 * @throws E if an error happens while flushing
+	 */
+	default void flush() throws E {
+	}
+
 	/**
 	 * Adapts an {@link OutputStream} as an {@link Output}.
 	 * @param a the OutputStream to be wrapped.
@@ -177,9 +191,9 @@ public interface Output<E extends Exception> {
 
 		/**
 		 * Analogous to {@link OutputStream#write(byte[], int, int)}. Generated templates
-		 * do not call this method as great care as to be taken to preserve the encoding.
-		 * It is only provided in the case of future found optimizations and is not
-		 * currently required.
+		 * only call this method if the template is flagged to pack its pre-encoded text
+		 * (<code>JStacheFlags.Flag.PACK_TEXT</code>) in which case the ranges are always
+		 * complete encoded parts. Implementations should not alter the byte array.
 		 * <p>
 		 * The default implementation creates an array copies the data and then calls
 		 * {@link #write(byte[])}.
@@ -404,6 +418,13 @@ class AppendableOutput implements Output<IOException> {
 
 	}
 
+	@Override
+	public void flush() throws IOException {
+		if (appendable instanceof Flushable f) {
+			f.flush();
+		}
+	}
+
 }
 
 class OutputStreamOutput implements CloseableEncodedOutput<IOException> {
@@ -443,6 +464,11 @@ class OutputStreamOutput implements CloseableEncodedOutput<IOException> {
 		return charset;
 	}
 
+	@Override
+	public void flush() throws IOException {
+		outputStream.flush();
+	}
+
 	@Override
 	public void close() throws IOException {
 		outputStream.close();
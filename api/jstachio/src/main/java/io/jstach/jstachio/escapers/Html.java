@@ -55,6 +55,12 @@ import io.jstach.jstachio.Escaper;
  * and thus will not encode characters other then the ones mentioned above. </strong> Thus
  * if you intend escape for example {@link StandardCharsets#US_ASCII} a different HTML
  * escaper should be used to properly escape non ascii characters as HTML entities.
+ * <p>
+ * When the input is a {@link String} the escaper scans in bulk for the next character
+ * that needs escaping and appends the unescaped runs in between with a single call. The
+ * older per character loop can be selected by setting the system property
+ * {@value #SCAN_DISABLE_PROPERTY} to <code>true</code>. The output is the same
+ * regardless.
  *
  * @author agentgt
  * @author Victor Nazarov
@@ -63,6 +69,12 @@ import io.jstach.jstachio.Escaper;
 @JStacheContentType(mediaType = "text/html", charsets = { "UTF-8" })
 public final class Html {
 
+	/**
+	 * System property that if set to <code>true</code> disables the bulk scanning of
+	 * strings. The property is read once when the escaper is loaded.
+	 */
+	public static final String SCAN_DISABLE_PROPERTY = "jstachio.escaper.html.scan.disable";
+
 	private Html() {
 	}
 
@@ -1,22 +1,66 @@
 package io.jstach.jstachio.escapers;
 
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
 
 import org.eclipse.jdt.annotation.Nullable;
 
 import io.jstach.jstachio.Escaper;
 import io.jstach.jstachio.Output;
+import io.jstach.jstachio.Output.EncodedOutput;
+import io.jstach.jstachio.output.AsciiEncoding;
 
 @SuppressWarnings("ImmutableEnumChecker")
-enum HtmlEscaper implements Escaper {
+enum HtmlEscaper implements Escaper.EncodedEscaper {
 
-	HTML5(defaultMappings());
+	HTML5(defaultMappings(), !Boolean.getBoolean(Html.SCAN_DISABLE_PROPERTY));
 
 	private final String[] lookupTable;
 
-	HtmlEscaper(Map<Character, String> mapping) {
+	/*
+	 * The replacements pre-encoded as ascii which is valid for any ascii compatible
+	 * charset.
+	 */
+	private final byte[][] encodedTable;
+
+	/*
+	 * The escapable ascii characters are within [min, max] which for HTML is '"' to '`'.
+	 * Most text (lowercase letters and whitespace) falls outside that range so a range
+	 * check is usually the only work done per char. Within the range the bits are
+	 * checked.
+	 */
+	private final char min;
+
+	private final char max;
+
+	private final long bits;
+
+	private final boolean scan;
+
+	HtmlEscaper(Map<Character, String> mapping, boolean scan) {
 		String[] table = createTable(mapping);
 		this.lookupTable = table;
+		this.encodedTable = encodeTable(table);
+		char _min = Character.MAX_VALUE;
+		char _max = 0;
+		for (var k : mapping.keySet()) {
+			char c = k;
+			_min = c < _min ? c : _min;
+			_max = c > _max ? c : _max;
+		}
+		long _bits = 0;
+		for (var k : mapping.keySet()) {
+			char c = k;
+			_bits |= 1L << (c - _min);
+		}
+		this.min = _min;
+		this.max = _max;
+		this.bits = _bits;
+		/*
+		 * If the range does not fit in a long we fallback to the loop.
+		 */
+		this.scan = scan && (_max - _min) < 64;
 	}
 
 	static final String QUOT = "&quot;";
@@ -46,6 +90,10 @@ enum HtmlEscaper implements Escaper {
 
 	@Override
 	public <A extends Output<E>, E extends Exception> void append(A a, CharSequence csq) throws E {
+		if (scan && csq instanceof String s) {
+			appendString(a, s, 0, s.length());
+			return;
+		}
 		// we duplicate the logic here because StringBuilder.append(String)
 		// is fairly different than StringBuilder.append(csq, start, end)
 		// the former is fast byte copy and the latter has to check if all latin1
@@ -80,19 +128,15 @@ enum HtmlEscaper implements Escaper {
 
 	@Override
 	public <A extends Output<E>, E extends Exception> void append(A a, CharSequence csq, int start, int end) throws E {
-		// we duplicate the logic here because StringBuilder.append(String)
-		// is fairly different than StringBuilder.append(csq, start, end)
-		// the former is fast byte copy and the latter has to check if all latin1
-		for (int i = 0; i < end; i++) {
+		if (scan && csq instanceof String s) {
+			appendString(a, s, start, end);
+			return;
+		}
+		for (int i = start; i < end; i++) {
 			char c = csq.charAt(i);
 			String found = escapeChar(lookupTable, c);
-			/*
-			 * While this could be done with one loop it appears through benchmarking that
-			 * by having the first loop assume the string to be not changed creates a fast
-			 * path for strings with no escaping needed.
-			 */
 			if (found != null) {
-				a.append(csq, 0, i);
+				a.append(csq, start, i);
 				a.append(found);
 				start = i = i + 1;
 				for (; i < end; i++) {
@@ -111,6 +155,102 @@ enum HtmlEscaper implements Escaper {
 		a.append(csq, start, end);
 	}
 
+	/*
+	 * The bulk scanning path. String.charAt is monomorphic and intrinsified unlike
+	 * CharSequence.charAt and the escapable check is mostly a range check instead of a
+	 * table load and null check. Unescaped runs are emitted with a single append.
+	 */
+	private <A extends Output<E>, E extends Exception> void appendString(A a, String s, int start, int end) throws E {
+		if (a instanceof EncodedOutput<E> encoded && isEncodable(encoded.charset())) {
+			encodeString(encoded, s, start, end);
+			return;
+		}
+		int i = nextEscape(s, start, end);
+		if (i == end) {
+			if (start == 0 && end == s.length()) {
+				a.append(s);
+			}
+			else {
+				a.append(s, start, end);
+			}
+			return;
+		}
+		final String[] table = this.lookupTable;
+		do {
+			if (i > start) {
+				a.append(s, start, i);
+			}
+			a.append(table[s.charAt(i)]);
+			start = i + 1;
+			i = nextEscape(s, start, end);
+		}
+		while (i < end);
+		if (start < end) {
+			a.append(s, start, end);
+		}
+	}
+
+	/*
+	 * Same as appendString except the replacements are written pre-encoded.
+	 */
+	private <A extends EncodedOutput<E>, E extends Exception> void encodeString(A a, String s, int start, int end)
+			throws E {
+		int i = nextEscape(s, start, end);
+		if (i == end) {
+			if (start == 0 && end == s.length()) {
+				a.append(s);
+			}
+			else {
+				a.append(s, start, end);
+			}
+			return;
+		}
+		final byte[][] table = this.encodedTable;
+		do {
+			if (i > start) {
+				a.append(s, start, i);
+			}
+			a.write(table[s.charAt(i)]);
+			start = i + 1;
+			i = nextEscape(s, start, end);
+		}
+		while (i < end);
+		if (start < end) {
+			a.append(s, start, end);
+		}
+	}
+
+	@Override
+	public boolean isEncodable(Charset charset) {
+		return AsciiEncoding.isAsciiCompatible(charset);
+	}
+
+	@Override
+	public <A extends EncodedOutput<E>, E extends Exception> void encode(A a, CharSequence csq, int start, int end)
+			throws E {
+		if (scan && csq instanceof String s && isEncodable(a.charset())) {
+			encodeString(a, s, start, end);
+			return;
+		}
+		append(a, csq, start, end);
+	}
+
+	/*
+	 * Returns the index of the next escapable character or end if there is none.
+	 */
+	private int nextEscape(String s, int i, int end) {
+		final char _min = this.min;
+		final char _max = this.max;
+		final long _bits = this.bits;
+		for (; i < end; i++) {
+			char c = s.charAt(i);
+			if (c <= _max && c >= _min && ((_bits >>> (c - _min)) & 1L) != 0) {
+				return i;
+			}
+		}
+		return end;
+	}
+
 	@Override
 	public <A extends Output<E>, E extends Exception> void append(A a, char c) throws E {
 		String escaped = escapeChar(lookupTable, c);
@@ -160,6 +300,17 @@ enum HtmlEscaper implements Escaper {
 		return table;
 	}
 
+	private static byte[][] encodeTable(String[] table) {
+		byte[][] encoded = new byte[table.length][];
+		for (int i = 0; i < table.length; i++) {
+			String value = table[i];
+			if (value != null) {
+				encoded[i] = value.getBytes(StandardCharsets.US_ASCII);
+			}
+		}
+		return encoded;
+	}
+
 	private static @Nullable String escapeChar(String[] lookupTable, char c) {
 		if (c > 127) {
 			return null;
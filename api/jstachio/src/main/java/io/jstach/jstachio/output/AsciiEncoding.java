@@ -0,0 +1,115 @@
+package io.jstach.jstachio.output;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes numbers and booleans directly as bytes for charsets that are ASCII compatible
+ * (UTF-8, ISO-8859-1 and US-ASCII). This allows encoded outputs to render primitives
+ * without first creating a String with {@code String.valueOf} and then encoding it.
+ * <p>
+ * Outputs with a backing byte array should use {@link #write(long, byte[], int)} while
+ * outputs that keep the written byte arrays around (chunks) can use
+ * {@link #toBytes(long)} or {@link #toBytes(boolean)}.
+ *
+ * @author agentgt
+ */
+public final class AsciiEncoding {
+
+	/**
+	 * The maximum number of bytes a long (or int or short) needs which is the length of
+	 * {@link Long#MIN_VALUE}.
+	 */
+	public static final int MAX_LONG_LENGTH = 20;
+
+	private static final byte[] TRUE = "true".getBytes(StandardCharsets.US_ASCII);
+
+	private static final byte[] FALSE = "false".getBytes(StandardCharsets.US_ASCII);
+
+	private AsciiEncoding() {
+	}
+
+	/**
+	 * Checks if the charset encodes ASCII characters as single ASCII bytes.
+	 * @param charset charset of the output
+	 * @return true if the charset is UTF-8, ISO-8859-1 or US-ASCII.
+	 */
+	public static boolean isAsciiCompatible(Charset charset) {
+		return charset.equals(StandardCharsets.UTF_8) || charset.equals(StandardCharsets.ISO_8859_1)
+				|| charset.equals(StandardCharsets.US_ASCII);
+	}
+
+	/**
+	 * The number of bytes needed to write the value.
+	 * @param value number
+	 * @return number of bytes including the minus sign.
+	 */
+	public static int size(long value) {
+		/*
+		 * Same as the JDK we work with negative numbers so that MIN_VALUE works.
+		 */
+		int d = 1;
+		long x = value;
+		if (x >= 0) {
+			d = 0;
+			x = -x;
+		}
+		long p = -10;
+		for (int i = 1; i < 19; i++) {
+			if (x > p) {
+				return i + d;
+			}
+			p = 10 * p;
+		}
+		return 19 + d;
+	}
+
+	/**
+	 * Writes the decimal representation of the value as ASCII digits. The destination
+	 * must have at least {@link #size(long)} (or {@value #MAX_LONG_LENGTH}) bytes
+	 * available from the offset.
+	 * @param value number to write
+	 * @param dest destination
+	 * @param offset where to start writing
+	 * @return the offset after the last written byte.
+	 */
+	public static int write(long value, byte[] dest, int offset) {
+		int end = offset + size(value);
+		int pos = end;
+		boolean negative = value < 0;
+		long q = negative ? value : -value;
+		while (q <= -10) {
+			long r = q / 10;
+			dest[--pos] = (byte) ('0' + (r * 10 - q));
+			q = r;
+		}
+		dest[--pos] = (byte) ('0' - q);
+		if (negative) {
+			dest[--pos] = '-';
+		}
+		return end;
+	}
+
+	/**
+	 * Encodes the value into a new exactly sized array.
+	 * @param value number
+	 * @return ASCII digits.
+	 */
+	public static byte[] toBytes(long value) {
+		byte[] b = new byte[size(value)];
+		write(value, b, 0);
+		return b;
+	}
+
+	/**
+	 * Returns a shared array of either <code>true</code> or <code>false</code>. The
+	 * returned array should not be altered which is consistent with the contract of
+	 * {@link io.jstach.jstachio.Output.EncodedOutput#write(byte[])}.
+	 * @param value boolean
+	 * @return shared ASCII bytes.
+	 */
+	public static byte[] toBytes(boolean value) {
+		return value ? TRUE : FALSE;
+	}
+
+}
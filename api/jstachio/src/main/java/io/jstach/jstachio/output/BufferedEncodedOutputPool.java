@@ -0,0 +1,375 @@
+package io.jstach.jstachio.output;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * A bounded pool of reusable {@link ByteBufferEncodedOutput}s so that buffering a
+ * template does not allocate (and then grow by copying) a new array for every render.
+ * <p>
+ * Buffers are kept in size classes that are powers of two of the minimum buffer size up
+ * to the maximum buffer size. {@linkplain #acquire(int) Acquiring} picks the smallest
+ * class that fits the size hint and {@linkplain BufferedEncodedOutput#close() closing}
+ * the acquired output returns it to the class that its (possibly grown) buffer now fits.
+ * Buffers that grew beyond the maximum or that do not fit because the class is full are
+ * dropped (trimmed) and left for the garbage collector.
+ * <p>
+ * Unlike ThreadLocal based reuse the pool is not tied to threads and is lock free which
+ * makes it safe and effective with virtual threads.
+ * <p>
+ * Example usage:
+ *
+ * <pre><code class="language-java">
+ * BufferedEncodedOutputPool pool = BufferedEncodedOutputPool.of(StandardCharsets.UTF_8);
+ * // later per request
+ * try (var output = pool.acquire()) {
+ *     jstachio.write(model, output);
+ *     output.transferTo(responseStream);
+ * }
+ * </code></pre>
+ *
+ * @author agentgt
+ * @apiNote The pool is thread safe but the acquired outputs are not. An acquired output
+ * must be closed once and only once and not used after it is closed.
+ */
+public interface BufferedEncodedOutputPool {
+
+	/**
+	 * The default minimum buffer size which is
+	 * {@value ByteBufferedOutputStream#BUFFER_SIZE}.
+	 */
+	public static final int DEFAULT_MIN_BUFFER_SIZE = ByteBufferedOutputStream.BUFFER_SIZE;
+
+	/**
+	 * The default maximum buffer size to pool which is {@value #DEFAULT_MAX_BUFFER_SIZE}.
+	 */
+	public static final int DEFAULT_MAX_BUFFER_SIZE = 64 * 1024;
+
+	/**
+	 * The default maximum number of buffers per size class which is
+	 * {@value #DEFAULT_MAX_PER_SIZE_CLASS}.
+	 */
+	public static final int DEFAULT_MAX_PER_SIZE_CLASS = 32;
+
+	/**
+	 * Gets a pooled output or creates a new one if none are available. The returned
+	 * output is empty and will be returned to the pool when closed.
+	 * @param sizeHint the expected size of the output. <code>0</code> or less means
+	 * unknown.
+	 * @return empty output that should be closed when finished.
+	 */
+	public ByteBufferEncodedOutput acquire(int sizeHint);
+
+	/**
+	 * Gets a pooled output of the smallest size class.
+	 * @return empty output that should be closed when finished.
+	 * @see #acquire(int)
+	 */
+	default ByteBufferEncodedOutput acquire() {
+		return acquire(0);
+	}
+
+	/**
+	 * Acquires a pooled output and
+	 * {@linkplain BufferedEncodedOutput#limit(int, OutputFactory) limits} it. Closing the
+	 * returned output will close the stream created by the factory and return the buffer
+	 * to the pool.
+	 * @param sizeHint the expected size of the output.
+	 * @param limit the maximum amount of bytes to buffer.
+	 * @param factory create the output stream on demand.
+	 * @return output that needs to be closed.
+	 * @see BufferedEncodedOutput#limit(int, OutputFactory)
+	 */
+	default LimitEncodedOutput<OutputStream, IOException> limit(int sizeHint, int limit,
+			OutputFactory<OutputStream, IOException> factory) {
+		var buffer = acquire(Math.min(sizeHint, limit));
+		return new AbstractLimitEncodedOutput(buffer, limit) {
+			@Override
+			protected OutputStream createConsumer(int size) throws IOException {
+				return factory.create(size);
+			}
+
+			@Override
+			public void close() throws IOException {
+				try {
+					super.close();
+				}
+				finally {
+					buffer.close();
+				}
+			}
+		};
+	}
+
+	/**
+	 * The charset of the outputs.
+	 * @return charset of all acquired outputs.
+	 */
+	public Charset charset();
+
+	/**
+	 * Current statistics of the pool.
+	 * @return snapshot of stats.
+	 */
+	public Stats stats();
+
+	/**
+	 * Drops all pooled buffers. Outputs currently acquired will still be returned to the
+	 * pool when closed.
+	 */
+	public void clear();
+
+	/**
+	 * Pool statistics.
+	 * @param hits number of acquires that reused a pooled buffer.
+	 * @param misses number of acquires that had to allocate a new buffer.
+	 * @param trims number of released buffers that were dropped because they were too
+	 * large or the size class was full.
+	 * @param pooled approximate number of buffers currently in the pool.
+	 */
+	public record Stats(long hits, long misses, long trims, int pooled) {
+	}
+
+	/**
+	 * Creates a pool with the default sizes.
+	 * @param charset charset of the outputs.
+	 * @return new pool.
+	 */
+	public static BufferedEncodedOutputPool of(Charset charset) {
+		return of(charset, DEFAULT_MIN_BUFFER_SIZE, DEFAULT_MAX_BUFFER_SIZE, DEFAULT_MAX_PER_SIZE_CLASS);
+	}
+
+	/**
+	 * Creates a pool.
+	 * @param charset charset of the outputs.
+	 * @param minBufferSize smallest size class.
+	 * @param maxBufferSize largest buffer that will be pooled. Size classes are powers of
+	 * two of the min buffer size up to this.
+	 * @param maxPerSizeClass maximum number of buffers pooled per size class.
+	 * @return new pool.
+	 * @throws IllegalArgumentException if the sizes are not positive or max is less than
+	 * min.
+	 */
+	public static BufferedEncodedOutputPool of(Charset charset, int minBufferSize, int maxBufferSize,
+			int maxPerSizeClass) {
+		return new SizeClassBufferedEncodedOutputPool(charset, minBufferSize, maxBufferSize, maxPerSizeClass);
+	}
+
+}
+
+final class SizeClassBufferedEncodedOutputPool implements BufferedEncodedOutputPool {
+
+	private final Charset charset;
+
+	private final int minBufferSize;
+
+	private final int maxBufferSize;
+
+	private final SizeClass[] sizeClasses;
+
+	private final LongAdder hits = new LongAdder();
+
+	private final LongAdder misses = new LongAdder();
+
+	private final LongAdder trims = new LongAdder();
+
+	SizeClassBufferedEncodedOutputPool(Charset charset, int minBufferSize, int maxBufferSize, int maxPerSizeClass) {
+		if (minBufferSize <= 0 || maxPerSizeClass <= 0) {
+			throw new IllegalArgumentException("min buffer size and max per size class should be greater than 0");
+		}
+		if (maxBufferSize < minBufferSize) {
+			throw new IllegalArgumentException("max buffer size should be greater than min buffer size");
+		}
+		this.charset = charset;
+		this.minBufferSize = minBufferSize;
+		int count = 1;
+		while (count < 31 && ((long) minBufferSize << count) <= maxBufferSize) {
+			count++;
+		}
+		this.maxBufferSize = minBufferSize << (count - 1);
+		this.sizeClasses = new SizeClass[count];
+		for (int i = 0; i < count; i++) {
+			sizeClasses[i] = new SizeClass(maxPerSizeClass);
+		}
+	}
+
+	@Override
+	public ByteBufferEncodedOutput acquire(int sizeHint) {
+		int index = ceilingIndex(sizeHint);
+		if (index >= 0) {
+			for (int i = index; i < sizeClasses.length; i++) {
+				var output = sizeClasses[i].poll();
+				if (output != null) {
+					hits.increment();
+					output.leased = true;
+					return output;
+				}
+			}
+		}
+		misses.increment();
+		int capacity = index >= 0 ? minBufferSize << index : sizeHint;
+		var output = new PooledByteBufferedOutputStream(capacity, charset, this);
+		output.leased = true;
+		return output;
+	}
+
+	void release(PooledByteBufferedOutputStream output) {
+		int capacity = output.capacity();
+		if (capacity > maxBufferSize || capacity < minBufferSize) {
+			trims.increment();
+			return;
+		}
+		int index = floorIndex(capacity);
+		if (!sizeClasses[index].offer(output)) {
+			trims.increment();
+		}
+	}
+
+	/*
+	 * Smallest class that can hold the size or -1 if larger than the largest class.
+	 */
+	private int ceilingIndex(int size) {
+		if (size > maxBufferSize) {
+			return -1;
+		}
+		int index = 0;
+		while ((minBufferSize << index) < size) {
+			index++;
+		}
+		return index;
+	}
+
+	/*
+	 * Largest class whose capacity is less than or equal to the capacity.
+	 */
+	private int floorIndex(int capacity) {
+		int index = 0;
+		while (index + 1 < sizeClasses.length && (minBufferSize << (index + 1)) <= capacity) {
+			index++;
+		}
+		return index;
+	}
+
+	@Override
+	public Charset charset() {
+		return this.charset;
+	}
+
+	@Override
+	public Stats stats() {
+		int pooled = 0;
+		for (var sc : sizeClasses) {
+			pooled += sc.count();
+		}
+		return new Stats(hits.sum(), misses.sum(), trims.sum(), pooled);
+	}
+
+	@Override
+	public void clear() {
+		for (var sc : sizeClasses) {
+			sc.clear();
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "SizeClassBufferedEncodedOutputPool[charset=" + charset + ", minBufferSize=" + minBufferSize
+				+ ", maxBufferSize=" + maxBufferSize + ", stats=" + stats() + "]";
+	}
+
+	/*
+	 * Lock free bounded bag. Probing starts at a random slot to spread contention.
+	 */
+	static final class SizeClass {
+
+		private final AtomicReferenceArray<@Nullable PooledByteBufferedOutputStream> slots;
+
+		SizeClass(int size) {
+			this.slots = new AtomicReferenceArray<>(size);
+		}
+
+		@Nullable
+		PooledByteBufferedOutputStream poll() {
+			int n = slots.length();
+			int start = ThreadLocalRandom.current().nextInt(n);
+			for (int k = 0; k < n; k++) {
+				int i = (start + k) % n;
+				var output = slots.get(i);
+				if (output != null && slots.compareAndSet(i, output, null)) {
+					return output;
+				}
+			}
+			return null;
+		}
+
+		boolean offer(PooledByteBufferedOutputStream output) {
+			int n = slots.length();
+			int start = ThreadLocalRandom.current().nextInt(n);
+			for (int k = 0; k < n; k++) {
+				int i = (start + k) % n;
+				if (slots.get(i) == null && slots.compareAndSet(i, null, output)) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		int count() {
+			int count = 0;
+			for (int i = 0; i < slots.length(); i++) {
+				if (slots.get(i) != null) {
+					count++;
+				}
+			}
+			return count;
+		}
+
+		void clear() {
+			for (int i = 0; i < slots.length(); i++) {
+				slots.set(i, null);
+			}
+		}
+
+	}
+
+}
+
+final class PooledByteBufferedOutputStream extends ByteBufferedOutputStream {
+
+	private final SizeClassBufferedEncodedOutputPool pool;
+
+	/*
+	 * Only accessed by the thread that acquired the output. The pool's atomic slots
+	 * provide the happens before.
+	 */
+	boolean leased;
+
+	PooledByteBufferedOutputStream(int bufferSize, Charset charset, SizeClassBufferedEncodedOutputPool pool) {
+		super(bufferSize, charset);
+		this.pool = pool;
+	}
+
+	int capacity() {
+		return buf.length;
+	}
+
+	/**
+	 * Resets the buffer and returns it to the pool. Calling close more than once has no
+	 * additional effect.
+	 */
+	@Override
+	public void close() {
+		reset();
+		if (leased) {
+			leased = false;
+			pool.release(this);
+		}
+	}
+
+}
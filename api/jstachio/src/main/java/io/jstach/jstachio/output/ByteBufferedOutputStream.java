@@ -51,6 +51,16 @@ public class ByteBufferedOutputStream extends OutputStream implements ByteBuffer
 	 */
 	protected final Charset charset;
 
+	/*
+	 * If UTF-8 we encode chars directly into the buffer.
+	 */
+	private final boolean utf8;
+
+	/*
+	 * If ascii compatible we write numbers directly into the buffer.
+	 */
+	private final boolean ascii;
+
 	/**
 	 * Creates buffered stream of given size.
 	 * @param bufferSize initial size.
@@ -68,6 +78,8 @@ public class ByteBufferedOutputStream extends OutputStream implements ByteBuffer
 	public ByteBufferedOutputStream(int bufferSize, Charset charset) {
 		this.buf = new byte[bufferSize];
 		this.charset = charset;
+		this.utf8 = StandardCharsets.UTF_8.equals(charset);
+		this.ascii = AsciiEncoding.isAsciiCompatible(charset);
 	}
 
 	/**
@@ -86,6 +98,13 @@ public class ByteBufferedOutputStream extends OutputStream implements ByteBuffer
 		this.reset();
 	}
 
+	/**
+	 * Does nothing as everything is buffered.
+	 */
+	@Override
+	public void flush() {
+	}
+
 	@Override
 	public Charset charset() {
 		return this.charset;
@@ -111,6 +130,89 @@ public class ByteBufferedOutputStream extends OutputStream implements ByteBuffer
 		write(s.getBytes(this.charset));
 	}
 
+	@Override
+	public void append(char c) {
+		if (ascii && c < 0x80) {
+			ensureCapacity(count + 1);
+			buf[count++] = (byte) c;
+		}
+		else {
+			append(String.valueOf(c));
+		}
+	}
+
+	@Override
+	public void append(short s) {
+		append((long) s);
+	}
+
+	@Override
+	public void append(int i) {
+		append((long) i);
+	}
+
+	/**
+	 * If the charset is ASCII compatible the digits are written directly into the buffer.
+	 */
+	@Override
+	public void append(long l) {
+		if (ascii) {
+			ensureCapacity(count + AsciiEncoding.MAX_LONG_LENGTH);
+			count = AsciiEncoding.write(l, buf, count);
+		}
+		else {
+			append(String.valueOf(l));
+		}
+	}
+
+	@Override
+	public void append(boolean b) {
+		if (ascii) {
+			write(AsciiEncoding.toBytes(b));
+		}
+		else {
+			append(String.valueOf(b));
+		}
+	}
+
+	/**
+	 * If the charset is UTF-8 the characters are encoded directly into the buffer without
+	 * creating intermediate Strings or byte arrays otherwise the range is converted to a
+	 * String and then encoded.
+	 */
+	@Override
+	public void append(CharSequence csq, int start, int end) {
+		if (utf8) {
+			encodeUTF8(csq, start, end);
+		}
+		else {
+			append(csq.subSequence(start, end).toString());
+		}
+	}
+
+	private void encodeUTF8(CharSequence csq, int start, int end) {
+		/*
+		 * Optimistically assume ascii and only reserve more space when it is not.
+		 */
+		ensureCapacity(count + (end - start));
+		byte[] b = buf;
+		int c = count;
+		int i = start;
+		for (; i < end; i++) {
+			char ch = csq.charAt(i);
+			if (ch >= 0x80) {
+				break;
+			}
+			b[c++] = (byte) ch;
+		}
+		if (i < end) {
+			count = c;
+			ensureCapacity(c + (end - i) * Utf8Encoding.MAX_BYTES_PER_CHAR);
+			c = Utf8Encoding.encode(csq, i, end, buf, c);
+		}
+		count = c;
+	}
+
 	/**
 	 * How many bytes have been written so far.
 	 * @return 0 if empty, otherwise how many bytes so far
@@ -2,6 +2,7 @@ package io.jstach.jstachio.output;
 
 import java.nio.channels.ReadableByteChannel;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -48,9 +49,15 @@ class ByteArrayChunkEncodedOutput implements ChunkEncodedOutput<byte[]> {
 
 	private int bufferSizeHint = 0;
 
+	private final boolean ascii;
+
+	private final boolean utf8;
+
 	public ByteArrayChunkEncodedOutput(Charset charset) {
 		chunks = new ArrayList<>();
 		this.charset = charset;
+		this.ascii = AsciiEncoding.isAsciiCompatible(charset);
+		this.utf8 = StandardCharsets.UTF_8.equals(charset);
 	}
 
 	@Override
@@ -58,6 +65,50 @@ class ByteArrayChunkEncodedOutput implements ChunkEncodedOutput<byte[]> {
 		addChunk(bytes);
 	}
 
+	/**
+	 * If the charset is UTF-8 the range is encoded directly into a chunk of the exact
+	 * size without creating an intermediate String.
+	 */
+	@Override
+	public void append(CharSequence csq, int start, int end) {
+		if (utf8) {
+			addChunk(Utf8Encoding.toBytes(csq, start, end));
+		}
+		else {
+			append(csq.subSequence(start, end).toString());
+		}
+	}
+
+	@Override
+	public void append(short s) {
+		append((long) s);
+	}
+
+	@Override
+	public void append(int i) {
+		append((long) i);
+	}
+
+	@Override
+	public void append(long l) {
+		if (ascii) {
+			addChunk(AsciiEncoding.toBytes(l));
+		}
+		else {
+			append(String.valueOf(l));
+		}
+	}
+
+	@Override
+	public void append(boolean b) {
+		if (ascii) {
+			addChunk(AsciiEncoding.toBytes(b));
+		}
+		else {
+			append(String.valueOf(b));
+		}
+	}
+
 	private void addChunk(byte[] chunk) {
 		chunks.add(chunk);
 		int length = chunk.length;
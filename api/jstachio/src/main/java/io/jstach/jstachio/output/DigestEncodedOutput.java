@@ -0,0 +1,243 @@
+package io.jstach.jstachio.output;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.function.Function;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+import io.jstach.jstachio.Output.CloseableEncodedOutput;
+
+/**
+ * Digests (hashes) the bytes as they are written to a downstream output so that an entity
+ * tag (<code>ETag</code>) can be calculated without rendering to a String first.
+ * <p>
+ * The digest is completed when this output is {@linkplain #close() closed} but
+ * <em>before</em> the downstream output is closed. Consequently a buffering downstream
+ * output such as {@link ThresholdEncodedOutput} or {@link LimitEncodedOutput} can call
+ * {@link #etag()} when it creates its consumer with the known size on close and decide
+ * not to send the body if the client already has it:
+ *
+ * <pre><code class="language-java">
+ * try (var output = DigestEncodedOutput.of(d -&gt; new OutputStreamThresholdEncodedOutput(charset, limit) {
+ *     protected OutputStream createConsumer(int size) throws IOException {
+ *         if (size &gt; -1 &amp;&amp; d.etag().equals(ifNoneMatch)) {
+ *             response.setStatus(304);
+ *             return OutputStream.nullOutputStream();
+ *         }
+ *         return response.getOutputStream();
+ *     }
+ * })) {
+ *     jstachio.write(model, output);
+ * }
+ * </code> </pre>
+ *
+ * @author agentgt
+ * @param <E> the exception type of the downstream output
+ * @apiNote This class is not thread safe.
+ */
+public final class DigestEncodedOutput<E extends Exception> implements CloseableEncodedOutput<E> {
+
+	/**
+	 * The default digest algorithm: <code>MD5</code> which is what Spring uses for
+	 * shallow ETags. The digest is not used for security.
+	 */
+	public static final String DEFAULT_ALGORITHM = "MD5";
+
+	private final MessageDigest digest;
+
+	private final CloseableEncodedOutput<E> downstream;
+
+	private byte @Nullable [] result;
+
+	private final boolean utf8;
+
+	private final boolean ascii;
+
+	/*
+	 * Chars and numbers are encoded into this once and the same bytes are digested and
+	 * written downstream. Lazily created as not every template has variables.
+	 */
+	private byte @Nullable [] scratch;
+
+	private static final int SCRATCH_SIZE = 1024;
+
+	private DigestEncodedOutput(MessageDigest digest,
+			Function<? super DigestEncodedOutput<E>, ? extends CloseableEncodedOutput<E>> downstream) {
+		this.digest = digest;
+		this.downstream = downstream.apply(this);
+		var charset = this.downstream.charset();
+		this.utf8 = StandardCharsets.UTF_8.equals(charset);
+		this.ascii = AsciiEncoding.isAsciiCompatible(charset);
+	}
+
+	/**
+	 * Creates a digesting output with the {@linkplain #DEFAULT_ALGORITHM default
+	 * algorithm}.
+	 * @param <E> the exception type of the downstream output
+	 * @param downstream creates the downstream output and is passed the digesting output
+	 * so that the downstream output can use the {@link #etag()} on close.
+	 * @return digesting output.
+	 */
+	public static <E extends Exception> DigestEncodedOutput<E> of(
+			Function<? super DigestEncodedOutput<E>, ? extends CloseableEncodedOutput<E>> downstream) {
+		return of(DEFAULT_ALGORITHM, downstream);
+	}
+
+	/**
+	 * Creates a digesting output.
+	 * @param <E> the exception type of the downstream output
+	 * @param algorithm a {@link MessageDigest} algorithm.
+	 * @param downstream creates the downstream output and is passed the digesting output
+	 * so that the downstream output can use the {@link #etag()} on close.
+	 * @return digesting output.
+	 * @throws IllegalArgumentException if the algorithm is not available.
+	 */
+	public static <E extends Exception> DigestEncodedOutput<E> of(String algorithm,
+			Function<? super DigestEncodedOutput<E>, ? extends CloseableEncodedOutput<E>> downstream) {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance(algorithm);
+		}
+		catch (NoSuchAlgorithmException e) {
+			throw new IllegalArgumentException(e);
+		}
+		return new DigestEncodedOutput<>(digest, downstream);
+	}
+
+	@Override
+	public void write(byte[] bytes) throws E {
+		digest.update(bytes);
+		downstream.write(bytes);
+	}
+
+	@Override
+	public void write(byte[] bytes, int off, int len) throws E {
+		digest.update(bytes, off, len);
+		downstream.write(bytes, off, len);
+	}
+
+	@Override
+	public void append(CharSequence s) throws E {
+		append(s.toString());
+	}
+
+	/**
+	 * If the charset is UTF-8 the range is encoded into a reused array in slices without
+	 * creating intermediate Strings.
+	 */
+	@Override
+	public void append(CharSequence csq, int start, int end) throws E {
+		if (!utf8) {
+			append(csq.subSequence(start, end).toString());
+			return;
+		}
+		byte[] b = scratch();
+		int maxChars = SCRATCH_SIZE / Utf8Encoding.MAX_BYTES_PER_CHAR;
+		int i = start;
+		while (i < end) {
+			int e = Utf8Encoding.sliceEnd(csq, i, end, maxChars);
+			write(b, 0, Utf8Encoding.encode(csq, i, e, b, 0));
+			i = e;
+		}
+	}
+
+	@Override
+	public void append(char c) throws E {
+		if (ascii && c < 0x80) {
+			byte[] b = scratch();
+			b[0] = (byte) c;
+			write(b, 0, 1);
+		}
+		else {
+			append(String.valueOf(c));
+		}
+	}
+
+	@Override
+	public void append(short s) throws E {
+		append((long) s);
+	}
+
+	@Override
+	public void append(int i) throws E {
+		append((long) i);
+	}
+
+	/**
+	 * If the charset is ASCII compatible the digits are encoded into a reused array
+	 * without creating a String.
+	 */
+	@Override
+	public void append(long l) throws E {
+		if (ascii) {
+			byte[] b = scratch();
+			write(b, 0, AsciiEncoding.write(l, b, 0));
+		}
+		else {
+			append(String.valueOf(l));
+		}
+	}
+
+	@Override
+	public void append(boolean b) throws E {
+		if (ascii) {
+			write(AsciiEncoding.toBytes(b));
+		}
+		else {
+			append(String.valueOf(b));
+		}
+	}
+
+	private byte[] scratch() {
+		byte[] b = this.scratch;
+		if (b == null) {
+			this.scratch = b = new byte[SCRATCH_SIZE];
+		}
+		return b;
+	}
+
+	@Override
+	public Charset charset() {
+		return downstream.charset();
+	}
+
+	@Override
+	public void flush() throws E {
+		downstream.flush();
+	}
+
+	/**
+	 * The digest of everything written. Once called nothing else should be written.
+	 * @return digest bytes.
+	 */
+	public byte[] digest() {
+		byte[] r = this.result;
+		if (r == null) {
+			this.result = r = digest.digest();
+		}
+		return r;
+	}
+
+	/**
+	 * A strong entity tag of the digest: the hex of the digest in double quotes.
+	 * @return quoted ETag header value.
+	 * @see #digest()
+	 */
+	public String etag() {
+		return "\"" + HexFormat.of().formatHex(digest()) + "\"";
+	}
+
+	/**
+	 * Completes the digest and then closes the downstream output.
+	 */
+	@Override
+	public void close() throws E {
+		digest();
+		downstream.close();
+	}
+
+}
@@ -71,4 +71,9 @@ public abstract class ForwardingOutput<E extends Exception> implements Output<E>
 		delegate().append(csq, start, end);
 	}
 
+	@Override
+	public void flush() throws E {
+		delegate().flush();
+	}
+
 }
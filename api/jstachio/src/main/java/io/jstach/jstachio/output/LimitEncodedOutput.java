@@ -3,6 +3,7 @@ package io.jstach.jstachio.output;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 
 import org.eclipse.jdt.annotation.Nullable;
 
@@ -78,11 +79,22 @@ abstract non-sealed class AbstractLimitEncodedOutput implements LimitEncodedOutp
 
 	protected final Charset charset;
 
+	private final boolean utf8;
+
+	/*
+	 * Chars are encoded into this before being buffered or pushed so that escaped
+	 * variables do not create Strings. Lazily created as not every template has them.
+	 */
+	private byte @Nullable [] scratch;
+
+	private static final int SCRATCH_SIZE = 1024;
+
 	protected AbstractLimitEncodedOutput(BufferedEncodedOutput buffer, int limit) {
 		super();
 		this.buffer = buffer;
 		this.limit = limit;
 		this.charset = buffer.charset();
+		this.utf8 = StandardCharsets.UTF_8.equals(charset);
 	}
 
 	@Override
@@ -107,6 +119,23 @@ abstract non-sealed class AbstractLimitEncodedOutput implements LimitEncodedOutp
 
 	}
 
+	@Override
+	public void write(byte[] bytes, int off, int len) throws IOException {
+		OutputStream c = this.consumer;
+		if (c != null) {
+			c.write(bytes, off, len);
+		}
+		else if ((len + size) > limit) {
+			c = this.consumer = createConsumer(-1);
+			buffer.transferTo(c);
+			c.write(bytes, off, len);
+		}
+		else {
+			buffer.write(bytes, off, len);
+		}
+		size += len;
+	}
+
 	@Override
 	public int size() {
 		return size;
@@ -167,6 +196,46 @@ abstract non-sealed class AbstractLimitEncodedOutput implements LimitEncodedOutp
 		write(s.getBytes(charset));
 	}
 
+	/**
+	 * If the charset is UTF-8 the range is encoded into a reused array in slices without
+	 * creating intermediate Strings.
+	 */
+	@Override
+	public void append(CharSequence csq, int start, int end) throws IOException {
+		if (!utf8) {
+			append(csq.subSequence(start, end).toString());
+			return;
+		}
+		byte[] b = this.scratch;
+		if (b == null) {
+			this.scratch = b = new byte[SCRATCH_SIZE];
+		}
+		int maxChars = SCRATCH_SIZE / Utf8Encoding.MAX_BYTES_PER_CHAR;
+		int i = start;
+		while (i < end) {
+			int e = Utf8Encoding.sliceEnd(csq, i, end, maxChars);
+			int len = Utf8Encoding.encode(csq, i, e, b, 0);
+			write(b, 0, len);
+			i = e;
+		}
+	}
+
+	/**
+	 * Stops buffering by creating the consumer as though the limit was exceeded and
+	 * flushes it.
+	 * @throws IOException if an error happens while creating or flushing the downstream
+	 * output
+	 */
+	@Override
+	public void flush() throws IOException {
+		var c = this.consumer;
+		if (c == null) {
+			this.consumer = c = createConsumer(-1);
+			this.buffer.transferTo(c);
+		}
+		c.flush();
+	}
+
 	/**
 	 * If the limit is not exceeded then the buffered data will be replayed and pushed
 	 * when closed. Regardless {@link #close(OutputStream)} will be called on the output
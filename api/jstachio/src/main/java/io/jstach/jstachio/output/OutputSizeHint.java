@@ -0,0 +1,131 @@
+package io.jstach.jstachio.output;
+
+import io.jstach.jstachio.TemplateInfo;
+
+/**
+ * A running estimate of how many bytes a template produces so that buffers can be
+ * allocated with an initial capacity that avoids repeatedly growing (copying) the buffer
+ * for large outputs and avoids over allocating for small outputs.
+ * <p>
+ * The estimate is an exponentially weighted moving average of the recorded sizes plus two
+ * times the exponentially weighted mean deviation which roughly approximates the 90th
+ * percentile or higher. The estimate is capped at {@value #MAX_SIZE_HINT} bytes so that a
+ * single huge output does not cause all future buffers to be huge.
+ * <p>
+ * Integrations that buffer the entire output should {@linkplain #sizeHint(int) get the
+ * hint} before allocating and {@linkplain #record(int) record} the actual size after
+ * rendering:
+ *
+ * <pre><code class="language-java">
+ * var hint = OutputSizeHint.of(template);
+ * var output = ByteBufferEncodedOutput.ofByteArray(charset, hint.sizeHint(4096));
+ * template.write(model, output);
+ * hint.record(output.size());
+ * </code></pre>
+ *
+ * @author agentgt
+ * @apiNote Updates are not atomic on purpose as the estimate is only a hint and an
+ * occasional lost update does not matter.
+ */
+public sealed interface OutputSizeHint {
+
+	/**
+	 * The largest hint that will be returned which is {@value #MAX_SIZE_HINT}.
+	 */
+	public static final int MAX_SIZE_HINT = 1024 * 1024;
+
+	/**
+	 * The estimated size of the next output.
+	 * @param defaultSize returned if no sizes have been recorded yet.
+	 * @return estimated size in bytes.
+	 */
+	public int sizeHint(int defaultSize);
+
+	/**
+	 * Records the actual size of an output.
+	 * @param size size in bytes. Negative sizes are ignored.
+	 */
+	public void record(int size);
+
+	/**
+	 * Creates a new standalone estimate.
+	 * @return new estimate with no recorded sizes.
+	 */
+	public static OutputSizeHint of() {
+		return new EwmaOutputSizeHint();
+	}
+
+	/**
+	 * Gets the shared estimate for a template. The estimate is keyed by the
+	 * {@linkplain TemplateInfo#modelClass() model class} of the template and lives as
+	 * long as the model class.
+	 * @param template template whose output size should be estimated.
+	 * @return shared estimate for the template.
+	 */
+	public static OutputSizeHint of(TemplateInfo template) {
+		return TemplateOutputSizeHints.HINTS.get(template.modelClass());
+	}
+
+}
+
+final class TemplateOutputSizeHints {
+
+	private TemplateOutputSizeHints() {
+	}
+
+	static final ClassValue<OutputSizeHint> HINTS = new ClassValue<>() {
+		@Override
+		protected OutputSizeHint computeValue(Class<?> type) {
+			return new EwmaOutputSizeHint();
+		}
+	};
+
+}
+
+final class EwmaOutputSizeHint implements OutputSizeHint {
+
+	/*
+	 * Weight of new samples is 1/8.
+	 */
+	private static final int SHIFT = 3;
+
+	private volatile int mean = -1;
+
+	private volatile int deviation = 0;
+
+	@Override
+	public int sizeHint(int defaultSize) {
+		int m = mean;
+		if (m < 0) {
+			return defaultSize;
+		}
+		long estimate = (long) m + 2L * deviation;
+		return (int) Math.min(estimate, MAX_SIZE_HINT);
+	}
+
+	@Override
+	public void record(int size) {
+		if (size < 0) {
+			return;
+		}
+		int m = mean;
+		if (m < 0) {
+			/*
+			 * Be conservative on the first sample.
+			 */
+			deviation = size >> 2;
+			mean = size;
+			return;
+		}
+		int diff = size - m;
+		int d = deviation;
+		deviation = d + ((Math.abs(diff) - d) >> SHIFT);
+		mean = m + (diff >> SHIFT);
+	}
+
+	@Override
+	public String toString() {
+		return "EwmaOutputSizeHint[mean=" + mean + ", deviation=" + deviation + "]";
+	}
+
+}
@@ -3,6 +3,7 @@ package io.jstach.jstachio.output;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -80,6 +81,10 @@ public abstract non-sealed class ThresholdEncodedOutput<T, E extends Exception>
 
 	private int size = 0;
 
+	private final boolean ascii;
+
+	private final boolean utf8;
+
 	/**
 	 * The maximum number of bytes to buffer.
 	 */
@@ -98,6 +103,8 @@ public abstract non-sealed class ThresholdEncodedOutput<T, E extends Exception>
 		chunks = new ArrayList<>();
 		this.charset = charset;
 		this.limit = limit;
+		this.ascii = AsciiEncoding.isAsciiCompatible(charset);
+		this.utf8 = StandardCharsets.UTF_8.equals(charset);
 	}
 
 	/**
@@ -169,6 +176,37 @@ public abstract non-sealed class ThresholdEncodedOutput<T, E extends Exception>
 		return charset;
 	}
 
+	/**
+	 * Flushes the consumer. Implementations can decide whether or not to really flush the
+	 * consumer. The default implementation does nothing.
+	 * @param consumer to be flushed or not
+	 * @throws E if an error happens while flushing.
+	 */
+	protected void flush(T consumer) throws E {
+	}
+
+	/**
+	 * Stops buffering by creating the consumer as though the limit was exceeded
+	 * (<code>-1</code> is passed as the size) and pushes the buffered data to it. The
+	 * consumer is then {@linkplain #flush(Object) flushed}. Consequently the
+	 * <code>Content-Length</code> will not be known if a template flushes.
+	 * @throws E if an error happens while creating or flushing the downstream output
+	 */
+	@Override
+	public void flush() throws E {
+		@Nullable
+		T c = this.consumer;
+		T _consumer;
+		if (c == null) {
+			this.consumer = _consumer = createConsumer(-1);
+			drain(_consumer);
+		}
+		else {
+			_consumer = c;
+		}
+		flush(_consumer);
+	}
+
 	/**
 	 * If the limit is not exceeded then the buffered data will be replayed and pushed
 	 * when closed. Regardless {@link #close(Object)} will be called on the output like
@@ -219,6 +257,54 @@ public abstract non-sealed class ThresholdEncodedOutput<T, E extends Exception>
 		write(s.getBytes(charset));
 	}
 
+	/**
+	 * If the charset is UTF-8 the range is encoded directly into a chunk of the exact
+	 * size without creating an intermediate String.
+	 */
+	@Override
+	public void append(CharSequence csq, int start, int end) throws E {
+		if (utf8) {
+			write(Utf8Encoding.toBytes(csq, start, end));
+		}
+		else {
+			append(csq.subSequence(start, end).toString());
+		}
+	}
+
+	@Override
+	public void append(short s) throws E {
+		append((long) s);
+	}
+
+	@Override
+	public void append(int i) throws E {
+		append((long) i);
+	}
+
+	/**
+	 * If the charset is ASCII compatible the digits are encoded directly without creating
+	 * a String.
+	 */
+	@Override
+	public void append(long l) throws E {
+		if (ascii) {
+			write(AsciiEncoding.toBytes(l));
+		}
+		else {
+			append(String.valueOf(l));
+		}
+	}
+
+	@Override
+	public void append(boolean b) throws E {
+		if (ascii) {
+			write(AsciiEncoding.toBytes(b));
+		}
+		else {
+			append(String.valueOf(b));
+		}
+	}
+
 	/**
 	 * An OutputStream backed buffer limited encoded output. This partial implementation
 	 * will cascade {@link #close()} to the OutputStream similar to OutputStream
@@ -250,6 +336,11 @@ public abstract non-sealed class ThresholdEncodedOutput<T, E extends Exception>
 			consumer.close();
 		}
 
+		@Override
+		protected void flush(OutputStream consumer) throws IOException {
+			consumer.flush();
+		}
+
 	}
 
 }
@@ -0,0 +1,109 @@
+package io.jstach.jstachio.output;
+
+/*
+ * Encodes chars as UTF-8 directly into byte arrays so that encoded outputs do not have to
+ * create intermediate Strings with subSequence().toString().getBytes().
+ */
+final class Utf8Encoding {
+
+	/*
+	 * The maximum bytes per char. Surrogate pairs are 4 bytes for 2 chars.
+	 */
+	static final int MAX_BYTES_PER_CHAR = 3;
+
+	private Utf8Encoding() {
+	}
+
+	/*
+	 * The exact number of bytes encode will write for the range.
+	 */
+	static int length(CharSequence csq, int start, int end) {
+		int n = 0;
+		for (int i = start; i < end; i++) {
+			char ch = csq.charAt(i);
+			if (ch < 0x80) {
+				n += 1;
+			}
+			else if (ch < 0x800) {
+				n += 2;
+			}
+			else if (Character.isSurrogate(ch)) {
+				if (Character.isHighSurrogate(ch) && i + 1 < end && Character.isLowSurrogate(csq.charAt(i + 1))) {
+					i++;
+					n += 4;
+				}
+				else {
+					n += 1;
+				}
+			}
+			else {
+				n += 3;
+			}
+		}
+		return n;
+	}
+
+	/*
+	 * The destination must have room for either length or (end - start) *
+	 * MAX_BYTES_PER_CHAR bytes from the offset. Returns the offset after the last written
+	 * byte.
+	 */
+	static int encode(CharSequence csq, int start, int end, byte[] dest, int offset) {
+		byte[] b = dest;
+		int c = offset;
+		for (int i = start; i < end; i++) {
+			char ch = csq.charAt(i);
+			if (ch < 0x80) {
+				b[c++] = (byte) ch;
+			}
+			else if (ch < 0x800) {
+				b[c++] = (byte) (0xC0 | (ch >> 6));
+				b[c++] = (byte) (0x80 | (ch & 0x3F));
+			}
+			else if (Character.isSurrogate(ch)) {
+				char low;
+				if (Character.isHighSurrogate(ch) && i + 1 < end && Character.isLowSurrogate(low = csq.charAt(i + 1))) {
+					int cp = Character.toCodePoint(ch, low);
+					i++;
+					b[c++] = (byte) (0xF0 | (cp >> 18));
+					b[c++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+					b[c++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+					b[c++] = (byte) (0x80 | (cp & 0x3F));
+				}
+				else {
+					// Malformed just like String.getBytes
+					b[c++] = '?';
+				}
+			}
+			else {
+				b[c++] = (byte) (0xE0 | (ch >> 12));
+				b[c++] = (byte) (0x80 | ((ch >> 6) & 0x3F));
+				b[c++] = (byte) (0x80 | (ch & 0x3F));
+			}
+		}
+		return c;
+	}
+
+	/*
+	 * The end of the next slice of at most maxChars chars that can be encoded separately
+	 * that is without splitting a surrogate pair.
+	 */
+	static int sliceEnd(CharSequence csq, int start, int end, int maxChars) {
+		int e = Math.min(end, start + maxChars);
+		if (e < end && Character.isHighSurrogate(csq.charAt(e - 1))) {
+			e--;
+		}
+		return e;
+	}
+
+	/*
+	 * Encodes the range to a new array of the exact size which is for outputs that keep
+	 * the written arrays (chunks).
+	 */
+	static byte[] toBytes(CharSequence csq, int start, int end) {
+		byte[] b = new byte[length(csq, start, end)];
+		encode(csq, start, end, b, 0);
+		return b;
+	}
+
+}
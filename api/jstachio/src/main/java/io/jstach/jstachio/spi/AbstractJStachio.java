@@ -3,6 +3,8 @@ package io.jstach.jstachio.spi;
 import static io.jstach.jstachio.spi.Templates.sneakyThrow;
 import static io.jstach.jstachio.spi.Templates.validateEncoding;
 
+import org.eclipse.jdt.annotation.Nullable;
+
 import io.jstach.jstachio.JStachio;
 import io.jstach.jstachio.Output;
 import io.jstach.jstachio.Output.EncodedOutput;
@@ -24,6 +26,21 @@ import io.jstach.jstachio.spi.JStachioFilter.FilterChain;
  */
 public abstract class AbstractJStachio implements JStachio, JStachioExtensions.Provider, ContextJStachio {
 
+	/*
+	 * Resolved templates for stateless filters keyed by the class of the template info.
+	 * Generated templates have a class per template so there is usually only one entry
+	 * per class. Template infos that share a class (reflection) will just replace the
+	 * entry.
+	 */
+	private final ClassValue<ResolvedTemplateHolder> resolvedTemplates = new ClassValue<>() {
+		@Override
+		protected ResolvedTemplateHolder computeValue(Class<?> type) {
+			return new ResolvedTemplateHolder();
+		}
+	};
+
+	private volatile @Nullable UnsupportedTypeCache unsupportedTypes;
+
 	/**
 	 * Do nothing constructor
 	 */
@@ -91,8 +108,20 @@ public abstract class AbstractJStachio implements JStachio, JStachioExtensions.P
 		else {
 			template = template(model.getClass());
 		}
-		var filter = loadFilter(model, template);
-		Template<Object> t = (Template<Object>) FilterChain.toTemplate(filter, template);
+		var jstachioFilter = extensions().getFilter();
+		if (!jstachioFilter.isStateless()) {
+			var filter = loadFilter(model, template);
+			return (Template<Object>) FilterChain.toTemplate(filter, template);
+		}
+		var holder = resolvedTemplates.get(template.getClass());
+		var resolved = holder.resolved;
+		if (resolved != null && resolved.templateInfo() == template && resolved.filter() == jstachioFilter
+				&& !resolved.chain().isBroken(model)) {
+			return resolved.template();
+		}
+		var chain = loadFilter(model, template);
+		Template<Object> t = (Template<Object>) FilterChain.toTemplate(chain, template);
+		holder.resolved = new ResolvedTemplate(template, jstachioFilter, chain, t);
 		return t;
 	}
 
@@ -140,7 +169,32 @@ public abstract class AbstractJStachio implements JStachio, JStachioExtensions.P
 		if (Templates.isIgnoredType(modelType)) {
 			return false;
 		}
-		return extensions().getTemplateFinder().supportsType(modelType);
+		return unsupportedTypes().supportsType(modelType);
+	}
+
+	/**
+	 * Metrics of the bounded cache {@link #supportsType(Class)} uses to remember model
+	 * types that are not supported so that repeatedly asking about them (for example by
+	 * web frameworks for every response body type) does not go through the template
+	 * finder.
+	 * @return a snapshot of the cache metrics.
+	 */
+	public final UnsupportedTypeStats unsupportedTypeStats() {
+		return unsupportedTypes().stats();
+	}
+
+	/*
+	 * The cache is recreated if the extensions provide a different template finder
+	 * otherwise the cached answers could be stale.
+	 */
+	private UnsupportedTypeCache unsupportedTypes() {
+		var finder = extensions().getTemplateFinder();
+		var cache = this.unsupportedTypes;
+		if (cache == null || cache.finder() != finder) {
+			cache = new UnsupportedTypeCache(finder, UnsupportedTypeCache.DEFAULT_SIZE);
+			this.unsupportedTypes = cache;
+		}
+		return cache;
 	}
 
 	/**
@@ -160,6 +214,16 @@ public abstract class AbstractJStachio implements JStachio, JStachioExtensions.P
 
 }
 
+final class ResolvedTemplateHolder {
+
+	volatile @Nullable ResolvedTemplate resolved;
+
+}
+
+record ResolvedTemplate(TemplateInfo templateInfo, JStachioFilter filter, FilterChain chain,
+		Template<Object> template) {
+}
+
 class DefaultJStachio extends AbstractJStachio {
 
 	private final JStachioExtensions extensions;
@@ -25,6 +25,7 @@ import io.jstach.jstache.JStacheConfig;
  * <li>{@link #REFLECTION_TEMPLATE_DISABLE}</li>
  * <li>{@link #SERVICELOADER_TEMPLATE_DISABLE}</li>
  * <li>{@link #LOGGING_DISABLE}</li>
+ * <li>{@link #JFR_ENABLE}</li>
  * </ul>
  * <strong>This configuration is for runtime only and NOT {@linkplain JStacheConfig static
  * configuration} needed for code generation.</strong>
@@ -62,6 +63,19 @@ public non-sealed interface JStachioConfig extends JStachioExtension {
 	 */
 	public static String LOGGING_DISABLE = "jstachio.logging.disable";
 
+	/**
+	 * Config key to emit a Java Flight Recorder event
+	 * (<code>io.jstach.jstachio.Render</code>) for every template rendered by JStachio.
+	 * The event has the template name, model class, output type and output size. Whether
+	 * the event is recorded is still decided by the recording settings and if it is not
+	 * recorded templates are rendered without measuring. Generated renderers called
+	 * directly do not emit events.
+	 * <p>
+	 * Valid values are <code>true</code> or <code>false</code>. The default is
+	 * <code>false</code>.
+	 */
+	public static String JFR_ENABLE = "jstachio.jfr.enable";
+
 	/**
 	 * Gets a property from some config implementation.
 	 * @param key the key to use to lookup
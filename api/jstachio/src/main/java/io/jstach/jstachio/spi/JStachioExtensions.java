@@ -163,6 +163,12 @@ class DefaultJStachioExtensions implements JStachioExtensions {
 				finders.add(find);
 			}
 		}
+		if (config.getBoolean(JStachioConfig.JFR_ENABLE)) {
+			var metrics = JfrRenderMetrics.of(config);
+			if (metrics != null) {
+				filters.add(RenderMetrics.filter(metrics));
+			}
+		}
 		JStachioFilter filter = JStachioFilter.compose(filters);
 		if (finders.isEmpty()) {
 			finders.add(
@@ -187,6 +187,20 @@ public non-sealed interface JStachioFilter extends JStachioExtension {
 			TemplateInfo template, //
 			FilterChain previous);
 
+	/**
+	 * Whether the chain returned by {@link #filter(TemplateInfo, FilterChain)} depends
+	 * only on the passed template and previous chain and will not change for the lifetime
+	 * of the filter. If a filter is stateless JStachio may resolve the chain once per
+	 * template and reuse it for every render instead of recreating it for each render.
+	 * <p>
+	 * Filters that reload templates dynamically or otherwise pick a different chain on
+	 * each call should not override this.
+	 * @return by default false.
+	 */
+	default boolean isStateless() {
+		return false;
+	}
+
 	/**
 	 * Hint on order of filter chain. The found {@link JStachioFilter}s are sorted
 	 * naturally (lower number comes first) based on the returned number. Thus the filter
@@ -264,15 +278,28 @@ enum NoFilter implements JStachioFilter {
 		return previous;
 	}
 
+	@Override
+	public boolean isStateless() {
+		return true;
+	}
+
 }
 
 class CompositeFilterChain implements JStachioFilter {
 
 	private final List<JStachioFilter> filters;
 
+	private final boolean stateless;
+
 	public CompositeFilterChain(List<JStachioFilter> filters) {
 		super();
 		this.filters = filters;
+		this.stateless = filters.stream().allMatch(JStachioFilter::isStateless);
+	}
+
+	@Override
+	public boolean isStateless() {
+		return this.stateless;
 	}
 
 	@Override
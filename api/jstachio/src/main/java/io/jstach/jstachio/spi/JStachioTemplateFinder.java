@@ -107,6 +107,12 @@ public non-sealed interface JStachioTemplateFinder extends JStachioExtension {
 	/**
 	 * The default template finder that uses reflection and or the ServiceLoader.
 	 * <p>
+	 * Models in modules that have a generated catalog (see
+	 * {@link io.jstach.jstache.JStacheCatalog}) registered with the ServiceLoader are
+	 * found first with the catalog which is just a switch on the model class name. Models
+	 * without a catalog fall back to the slower lookup that walks the annotations of the
+	 * model and then the registered {@link TemplateProvider}s.
+	 * <p>
 	 * <em>This implementation performs no caching. If you would like caching call
 	 * {@link #cachedTemplateFinder(JStachioTemplateFinder)} on the returned finder.</em>
 	 * @param config used to help find templates as well as logging.
@@ -213,21 +219,61 @@ final class DefaultTemplateFinder implements JStachioTemplateFinder {
 
 	private final JStachioConfig config;
 
+	private volatile @Nullable TemplateIndex index;
+
 	DefaultTemplateFinder(JStachioConfig config) {
+		this(config, null);
+	}
+
+	DefaultTemplateFinder(JStachioConfig config, @Nullable TemplateIndex index) {
 		super();
 		this.config = config;
+		this.index = index;
 	}
 
 	@Override
 	public TemplateInfo findTemplate(Class<?> modelType) throws Exception {
+		var t = indexedOrNull(modelType);
+		if (t != null) {
+			return t;
+		}
 		return Templates.findTemplate(modelType, config);
 	}
 
 	@Override
 	public @Nullable TemplateInfo findOrNull(Class<?> modelType) {
+		if (Templates.isIgnoredType(modelType)) {
+			return null;
+		}
+		var t = indexedOrNull(modelType);
+		if (t != null) {
+			return t;
+		}
 		return Templates.findTemplateOrNull(modelType, config);
 	}
 
+	/*
+	 * The generated catalogs are consulted first as they are found with the ServiceLoader
+	 * only once and then lookup is just a switch on the class name.
+	 */
+	private @Nullable TemplateInfo indexedOrNull(Class<?> modelType) {
+		if (config.getBoolean(JStachioConfig.SERVICELOADER_TEMPLATE_DISABLE)) {
+			return null;
+		}
+		var i = this.index;
+		if (i == null) {
+			synchronized (this) {
+				i = this.index;
+				if (i == null) {
+					i = TemplateIndex.of(Templates.collectClassLoaders(null),
+							config.getLogger(Templates.class.getName()));
+					this.index = i;
+				}
+			}
+		}
+		return i.findOrNull(modelType);
+	}
+
 	@Override
 	public int order() {
 		return Integer.MAX_VALUE;
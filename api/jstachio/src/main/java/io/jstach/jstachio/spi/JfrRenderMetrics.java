@@ -0,0 +1,111 @@
+package io.jstach.jstachio.spi;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+import io.jstach.jstachio.Output;
+import io.jstach.jstachio.Output.EncodedOutput;
+import io.jstach.jstachio.TemplateInfo;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Emits a Java Flight Recorder event for every render. If the event is not enabled in the
+ * recording settings (or there is no recording) the template is rendered without
+ * measuring.
+ *
+ * @see JStachioConfig#JFR_ENABLE
+ * @author agentgt
+ */
+final class JfrRenderMetrics implements RenderMetrics {
+
+	private final EventType eventType = EventType.getEventType(RenderEvent.class);
+
+	/**
+	 * Creates the metrics if JFR is available.
+	 * @param config used for logging.
+	 * @return metrics or <code>null</code> if the jdk.jfr module is missing.
+	 */
+	static @Nullable RenderMetrics of(JStachioConfig config) {
+		try {
+			return new JfrRenderMetrics();
+		}
+		catch (LinkageError e) {
+			config.getLogger(JfrRenderMetrics.class.getName()).log(System.Logger.Level.WARNING,
+					"JFR render events are enabled but JFR is not available.", e);
+			return null;
+		}
+	}
+
+	@Override
+	public TemplateMetrics templateMetrics(TemplateInfo template) {
+		String templateName = template.templateName();
+		Class<?> modelClass = template.modelClass();
+		return new TemplateMetrics() {
+
+			@Override
+			public Sample start(Output<?> output) {
+				var event = new RenderEvent();
+				event.begin();
+				return (outputSize, error) -> {
+					event.end();
+					if (event.shouldCommit()) {
+						event.templateName = templateName;
+						event.modelClass = modelClass;
+						event.outputType = output.getClass();
+						event.encoded = output instanceof EncodedOutput;
+						event.outputSize = outputSize;
+						event.error = error == null ? null : error.getClass().getName();
+						event.commit();
+					}
+				};
+			}
+
+			@Override
+			public boolean isEnabled() {
+				return eventType.isEnabled();
+			}
+
+		};
+	}
+
+	@Name(RenderEvent.NAME)
+	@Label("Template Render")
+	@Category("JStachio")
+	@Description("A template rendered by JStachio")
+	@StackTrace(false)
+	static final class RenderEvent extends Event {
+
+		static final String NAME = "io.jstach.jstachio.Render";
+
+		@Label("Template Name")
+		@Nullable
+		String templateName;
+
+		@Label("Model Class")
+		@Nullable
+		Class<?> modelClass;
+
+		@Label("Output Type")
+		@Nullable
+		Class<?> outputType;
+
+		@Label("Encoded")
+		@Description("Whether the output is bytes in which case the output size is the number of bytes")
+		boolean encoded;
+
+		@Label("Output Size")
+		@Description("Bytes written if encoded otherwise characters")
+		long outputSize;
+
+		@Label("Error")
+		@Nullable
+		String error;
+
+	}
+
+}
@@ -0,0 +1,89 @@
+package io.jstach.jstachio.spi;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+import io.jstach.jstachio.JStachio;
+import io.jstach.jstachio.Output;
+import io.jstach.jstachio.TemplateInfo;
+
+/**
+ * Records metrics of templates rendered by {@link JStachio}. The metrics are collected by
+ * a filter created with {@link #filter(RenderMetrics)} that needs to be registered as an
+ * extension (for example with {@link JStachioFactory.Builder#add(JStachioExtension)}).
+ * <p>
+ * {@link RenderStats} is a builtin implementation that keeps the metrics in memory. Other
+ * implementations can forward the metrics to a metrics library.
+ * <p>
+ * Only renders that go through the {@link JStachio} runtime are recorded. Calling the
+ * generated renderers directly bypasses filters and thus metrics.
+ *
+ * @apiNote Implementations should be threadsafe and cheap as the metrics are recorded on
+ * every render.
+ * @author agentgt
+ */
+public interface RenderMetrics {
+
+	/**
+	 * Resolves where to record the renders of a template. This is called when the filter
+	 * chain of the template is created which is usually once per template so
+	 * implementations can do any lookup here instead of on every render.
+	 * @param template the template about to be rendered.
+	 * @return metrics of a single template.
+	 */
+	public TemplateMetrics templateMetrics(TemplateInfo template);
+
+	/**
+	 * Records the renders of a single template.
+	 *
+	 * @author agentgt
+	 */
+	public interface TemplateMetrics {
+
+		/**
+		 * Called right before a render.
+		 * @param output the output the template is rendered to.
+		 * @return sample that is stopped when the render finishes.
+		 */
+		public Sample start(Output<?> output);
+
+		/**
+		 * Whether renders should be recorded at all. If not the template is rendered
+		 * without measuring which costs close to nothing. This is checked on every render
+		 * so it should be cheap.
+		 * @return by default true.
+		 */
+		default boolean isEnabled() {
+			return true;
+		}
+
+	}
+
+	/**
+	 * A single render in progress. Implementations measure the duration themselves so
+	 * that timer based libraries can be used directly.
+	 *
+	 * @author agentgt
+	 */
+	public interface Sample {
+
+		/**
+		 * Called once the render finishes regardless of whether it failed.
+		 * @param outputSize number of bytes written if the output was encoded otherwise
+		 * the number of characters written.
+		 * @param error the error if the render failed otherwise <code>null</code>.
+		 */
+		public void stop(long outputSize, @Nullable Throwable error);
+
+	}
+
+	/**
+	 * Creates a filter that records the renders of every template. The filter is
+	 * stateless and ordered last so that it wraps all other filters.
+	 * @param metrics where to record the renders.
+	 * @return filter to be registered as an extension.
+	 */
+	public static JStachioFilter filter(RenderMetrics metrics) {
+		return new RenderMetricsFilter(metrics);
+	}
+
+}
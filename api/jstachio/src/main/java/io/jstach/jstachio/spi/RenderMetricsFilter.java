@@ -0,0 +1,388 @@
+package io.jstach.jstachio.spi;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Function;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+import io.jstach.jstachio.Output;
+import io.jstach.jstachio.Output.EncodedOutput;
+import io.jstach.jstachio.Template;
+import io.jstach.jstachio.TemplateInfo;
+import io.jstach.jstachio.output.AsciiEncoding;
+import io.jstach.jstachio.output.BufferedEncodedOutput;
+import io.jstach.jstachio.output.LimitEncodedOutput;
+import io.jstach.jstachio.spi.RenderMetrics.TemplateMetrics;
+
+/**
+ * Wraps the filter chain of every template with a chain that records metrics.
+ *
+ * @author agentgt
+ */
+final class RenderMetricsFilter implements JStachioFilter {
+
+	private final RenderMetrics metrics;
+
+	RenderMetricsFilter(RenderMetrics metrics) {
+		this.metrics = metrics;
+	}
+
+	@Override
+	public FilterChain filter(TemplateInfo template, FilterChain previous) {
+		return new MeteredTemplate(template, previous, metrics.templateMetrics(template));
+	}
+
+	@Override
+	public boolean isStateless() {
+		return true;
+	}
+
+	@Override
+	public int order() {
+		return Integer.MAX_VALUE;
+	}
+
+}
+
+/*
+ * The chain is also a template so that encoded outputs are passed to the previous
+ * template's write method and thus pre-encoded templates stay pre-encoded.
+ */
+final class MeteredTemplate implements Template<Object>, JStachioFilter.FilterChain {
+
+	private final TemplateInfo template;
+
+	private final JStachioFilter.FilterChain previous;
+
+	private final TemplateMetrics metrics;
+
+	MeteredTemplate(TemplateInfo template, JStachioFilter.FilterChain previous, TemplateMetrics metrics) {
+		this.template = template;
+		this.previous = previous;
+		this.metrics = metrics;
+	}
+
+	@Override
+	public void process(Object model, Output<?> appendable) throws Exception {
+		if (!metrics.isEnabled()) {
+			render(model, appendable);
+			return;
+		}
+		var sample = metrics.start(appendable);
+		CountingOutput<?> output = appendable instanceof EncodedOutput<?> eo ? new CountingEncodedOutput<>(eo)
+				: new CountingOutput<>(appendable);
+		@Nullable
+		Throwable error = null;
+		try {
+			render(model, output);
+		}
+		catch (Throwable e) {
+			error = e;
+			throw e;
+		}
+		finally {
+			sample.stop(output.size(), error);
+		}
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private void render(Object model, Output<?> output) throws Exception {
+		if (output instanceof EncodedOutput eo && previous instanceof Template t) {
+			t.write(model, eo);
+		}
+		else {
+			previous.process(model, output);
+		}
+	}
+
+	@Override
+	public <A extends Output<E>, E extends Exception> A execute(Object model, A appendable) throws E {
+		try {
+			process(model, appendable);
+			return appendable;
+		}
+		catch (Exception e) {
+			Templates.sneakyThrow(e);
+			throw new RuntimeException(e);
+		}
+	}
+
+	@Override
+	public <A extends EncodedOutput<E>, E extends Exception> A write(Object model, A output) throws E {
+		return execute(model, output);
+	}
+
+	@Override
+	public boolean isBroken(Object model) {
+		return previous.isBroken(model);
+	}
+
+	@Override
+	public String templateName() {
+		return template.templateName();
+	}
+
+	@Override
+	public String templatePath() {
+		return template.templatePath();
+	}
+
+	@Override
+	public String templateString() {
+		return template.templateString();
+	}
+
+	@Override
+	public Class<?> templateContentType() {
+		return template.templateContentType();
+	}
+
+	@Override
+	public Charset templateCharset() {
+		return template.templateCharset();
+	}
+
+	@Override
+	public String templateMediaType() {
+		return template.templateMediaType();
+	}
+
+	@Override
+	public Function<String, String> templateEscaper() {
+		return template.templateEscaper();
+	}
+
+	@Override
+	public Function<@Nullable Object, String> templateFormatter() {
+		return template.templateFormatter();
+	}
+
+	@Override
+	public boolean supportsType(Class<?> type) {
+		return template.supportsType(type);
+	}
+
+	@Override
+	public Class<?> modelClass() {
+		return template.modelClass();
+	}
+
+	@Override
+	public long lastLoaded() {
+		return template.lastLoaded();
+	}
+
+	@Override
+	public String description() {
+		return template.description();
+	}
+
+}
+
+/*
+ * Counts characters. Number appends are counted by their string length.
+ */
+class CountingOutput<E extends Exception> implements Output<E> {
+
+	private final Output<E> delegate;
+
+	long size;
+
+	CountingOutput(Output<E> delegate) {
+		this.delegate = delegate;
+	}
+
+	long size() {
+		return size;
+	}
+
+	@Override
+	public void append(CharSequence s) throws E {
+		size += s.length();
+		delegate.append(s);
+	}
+
+	@Override
+	public void append(String s) throws E {
+		size += s.length();
+		delegate.append(s);
+	}
+
+	@Override
+	public void append(CharSequence csq, int start, int end) throws E {
+		size += end - start;
+		delegate.append(csq, start, end);
+	}
+
+	@Override
+	public void append(char c) throws E {
+		size++;
+		delegate.append(c);
+	}
+
+	@Override
+	public void flush() throws E {
+		delegate.flush();
+	}
+
+}
+
+/*
+ * Counts bytes without changing how the delegate receives the output. Every call is
+ * forwarded as is so that outputs that encode text directly are not bypassed. Outputs
+ * that know their size are measured by the difference of their size. Otherwise text is
+ * counted exactly for UTF-8 and estimated with the maximum bytes per char for other
+ * charsets.
+ */
+final class CountingEncodedOutput<E extends Exception> extends CountingOutput<E> implements EncodedOutput<E> {
+
+	private final EncodedOutput<E> delegate;
+
+	private final long start;
+
+	private final boolean utf8;
+
+	private final float bytesPerChar;
+
+	CountingEncodedOutput(EncodedOutput<E> delegate) {
+		super(delegate);
+		this.delegate = delegate;
+		this.start = sizeOf(delegate);
+		var charset = delegate.charset();
+		this.utf8 = StandardCharsets.UTF_8.equals(charset);
+		this.bytesPerChar = charset.canEncode() ? charset.newEncoder().maxBytesPerChar() : 1;
+	}
+
+	private static long sizeOf(EncodedOutput<?> output) {
+		if (output instanceof BufferedEncodedOutput b) {
+			return b.size();
+		}
+		if (output instanceof LimitEncodedOutput<?, ?> l) {
+			return l.size();
+		}
+		return -1;
+	}
+
+	@Override
+	long size() {
+		if (start < 0) {
+			return size;
+		}
+		return sizeOf(delegate) - start;
+	}
+
+	@Override
+	public void write(byte[] bytes) throws E {
+		size += bytes.length;
+		delegate.write(bytes);
+	}
+
+	@Override
+	public void write(byte[] bytes, int off, int len) throws E {
+		size += len;
+		delegate.write(bytes, off, len);
+	}
+
+	@Override
+	public void append(CharSequence s) throws E {
+		countText(s, 0, s.length());
+		delegate.append(s);
+	}
+
+	@Override
+	public void append(String s) throws E {
+		countText(s, 0, s.length());
+		delegate.append(s);
+	}
+
+	@Override
+	public void append(CharSequence csq, int start, int end) throws E {
+		countText(csq, start, end);
+		delegate.append(csq, start, end);
+	}
+
+	@Override
+	public void append(char c) throws E {
+		if (start < 0) {
+			size += utf8 ? utf8Length(c) : (long) Math.ceil(bytesPerChar);
+		}
+		delegate.append(c);
+	}
+
+	@Override
+	public void append(short s) throws E {
+		countAscii(AsciiEncoding.size(s));
+		delegate.append(s);
+	}
+
+	@Override
+	public void append(int i) throws E {
+		countAscii(AsciiEncoding.size(i));
+		delegate.append(i);
+	}
+
+	@Override
+	public void append(long l) throws E {
+		countAscii(AsciiEncoding.size(l));
+		delegate.append(l);
+	}
+
+	@Override
+	public void append(double d) throws E {
+		if (start < 0) {
+			countAscii(String.valueOf(d).length());
+		}
+		delegate.append(d);
+	}
+
+	@Override
+	public void append(boolean b) throws E {
+		countAscii(b ? 4 : 5);
+		delegate.append(b);
+	}
+
+	@Override
+	public void flush() throws E {
+		delegate.flush();
+	}
+
+	@Override
+	public Charset charset() {
+		return delegate.charset();
+	}
+
+	private void countAscii(int length) {
+		if (start >= 0) {
+			return;
+		}
+		size += utf8 ? length : (long) Math.ceil(length * bytesPerChar);
+	}
+
+	private void countText(CharSequence s, int start, int end) {
+		if (this.start >= 0) {
+			return;
+		}
+		if (!utf8) {
+			size += (long) Math.ceil((end - start) * bytesPerChar);
+			return;
+		}
+		long n = 0;
+		for (int i = start; i < end; i++) {
+			n += utf8Length(s.charAt(i));
+		}
+		size += n;
+	}
+
+	private static int utf8Length(char c) {
+		if (c < 0x80) {
+			return 1;
+		}
+		if (c < 0x800 || Character.isSurrogate(c)) {
+			// a surrogate pair is two chars and four bytes
+			return 2;
+		}
+		return 3;
+	}
+
+}
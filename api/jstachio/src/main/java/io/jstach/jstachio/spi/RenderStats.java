@@ -0,0 +1,192 @@
+package io.jstach.jstachio.spi;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+import io.jstach.jstachio.Output;
+import io.jstach.jstachio.TemplateInfo;
+
+/**
+ * In memory {@link RenderMetrics} that keeps per template render count, errors, output
+ * size and a latency histogram.
+ * <p>
+ * Counters are striped ({@link LongAdder}) so recording does not lock or contend. The
+ * latency histogram uses power of two buckets starting at {@value #MIN_BUCKET_NANOS}
+ * nanoseconds so percentiles are approximate.
+ *
+ * @author agentgt
+ */
+public final class RenderStats implements RenderMetrics {
+
+	/**
+	 * Number of latency buckets.
+	 */
+	public static final int BUCKETS = 28;
+
+	/**
+	 * The upper bound (exclusive) of the first latency bucket.
+	 */
+	public static final long MIN_BUCKET_NANOS = 1024;
+
+	private static final int MIN_BUCKET_SHIFT = Long.numberOfTrailingZeros(MIN_BUCKET_NANOS);
+
+	private final ConcurrentHashMap<String, Stats> stats = new ConcurrentHashMap<>();
+
+	private RenderStats() {
+	}
+
+	/**
+	 * Creates empty render stats.
+	 * @return new stats.
+	 */
+	public static RenderStats of() {
+		return new RenderStats();
+	}
+
+	/**
+	 * Stats are keyed by template name so templates that are reloaded keep their stats.
+	 */
+	@Override
+	public TemplateMetrics templateMetrics(TemplateInfo template) {
+		return stats.computeIfAbsent(template.templateName(), k -> new Stats());
+	}
+
+	/**
+	 * A snapshot of all templates rendered so far.
+	 * @return snapshots sorted by template name.
+	 */
+	public List<Snapshot> snapshot() {
+		List<Snapshot> snapshots = new ArrayList<>();
+		stats.forEach((k, v) -> snapshots.add(v.snapshot(k)));
+		snapshots.sort(Comparator.comparing(Snapshot::templateName));
+		return snapshots;
+	}
+
+	/**
+	 * A snapshot of a single template.
+	 * @param templateName the {@linkplain TemplateInfo#templateName() template name}.
+	 * @return snapshot or <code>null</code> if the template was never rendered.
+	 */
+	public @Nullable Snapshot snapshot(String templateName) {
+		var s = stats.get(templateName);
+		return s == null ? null : s.snapshot(templateName);
+	}
+
+	/**
+	 * The upper bound (exclusive) of a latency bucket. The last bucket has no upper bound
+	 * and includes everything slower.
+	 * @param bucket bucket index.
+	 * @return nanoseconds.
+	 */
+	public static long bucketUpperBoundNanos(int bucket) {
+		if (bucket >= BUCKETS - 1) {
+			return Long.MAX_VALUE;
+		}
+		return MIN_BUCKET_NANOS << bucket;
+	}
+
+	static int bucket(long durationNanos) {
+		int b = 64 - Long.numberOfLeadingZeros(durationNanos) - MIN_BUCKET_SHIFT;
+		return Math.min(Math.max(b, 0), BUCKETS - 1);
+	}
+
+	/**
+	 * Render stats of a single template at a point in time.
+	 * @param templateName the template name.
+	 * @param count number of renders including failed renders.
+	 * @param errors number of renders that failed.
+	 * @param outputSize total bytes (or characters if the output was not encoded)
+	 * written.
+	 * @param totalNanos total time spent rendering.
+	 * @param histogram count of renders per latency bucket.
+	 * @see RenderStats#bucketUpperBoundNanos(int)
+	 */
+	public record Snapshot(String templateName, long count, long errors, long outputSize, long totalNanos,
+			List<Long> histogram) {
+
+		/**
+		 * The mean render time.
+		 * @return mean nanoseconds or zero if never rendered.
+		 */
+		public long meanNanos() {
+			return count == 0 ? 0 : totalNanos / count;
+		}
+
+		/**
+		 * Approximates a percentile of render time with the upper bound of the bucket the
+		 * percentile falls in.
+		 * @param percentile between 0 and 1 for example 0.99.
+		 * @return nanoseconds or zero if never rendered.
+		 */
+		public long percentileNanos(double percentile) {
+			long total = 0;
+			for (long c : histogram) {
+				total += c;
+			}
+			if (total == 0) {
+				return 0;
+			}
+			long rank = (long) Math.ceil(percentile * total);
+			long seen = 0;
+			for (int i = 0; i < histogram.size(); i++) {
+				seen += histogram.get(i);
+				if (seen >= rank) {
+					return bucketUpperBoundNanos(i);
+				}
+			}
+			return bucketUpperBoundNanos(BUCKETS - 1);
+		}
+
+	}
+
+	private static final class Stats implements TemplateMetrics {
+
+		private final LongAdder count = new LongAdder();
+
+		private final LongAdder errors = new LongAdder();
+
+		private final LongAdder outputSize = new LongAdder();
+
+		private final LongAdder totalNanos = new LongAdder();
+
+		private final LongAdder[] histogram = new LongAdder[BUCKETS];
+
+		Stats() {
+			for (int i = 0; i < BUCKETS; i++) {
+				histogram[i] = new LongAdder();
+			}
+		}
+
+		@Override
+		public Sample start(Output<?> output) {
+			long start = System.nanoTime();
+			return (size, error) -> record(System.nanoTime() - start, size, error);
+		}
+
+		void record(long durationNanos, long outputSize, @Nullable Throwable error) {
+			count.increment();
+			if (error != null) {
+				errors.increment();
+			}
+			this.outputSize.add(outputSize);
+			totalNanos.add(durationNanos);
+			histogram[bucket(durationNanos)].increment();
+		}
+
+		Snapshot snapshot(String templateName) {
+			List<Long> h = new ArrayList<>(BUCKETS);
+			for (var b : histogram) {
+				h.add(b.sum());
+			}
+			return new Snapshot(templateName, count.sum(), errors.sum(), outputSize.sum(), totalNanos.sum(),
+					List.copyOf(h));
+		}
+
+	}
+
+}
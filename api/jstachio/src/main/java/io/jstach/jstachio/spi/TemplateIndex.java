@@ -0,0 +1,64 @@
+package io.jstach.jstachio.spi;
+
+import java.lang.System.Logger;
+import java.lang.System.Logger.Level;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.Set;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+import io.jstach.jstachio.Template;
+import io.jstach.jstachio.TemplateConfig;
+import io.jstach.jstachio.spi.TemplateProvider.GeneratedTemplateProvider;
+
+/**
+ * The generated catalogs found with the ServiceLoader. Each catalog finds its templates
+ * with a switch on the model class name generated at compile time so a lookup neither
+ * walks annotations nor instantiates the other templates.
+ * <p>
+ * Only the catalogs are instantiated. The other registered providers (usually the
+ * templates themselves) are filtered out by their type.
+ *
+ * @author agentgt
+ */
+final class TemplateIndex {
+
+	private final List<GeneratedTemplateProvider> catalogs;
+
+	TemplateIndex(List<GeneratedTemplateProvider> catalogs) {
+		this.catalogs = List.copyOf(catalogs);
+	}
+
+	static TemplateIndex of(Iterable<ClassLoader> classLoaders, Logger logger) {
+		List<GeneratedTemplateProvider> catalogs = new ArrayList<>();
+		Set<Class<?>> found = new HashSet<>();
+		for (var classLoader : classLoaders) {
+			try {
+				ServiceLoader.load(TemplateProvider.class, classLoader).stream() //
+						.filter(p -> GeneratedTemplateProvider.class.isAssignableFrom(p.type())) //
+						.filter(p -> found.add(p.type())) //
+						.forEach(p -> catalogs.add((GeneratedTemplateProvider) p.get()));
+			}
+			catch (ServiceConfigurationError e) {
+				logger.log(Level.ERROR, "Template catalog failed to load. Skipping it.", e);
+			}
+		}
+		return new TemplateIndex(catalogs);
+	}
+
+	@Nullable
+	Template<?> findOrNull(Class<?> modelType) {
+		for (var c : catalogs) {
+			var t = c.findTemplateOrNull(modelType, TemplateConfig.empty());
+			if (t != null) {
+				return t;
+			}
+		}
+		return null;
+	}
+
+}
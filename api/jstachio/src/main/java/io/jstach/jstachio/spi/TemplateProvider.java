@@ -2,6 +2,8 @@ package io.jstach.jstachio.spi;
 
 import java.util.List;
 
+import org.eclipse.jdt.annotation.Nullable;
+
 import io.jstach.jstachio.Template;
 import io.jstach.jstachio.TemplateConfig;
 import io.jstach.jstachio.TemplateInfo;
@@ -51,6 +53,34 @@ public interface TemplateProvider {
 			return provideTemplates();
 		}
 
+		/**
+		 * Finds the template of exactly the model type without going through annotations
+		 * or instantiating every provided template. Generated catalogs implement this
+		 * with a switch on the model class name generated at compile time which makes
+		 * them an index of the templates in the catalog.
+		 * @param modelType the exact model type (the one annotated with JStache).
+		 * @param templateConfig template collaborators.
+		 * @return the template or <code>null</code> if this provider does not have a
+		 * template for the exact model type.
+		 */
+		default @Nullable Template<?> findTemplateOrNull(Class<?> modelType, TemplateConfig templateConfig) {
+			for (var t : provideTemplates(templateConfig)) {
+				if (modelType.equals(t.modelClass())) {
+					return t;
+				}
+			}
+			return null;
+		}
+
+		@Override
+		default @Nullable TemplateInfo findOrNull(Class<?> modelType) {
+			var t = findTemplateOrNull(modelType, TemplateConfig.empty());
+			if (t != null) {
+				return t;
+			}
+			return SimpleTemplateFinder.super.findOrNull(modelType);
+		}
+
 	}
 
 }
@@ -548,7 +548,7 @@ public final class Templates {
 		});
 	}
 
-	private static List<ClassLoader> collectClassLoaders(@Nullable ClassLoader classLoader) {
+	static List<ClassLoader> collectClassLoaders(@Nullable ClassLoader classLoader) {
 		return Stream.<@Nullable ClassLoader>builder().add(classLoader)
 				.add(Thread.currentThread().getContextClassLoader()).add(Template.class.getClassLoader()).build()
 				.<ClassLoader>flatMap(s -> Stream.ofNullable(s)).toList();
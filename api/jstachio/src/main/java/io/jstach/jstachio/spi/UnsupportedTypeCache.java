@@ -0,0 +1,85 @@
+package io.jstach.jstachio.spi;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded cache of model types that a template finder does not support so that
+ * {@link AbstractJStachio#supportsType(Class)} is cheap for the many non template types
+ * (JSON DTOs and so on) web frameworks ask about.
+ * <p>
+ * The cache is direct mapped: each type has a single slot based on its identity hash so
+ * lookup is one array read and a colliding type just replaces the previous entry. The
+ * types are weakly referenced so the cache does not prevent class unloading.
+ *
+ * @author agentgt
+ */
+final class UnsupportedTypeCache {
+
+	static final int DEFAULT_SIZE = 256;
+
+	private final JStachioTemplateFinder finder;
+
+	private final AtomicReferenceArray<WeakReference<Class<?>>> entries;
+
+	private final int mask;
+
+	private final LongAdder hits = new LongAdder();
+
+	private final LongAdder misses = new LongAdder();
+
+	private final LongAdder evictions = new LongAdder();
+
+	UnsupportedTypeCache(JStachioTemplateFinder finder, int size) {
+		if (Integer.bitCount(size) != 1) {
+			throw new IllegalArgumentException("size must be a power of 2");
+		}
+		this.finder = finder;
+		this.entries = new AtomicReferenceArray<>(size);
+		this.mask = size - 1;
+	}
+
+	/**
+	 * The finder whose answers are cached.
+	 * @return finder
+	 */
+	JStachioTemplateFinder finder() {
+		return finder;
+	}
+
+	boolean supportsType(Class<?> modelType) {
+		int slot = slot(modelType);
+		var ref = entries.get(slot);
+		if (ref != null && ref.get() == modelType) {
+			hits.increment();
+			return false;
+		}
+		misses.increment();
+		boolean supported = finder.supportsType(modelType);
+		if (!supported) {
+			var previous = entries.getAndSet(slot, new WeakReference<>(modelType));
+			if (previous != null && previous.get() != null) {
+				evictions.increment();
+			}
+		}
+		return supported;
+	}
+
+	UnsupportedTypeStats stats() {
+		int size = 0;
+		for (int i = 0; i < entries.length(); i++) {
+			var ref = entries.get(i);
+			if (ref != null && ref.get() != null) {
+				size++;
+			}
+		}
+		return new UnsupportedTypeStats(hits.sum(), misses.sum(), evictions.sum(), size, entries.length());
+	}
+
+	private int slot(Class<?> modelType) {
+		int h = System.identityHashCode(modelType);
+		return (h ^ (h >>> 16)) & mask;
+	}
+
+}
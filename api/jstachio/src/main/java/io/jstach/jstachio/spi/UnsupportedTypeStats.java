@@ -0,0 +1,18 @@
+package io.jstach.jstachio.spi;
+
+/**
+ * Metrics of the cache of model types that are not supported by the template finder.
+ * @param hits number of {@link AbstractJStachio#supportsType(Class)} calls answered by
+ * the cache.
+ * @param misses number of calls that had to ask the template finder. This includes the
+ * calls for supported types as those are not cached here.
+ * @param evictions number of unsupported types that were replaced by another unsupported
+ * type because the cache is bounded.
+ * @param size number of unsupported types currently cached.
+ * @param capacity maximum number of unsupported types that can be cached.
+ * @see AbstractJStachio#unsupportedTypeStats()
+ * @author agentgt
+ */
+public record UnsupportedTypeStats(long hits, long misses, long evictions, int size, int capacity) {
+
+}
@@ -43,6 +43,7 @@ module io.jstach.jstachio {
 	requires transitive io.jstach.jstache;
 
 	requires static org.eclipse.jdt.annotation;
+	requires static jdk.jfr;
 
 	uses io.jstach.jstachio.spi.JStachioExtension;
 	uses io.jstach.jstachio.spi.TemplateProvider;
@@ -0,0 +1,80 @@
+package io.jstach.jstachio.escapers;
+
+import static org.junit.Assert.assertEquals;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+import io.jstach.jstachio.Escaper;
+import io.jstach.jstachio.Output;
+import io.jstach.jstachio.output.ByteBufferedOutputStream;
+import io.jstach.jstachio.output.ChunkEncodedOutput;
+
+public class HtmlEscaperTest {
+
+	final Escaper escaper = Html.of();
+
+	@Test
+	public void testString() {
+		assertEquals(EXPECTED, escape(INPUT));
+		assertEquals("", escape(""));
+		assertEquals("no escaping needed", escape("no escaping needed"));
+		assertEquals("&amp;&amp;", escape("&&"));
+		assertEquals("ünï&lt;côdé&gt;", escape("ünï<côdé>"));
+	}
+
+	@Test
+	public void testCharSequence() {
+		StringBuilder sb = new StringBuilder();
+		escaper.append(Output.of(sb), new StringBuilder(INPUT));
+		assertEquals(EXPECTED, sb.toString());
+	}
+
+	@Test
+	public void testRange() {
+		String input = "<a>" + INPUT + "<b>";
+		int start = 3;
+		int end = input.length() - 3;
+		StringBuilder sb = new StringBuilder();
+		escaper.append(Output.of(sb), input, start, end);
+		assertEquals(EXPECTED, sb.toString());
+
+		sb.setLength(0);
+		escaper.append(Output.of(sb), new StringBuilder(input), start, end);
+		assertEquals(EXPECTED, sb.toString());
+
+		sb.setLength(0);
+		escaper.append(Output.of(sb), "<abc>", 1, 4);
+		assertEquals("abc", sb.toString());
+	}
+
+	@Test
+	public void testEncoded() {
+		String input = "ünï<côdé> 😀 " + INPUT;
+		String expected = "ünï&lt;côdé&gt; 😀 " + EXPECTED;
+		try (var output = new ByteBufferedOutputStream()) {
+			escaper.append(output, input);
+			assertEquals(expected, new String(output.toByteArray(), StandardCharsets.UTF_8));
+		}
+		try (var output = ChunkEncodedOutput.ofByteArrays(StandardCharsets.UTF_8)) {
+			escaper.append(output, input);
+			assertEquals(expected, new String(output.toByteArray(), StandardCharsets.UTF_8));
+		}
+		try (var output = new ByteBufferedOutputStream(16, StandardCharsets.UTF_16BE)) {
+			escaper.append(output, input);
+			assertEquals(expected, new String(output.toByteArray(), StandardCharsets.UTF_16BE));
+		}
+	}
+
+	private String escape(String input) {
+		StringBuilder sb = new StringBuilder();
+		escaper.append(Output.of(sb), input);
+		return sb.toString();
+	}
+
+	static final String INPUT = "He said \"1 < 2 & 3 > 2\" isn't `a = b`.";
+
+	static final String EXPECTED = "He said &quot;1 &lt; 2 &amp; 3 &gt; 2&quot; isn&#x27;t &#x60;a &#x3D; b&#x60;.";
+
+}
@@ -1,15 +1,24 @@
 package io.jstach.jstachio.output;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.channels.Channels;
+import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.List;
 import java.util.stream.StreamSupport;
 
 import org.junit.Test;
 
+import io.jstach.jstachio.Output.CloseableEncodedOutput;
+import io.jstach.jstachio.Output.EncodedOutput;
+
 public class BufferedEncodedOutputTest {
 
 	@Test
@@ -31,6 +40,193 @@ public class BufferedEncodedOutputTest {
 		assertOutputStream(output);
 	}
 
+	@Test
+	public void testByteBufferAppendRange() {
+		String input = "[ascii ünï 漢字 😀 \uD800 end]";
+		int start = 1;
+		int end = input.length() - 1;
+		String expected = new String(input.substring(start, end).getBytes(StandardCharsets.UTF_8),
+				StandardCharsets.UTF_8);
+		// We set the buffer size small to test growing
+		var output = new ByteBufferedOutputStream(2);
+		output.append(input, start, end);
+		output.append(new StringBuilder(input), start, end);
+		assertEquals(expected + expected, new String(output.toByteArray(), StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void testAppendRange() throws IOException {
+		/*
+		 * Long enough to be encoded in several slices with a surrogate pair on a slice
+		 * boundary.
+		 */
+		String input = "[ascii ünï 漢字 \uD800 end" + "x".repeat(340) + "😀" + "漢".repeat(1000) + "]";
+		int start = 1;
+		int end = input.length() - 1;
+		String expected = new String(input.substring(start, end).getBytes(StandardCharsets.UTF_8),
+				StandardCharsets.UTF_8);
+		int expectedSize = input.substring(start, end).getBytes(StandardCharsets.UTF_8).length;
+
+		var chunk = ChunkEncodedOutput.ofByteArrays(StandardCharsets.UTF_8);
+		chunk.append(input, start, end);
+		assertEquals(expected, new String(chunk.toByteArray(), StandardCharsets.UTF_8));
+		assertEquals(expectedSize, chunk.size());
+
+		for (int limit : new int[] { 16, 1024 * 1024 }) {
+			ByteArrayOutputStream os = new ByteArrayOutputStream();
+			try (var output = ByteBufferEncodedOutput.ofByteArray(StandardCharsets.UTF_8, 10).limit(limit,
+					size -> os)) {
+				output.append(input, start, end);
+				assertEquals(expectedSize, output.size());
+			}
+			assertEquals(expected, os.toString(StandardCharsets.UTF_8));
+
+			ByteArrayOutputStream tos = new ByteArrayOutputStream();
+			try (var output = new ThresholdEncodedOutput.OutputStreamThresholdEncodedOutput(StandardCharsets.UTF_8,
+					limit) {
+				@Override
+				protected OutputStream createConsumer(int size) {
+					return tos;
+				}
+			}) {
+				output.append(new StringBuilder(input), start, end);
+			}
+			assertEquals(expected, tos.toString(StandardCharsets.UTF_8));
+		}
+	}
+
+	@Test
+	public void testDigestEncodesOnce() throws Exception {
+		var buffer = new ByteBufferedOutputStream(2);
+		/*
+		 * Escaped variables and numbers should reach the downstream output as bytes that
+		 * were encoded once and digested.
+		 */
+		var downstream = new CloseableEncodedOutput<RuntimeException>() {
+
+			@Override
+			public void write(byte[] bytes) {
+				buffer.write(bytes);
+			}
+
+			@Override
+			public void write(byte[] bytes, int off, int len) {
+				buffer.write(bytes, off, len);
+			}
+
+			@Override
+			public void append(CharSequence s) {
+				throw new UnsupportedOperationException(s.toString());
+			}
+
+			@Override
+			public void append(String s) {
+				throw new UnsupportedOperationException(s);
+			}
+
+			@Override
+			public Charset charset() {
+				return StandardCharsets.UTF_8;
+			}
+
+			@Override
+			public void close() {
+			}
+
+		};
+		String input = "<ünï 漢字 😀" + "x".repeat(1000) + ">";
+		var output = DigestEncodedOutput.<RuntimeException>of(d -> downstream);
+		output.append(input, 1, input.length() - 1);
+		output.append(' ');
+		output.append(-42);
+		output.append(Long.MAX_VALUE);
+		output.append(true);
+		output.close();
+		byte[] expected = (input.substring(1, input.length() - 1) + " -42" + Long.MAX_VALUE + "true")
+				.getBytes(StandardCharsets.UTF_8);
+		assertArrayEquals(expected, buffer.toByteArray());
+		assertArrayEquals(MessageDigest.getInstance("MD5").digest(expected), output.digest());
+	}
+
+	@Test
+	public void testPrimitives() {
+		String expected = "0 -1 42 " + Long.MIN_VALUE + " " + Long.MAX_VALUE + " " + Integer.MIN_VALUE + " "
+				+ Short.MAX_VALUE + " true false x";
+		var outputs = List.of(new ByteBufferedOutputStream(2), ChunkEncodedOutput.ofByteArrays(StandardCharsets.UTF_8));
+		for (var output : outputs) {
+			output.append(0);
+			output.append(' ');
+			output.append(-1L);
+			output.append(' ');
+			output.append(42);
+			output.append(' ');
+			output.append(Long.MIN_VALUE);
+			output.append(' ');
+			output.append(Long.MAX_VALUE);
+			output.append(' ');
+			output.append(Integer.MIN_VALUE);
+			output.append(' ');
+			output.append(Short.MAX_VALUE);
+			output.append(' ');
+			output.append(true);
+			output.append(' ');
+			output.append(false);
+			output.append(' ');
+			output.append('x');
+			assertEquals(expected, new String(output.toByteArray(), StandardCharsets.UTF_8));
+		}
+	}
+
+	@Test
+	public void testSizeHint() {
+		var hint = OutputSizeHint.of();
+		assertEquals(4096, hint.sizeHint(4096));
+		hint.record(1000);
+		assertEquals(1500, hint.sizeHint(4096));
+		for (int i = 0; i < 100; i++) {
+			hint.record(1000);
+		}
+		int estimate = hint.sizeHint(4096);
+		assertTrue("estimate should converge: " + estimate, estimate >= 1000 && estimate < 1100);
+		hint.record(Integer.MAX_VALUE);
+		assertEquals(OutputSizeHint.MAX_SIZE_HINT, hint.sizeHint(4096));
+	}
+
+	@Test
+	public void testPool() throws IOException {
+		var pool = BufferedEncodedOutputPool.of(StandardCharsets.UTF_8, 64, 256, 2);
+		try (var output = pool.acquire()) {
+			fill(output);
+			assertChannel(output);
+			assertOutputStream(output);
+		}
+		assertEquals(new BufferedEncodedOutputPool.Stats(0, 1, 0, 1), pool.stats());
+		try (var output = pool.acquire(10)) {
+			assertEquals(0, output.size());
+			fill(output);
+			assertOutputStream(output);
+		}
+		assertEquals(new BufferedEncodedOutputPool.Stats(1, 1, 0, 1), pool.stats());
+		// grown past the max and thus trimmed
+		var output = pool.acquire(1000);
+		output.write(new byte[2000]);
+		output.close();
+		output.close();
+		assertEquals(new BufferedEncodedOutputPool.Stats(1, 2, 1, 1), pool.stats());
+
+		ByteArrayOutputStream os = new ByteArrayOutputStream();
+		try (var limit = pool.limit(0, 1024, size -> {
+			assertEquals(EXPECTED.length(), size);
+			return os;
+		})) {
+			fill(limit);
+		}
+		assertEquals(EXPECTED, os.toString(StandardCharsets.UTF_8));
+		assertEquals(new BufferedEncodedOutputPool.Stats(2, 2, 1, 1), pool.stats());
+		pool.clear();
+		assertEquals(0, pool.stats().pooled());
+	}
+
 	private void assertOutputStream(BufferedEncodedOutput output) throws IOException {
 		ByteArrayOutputStream os = new ByteArrayOutputStream(output.size());
 		output.transferTo(os);
@@ -57,7 +253,7 @@ public class BufferedEncodedOutputTest {
 
 	static final int COUNT = 5;
 
-	private void fill(BufferedEncodedOutput output) {
+	private <E extends Exception> void fill(EncodedOutput<E> output) throws E {
 		for (int i = 0; i < COUNT; i++) {
 			output.append("Hello World - ");
 			output.append(i + 1);
@@ -0,0 +1,72 @@
+package io.jstach.jstachio.spi;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import io.jstach.jstachio.JStachio;
+import io.jstach.jstachio.TemplateInfo;
+import io.jstach.jstachio.spi.CacheTemplateFinderTest.FakeTemplateInfo;
+
+public class FilterChainCacheTest {
+
+	@Test
+	public void testStatelessFilterIsResolvedOnce() throws Exception {
+		var filter = new CountingFilter(true);
+		var jstachio = create(filter);
+		var first = jstachio.findTemplate(new Model());
+		for (int i = 0; i < 3; i++) {
+			assertSame(first, jstachio.findTemplate(new Model()));
+			assertEquals("hello", jstachio.execute(new Model()));
+		}
+		assertEquals(1, filter.count.get());
+	}
+
+	@Test
+	public void testStatefulFilterIsResolvedEveryRender() throws Exception {
+		var filter = new CountingFilter(false);
+		var jstachio = create(filter);
+		for (int i = 0; i < 3; i++) {
+			assertEquals("hello", jstachio.execute(new Model()));
+		}
+		assertEquals(3, filter.count.get());
+	}
+
+	private static JStachio create(JStachioFilter filter) {
+		JStachioTemplateFinder finder = t -> FakeTemplateInfo.FAKE;
+		return JStachioFactory.builder() //
+				.add(filter) //
+				.add(finder) //
+				.build();
+	}
+
+	record Model() {
+	}
+
+	static class CountingFilter implements JStachioFilter {
+
+		final AtomicInteger count = new AtomicInteger();
+
+		private final boolean stateless;
+
+		CountingFilter(boolean stateless) {
+			this.stateless = stateless;
+		}
+
+		@Override
+		public FilterChain filter(TemplateInfo template, FilterChain previous) {
+			count.incrementAndGet();
+			return (model, appendable) -> appendable.append("hello");
+		}
+
+		@Override
+		public boolean isStateless() {
+			return stateless;
+		}
+
+	}
+
+}
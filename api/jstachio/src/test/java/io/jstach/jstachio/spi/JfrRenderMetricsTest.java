@@ -0,0 +1,47 @@
+package io.jstach.jstachio.spi;
+
+import static org.junit.Assert.assertEquals;
+
+import java.nio.file.Files;
+import java.util.Map;
+
+import org.junit.Test;
+
+import io.jstach.jstachio.spi.RenderMetricsTest.Model;
+import io.jstach.jstachio.spi.RenderMetricsTest.ModelTemplateInfo;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordingFile;
+
+public class JfrRenderMetricsTest {
+
+	@Test
+	public void testRenderEventIsRecorded() throws Exception {
+		JStachioConfig config = Map.of(JStachioConfig.JFR_ENABLE, "true")::get;
+		JStachioTemplateFinder finder = t -> ModelTemplateInfo.INSTANCE;
+		JStachioFilter filter = RenderMetricsTest.filter((model, appendable) -> appendable.append("hello"));
+		var jstachio = JStachioFactory.builder() //
+				.add(config) //
+				.add(filter) //
+				.add(finder) //
+				.build();
+		var file = Files.createTempFile("jstachio", ".jfr");
+		try (var recording = new Recording()) {
+			recording.enable(JfrRenderMetrics.RenderEvent.NAME);
+			recording.start();
+			assertEquals("hello", jstachio.execute(new Model()));
+			recording.stop();
+			recording.dump(file);
+			var events = RecordingFile.readAllEvents(file).stream()
+					.filter(e -> e.getEventType().getName().equals(JfrRenderMetrics.RenderEvent.NAME)).toList();
+			assertEquals(1, events.size());
+			var event = events.get(0);
+			assertEquals("model", event.getString("templateName"));
+			assertEquals(Model.class.getName(), event.getClass("modelClass").getName());
+			assertEquals(5, event.getLong("outputSize"));
+		}
+		finally {
+			Files.deleteIfExists(file);
+		}
+	}
+
+}
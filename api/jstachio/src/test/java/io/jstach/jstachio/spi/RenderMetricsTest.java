@@ -0,0 +1,231 @@
+package io.jstach.jstachio.spi;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.junit.Test;
+
+import io.jstach.jstachio.JStachio;
+import io.jstach.jstachio.Output;
+import io.jstach.jstachio.TemplateInfo;
+import io.jstach.jstachio.output.ByteBufferedOutputStream;
+
+public class RenderMetricsTest {
+
+	@Test
+	public void testRendersAreRecorded() throws Exception {
+		var stats = RenderStats.of();
+		var jstachio = create(stats, (model, appendable) -> appendable.append("hello"));
+		for (int i = 0; i < 3; i++) {
+			assertEquals("hello", jstachio.execute(new Model()));
+		}
+		var out = new ByteArrayOutputStream();
+		jstachio.write(new Model(), Output.EncodedOutput.of(out, StandardCharsets.UTF_8));
+		assertEquals("hello", out.toString(StandardCharsets.UTF_8));
+
+		var snapshot = stats.snapshot(ModelTemplateInfo.INSTANCE.templateName());
+		assertNotNull(snapshot);
+		assertEquals(4, snapshot.count());
+		assertEquals(0, snapshot.errors());
+		assertEquals(20, snapshot.outputSize());
+		assertEquals(4, snapshot.histogram().stream().mapToLong(Long::longValue).sum());
+	}
+
+	@Test
+	public void testEncodedSizeIsCountedInBytes() throws Exception {
+		var stats = RenderStats.of();
+		var jstachio = create(stats, (model, appendable) -> {
+			appendable.append("h\u00e9llo \u20ac \ud83d\ude00 ");
+			appendable.append('\u00fc');
+			appendable.append(-12345);
+			appendable.append(9876543210L);
+			appendable.append(true);
+		});
+		var out = new ByteArrayOutputStream();
+		jstachio.write(new Model(), Output.EncodedOutput.of(out, StandardCharsets.UTF_8));
+		var buffered = new ByteBufferedOutputStream();
+		jstachio.write(new Model(), buffered);
+		assertEquals(out.size(), buffered.size());
+
+		var snapshot = stats.snapshot(ModelTemplateInfo.INSTANCE.templateName());
+		assertNotNull(snapshot);
+		assertEquals(2, snapshot.count());
+		assertEquals(2L * out.size(), snapshot.outputSize());
+	}
+
+	@Test
+	public void testEncodedCallsAreForwarded() throws Exception {
+		var stats = RenderStats.of();
+		var jstachio = create(stats, (model, appendable) -> {
+			appendable.append("hello");
+			appendable.append(42);
+		});
+		List<String> calls = new ArrayList<>();
+		var out = new ByteArrayOutputStream();
+		var delegate = Output.EncodedOutput.of(out, StandardCharsets.UTF_8);
+		jstachio.write(new Model(), new Output.EncodedOutput<IOException>() {
+
+			@Override
+			public void write(byte[] bytes) throws IOException {
+				calls.add("bytes");
+				delegate.write(bytes);
+			}
+
+			@Override
+			public void append(CharSequence s) throws IOException {
+				calls.add("chars");
+				delegate.append(s);
+			}
+
+			@Override
+			public void append(String s) throws IOException {
+				calls.add("string");
+				delegate.append(s);
+			}
+
+			@Override
+			public void append(int i) throws IOException {
+				calls.add("int");
+				delegate.append(i);
+			}
+
+			@Override
+			public Charset charset() {
+				return delegate.charset();
+			}
+
+		});
+		assertEquals(List.of("string", "int"), calls);
+		assertEquals("hello42", out.toString(StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void testNumberSizes() throws Exception {
+		for (long l : new long[] { 0, 9, 10, -1, -10, 99, 100, Integer.MIN_VALUE, Integer.MAX_VALUE, Long.MIN_VALUE,
+				Long.MAX_VALUE }) {
+			var out = new ByteArrayOutputStream();
+			var counting = new CountingEncodedOutput<>(Output.EncodedOutput.of(out, StandardCharsets.UTF_8));
+			counting.append(l);
+			assertEquals(out.size(), counting.size());
+		}
+	}
+
+	@Test
+	public void testErrorsAreRecorded() throws Exception {
+		var stats = RenderStats.of();
+		var jstachio = create(stats, (model, appendable) -> {
+			throw new IllegalStateException("fail");
+		});
+		try {
+			jstachio.execute(new Model());
+			fail("expected exception");
+		}
+		catch (IllegalStateException e) {
+			assertEquals("fail", e.getMessage());
+		}
+		var snapshot = stats.snapshot(ModelTemplateInfo.INSTANCE.templateName());
+		assertNotNull(snapshot);
+		assertEquals(1, snapshot.count());
+		assertEquals(1, snapshot.errors());
+	}
+
+	@Test
+	public void testBuckets() {
+		assertEquals(0, RenderStats.bucket(0));
+		assertEquals(0, RenderStats.bucket(1023));
+		assertEquals(1, RenderStats.bucket(1024));
+		assertEquals(1, RenderStats.bucket(2047));
+		assertEquals(2, RenderStats.bucket(2048));
+		assertEquals(RenderStats.BUCKETS - 1, RenderStats.bucket(Long.MAX_VALUE));
+		assertEquals(2048, RenderStats.bucketUpperBoundNanos(1));
+	}
+
+	private static JStachio create(RenderMetrics metrics, JStachioFilter.FilterChain chain) {
+		JStachioTemplateFinder finder = t -> ModelTemplateInfo.INSTANCE;
+		return JStachioFactory.builder() //
+				.add(filter(chain)) //
+				.add(RenderMetrics.filter(metrics)) //
+				.add(finder) //
+				.build();
+	}
+
+	static JStachioFilter filter(JStachioFilter.FilterChain chain) {
+		return new JStachioFilter() {
+
+			@Override
+			public FilterChain filter(TemplateInfo template, FilterChain previous) {
+				return chain;
+			}
+
+			@Override
+			public boolean isStateless() {
+				return true;
+			}
+		};
+	}
+
+	record Model() {
+	}
+
+	enum ModelTemplateInfo implements TemplateInfo {
+
+		INSTANCE;
+
+		@Override
+		public String templateName() {
+			return "model";
+		}
+
+		@Override
+		public String templatePath() {
+			return "";
+		}
+
+		@Override
+		public Class<?> templateContentType() {
+			return Object.class;
+		}
+
+		@Override
+		public Charset templateCharset() {
+			return StandardCharsets.UTF_8;
+		}
+
+		@Override
+		public String templateMediaType() {
+			return "text/plain";
+		}
+
+		@Override
+		public Function<String, String> templateEscaper() {
+			return Function.identity();
+		}
+
+		@Override
+		public Function<@Nullable Object, String> templateFormatter() {
+			return String::valueOf;
+		}
+
+		@Override
+		public boolean supportsType(Class<?> type) {
+			return Model.class.equals(type);
+		}
+
+		@Override
+		public Class<?> modelClass() {
+			return Model.class;
+		}
+
+	}
+
+}
@@ -0,0 +1,140 @@
+package io.jstach.jstachio.spi;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.junit.Test;
+
+import io.jstach.jstachio.Output;
+import io.jstach.jstachio.Template;
+import io.jstach.jstachio.TemplateConfig;
+import io.jstach.jstachio.spi.TemplateProvider.GeneratedTemplateProvider;
+
+public class TemplateIndexTest {
+
+	/*
+	 * Reflection is disabled and the model is not annotated so only the catalog can find
+	 * the template.
+	 */
+	@Test
+	public void testDefaultTemplateFinderConsultsCatalog() throws Exception {
+		var catalog = new CountingCatalog();
+		var finder = finder(catalog, Map.of(JStachioConfig.REFLECTION_TEMPLATE_DISABLE, "true"));
+		assertSame(ModelTemplate.INSTANCE, finder.findTemplate(Model.class));
+		assertSame(ModelTemplate.INSTANCE, finder.findOrNull(Model.class));
+		assertEquals(2, catalog.count.get());
+	}
+
+	@SuppressWarnings("nullness") // checker does not like assertNull
+	@Test
+	public void testCatalogMissFallsBack() {
+		var catalog = new CountingCatalog();
+		var finder = finder(catalog, Map.of(JStachioConfig.REFLECTION_TEMPLATE_DISABLE, "true"));
+		assertNull(finder.findOrNull(NotInCatalog.class));
+		assertEquals(1, catalog.count.get());
+	}
+
+	@Test
+	public void testCatalogIsNotConsultedWhenServiceLoaderIsDisabled() {
+		var catalog = new CountingCatalog();
+		var finder = finder(catalog, Map.of(JStachioConfig.SERVICELOADER_TEMPLATE_DISABLE, "true",
+				JStachioConfig.REFLECTION_TEMPLATE_DISABLE, "true"));
+		finder.findOrNull(Model.class);
+		assertEquals(0, catalog.count.get());
+	}
+
+	private static JStachioTemplateFinder finder(GeneratedTemplateProvider catalog, Map<String, String> props) {
+		JStachioConfig config = props::get;
+		return new DefaultTemplateFinder(config, new TemplateIndex(List.of(catalog)));
+	}
+
+	record Model() {
+	}
+
+	record NotInCatalog() {
+	}
+
+	static class CountingCatalog implements GeneratedTemplateProvider {
+
+		final AtomicInteger count = new AtomicInteger();
+
+		@Override
+		public List<Template<?>> provideTemplates(TemplateConfig templateConfig) {
+			return List.of(ModelTemplate.INSTANCE);
+		}
+
+		@Override
+		public @Nullable Template<?> findTemplateOrNull(Class<?> modelType, TemplateConfig templateConfig) {
+			count.incrementAndGet();
+			return Model.class.equals(modelType) ? ModelTemplate.INSTANCE : null;
+		}
+
+	}
+
+	enum ModelTemplate implements Template<Model> {
+
+		INSTANCE;
+
+		@Override
+		public <A extends Output<E>, E extends Exception> A execute(Model model, A appendable) throws E {
+			appendable.append("model");
+			return appendable;
+		}
+
+		@Override
+		public String templateName() {
+			return "model";
+		}
+
+		@Override
+		public String templatePath() {
+			return "";
+		}
+
+		@Override
+		public Class<?> templateContentType() {
+			return Object.class;
+		}
+
+		@Override
+		public Charset templateCharset() {
+			return StandardCharsets.UTF_8;
+		}
+
+		@Override
+		public String templateMediaType() {
+			return "text/plain";
+		}
+
+		@Override
+		public Function<String, String> templateEscaper() {
+			return Function.identity();
+		}
+
+		@Override
+		public Function<@Nullable Object, String> templateFormatter() {
+			return String::valueOf;
+		}
+
+		@Override
+		public boolean supportsType(Class<?> type) {
+			return Model.class.equals(type);
+		}
+
+		@Override
+		public Class<?> modelClass() {
+			return Model.class;
+		}
+
+	}
+
+}
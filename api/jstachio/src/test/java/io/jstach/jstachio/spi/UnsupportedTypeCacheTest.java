@@ -0,0 +1,52 @@
+package io.jstach.jstachio.spi;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class UnsupportedTypeCacheTest {
+
+	@Test
+	public void testUnsupportedTypeIsCached() {
+		AtomicInteger count = new AtomicInteger();
+		JStachioTemplateFinder finder = t -> {
+			count.incrementAndGet();
+			throw new TemplateNotFoundException(t);
+		};
+		var jstachio = new DefaultJStachio(JStachioExtensions.of(List.of(finder)));
+		for (int i = 0; i < 3; i++) {
+			assertFalse(jstachio.supportsType(UnsupportedType.class));
+		}
+		assertEquals(1, count.get());
+		var stats = jstachio.unsupportedTypeStats();
+		assertEquals(new UnsupportedTypeStats(2, 1, 0, 1, UnsupportedTypeCache.DEFAULT_SIZE), stats);
+	}
+
+	@Test
+	public void testCollidingTypeIsEvicted() {
+		AtomicInteger count = new AtomicInteger();
+		JStachioTemplateFinder finder = t -> {
+			count.incrementAndGet();
+			throw new TemplateNotFoundException(t);
+		};
+		var cache = new UnsupportedTypeCache(finder, 1);
+		assertFalse(cache.supportsType(UnsupportedType.class));
+		assertFalse(cache.supportsType(OtherUnsupportedType.class));
+		assertFalse(cache.supportsType(UnsupportedType.class));
+		assertEquals(3, count.get());
+		assertEquals(new UnsupportedTypeStats(0, 3, 2, 1, 1), cache.stats());
+	}
+
+	static class UnsupportedType {
+
+	}
+
+	static class OtherUnsupportedType {
+
+	}
+
+}
@@ -0,0 +1,137 @@
+package io.jstach.benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.jstach.jstachio.Output;
+import io.jstach.jstachio.Output.EncodedOutput;
+import io.jstach.jstachio.output.ByteBufferedOutputStream;
+import io.jstach.jstachio.output.ChunkEncodedOutput;
+import io.jstach.jstachio.output.ThresholdEncodedOutput;
+
+/**
+ * Renders pages to the various encoded outputs.
+ * <p>
+ * When {@link #preEncode} is <code>false</code> the template is rendered with
+ * {@link io.jstach.jstachio.Template#execute(Object, Output)} which is what happens when
+ * {@link io.jstach.jstache.JStacheFlags.Flag#PRE_ENCODE_DISABLE} is set. Otherwise the
+ * pre-encoded static parts of the template are written directly.
+ *
+ * @author agentgt
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EncodedOutputBenchmark {
+
+	/**
+	 * Whether or not to use the pre-encoded write path.
+	 */
+	@Param({ "true", "false" })
+	public boolean preEncode = true;
+
+	/**
+	 * The threshold limit used by {@link #thresholdEncodedOutput(TemplateState)}.
+	 */
+	@Param({ "8192" })
+	public int limit = 8192;
+
+	private final OutputStream sink = OutputStream.nullOutputStream();
+
+	private <A extends EncodedOutput<E>, E extends Exception> A render(TemplateState state, A output) throws E {
+		if (preEncode) {
+			return state.template.write(state.model, output);
+		}
+		return state.template.execute(state.model, output);
+	}
+
+	/**
+	 * Renders to a growable byte array.
+	 * @param state page and escaper
+	 * @return size of the output
+	 */
+	@Benchmark
+	public int byteBufferedOutputStream(TemplateState state) {
+		try (var output = new ByteBufferedOutputStream()) {
+			render(state, output);
+			return output.size();
+		}
+	}
+
+	/**
+	 * Renders to a list of byte array chunks.
+	 * @param state page and escaper
+	 * @return size of the output
+	 */
+	@Benchmark
+	public int chunkEncodedOutput(TemplateState state) {
+		try (var output = ChunkEncodedOutput.ofByteArrays(state.template.templateCharset())) {
+			render(state, output);
+			return output.size();
+		}
+	}
+
+	/**
+	 * Renders to a threshold output that buffers until the limit is reached and then
+	 * streams.
+	 * @param state page and escaper
+	 * @return size of the output
+	 * @throws IOException never as the sink is a null stream
+	 */
+	@Benchmark
+	public int thresholdEncodedOutput(TemplateState state) throws IOException {
+		try (var output = new SinkThresholdEncodedOutput(state.template.templateCharset(), limit, sink)) {
+			render(state, output);
+			return output.size();
+		}
+	}
+
+	/**
+	 * Renders directly to an OutputStream with
+	 * {@link io.jstach.jstachio.Template#write(Object, OutputStream)}.
+	 * @param state page and escaper
+	 * @return the output
+	 * @throws IOException never as the sink is a null stream
+	 */
+	@Benchmark
+	public Object outputStream(TemplateState state) throws IOException {
+		if (preEncode) {
+			state.template.write(state.model, sink);
+			return sink;
+		}
+		return state.template.execute(state.model, Output.of(sink, state.template.templateCharset()));
+	}
+
+	static final class SinkThresholdEncodedOutput extends ThresholdEncodedOutput.OutputStreamThresholdEncodedOutput {
+
+		private final OutputStream sink;
+
+		SinkThresholdEncodedOutput(Charset charset, int limit, OutputStream sink) {
+			super(charset, limit);
+			this.sink = sink;
+		}
+
+		@Override
+		protected OutputStream createConsumer(int size) throws IOException {
+			return sink;
+		}
+
+	}
+
+}
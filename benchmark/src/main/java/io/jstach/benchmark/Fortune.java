@@ -0,0 +1,10 @@
+package io.jstach.benchmark;
+
+/**
+ * A single fortune of the fortunes page.
+ * @param id id of the fortune
+ * @param message the fortune which often contains characters that need escaping
+ */
+public record Fortune(int id, String message) {
+
+}
@@ -0,0 +1,41 @@
+package io.jstach.benchmark;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import io.jstach.jstache.JStache;
+
+/**
+ * The "fortunes" page. Unlike stocks most of the output is escaped variables many of
+ * which contain characters that need escaping.
+ * @param fortunes sorted fortunes
+ */
+@JStache(path = "fortunes.mustache")
+public record Fortunes(List<Fortune> fortunes) {
+
+	/**
+	 * The default page.
+	 * @return fortunes page sorted by message.
+	 */
+	public static Fortunes of() {
+		List<Fortune> fortunes = new ArrayList<>();
+		fortunes.add(new Fortune(1, "fortune: No such file or directory"));
+		fortunes.add(new Fortune(2, "A computer scientist is someone who fixes things that aren't broken."));
+		fortunes.add(new Fortune(3, "After enough decimal places, nobody gives a damn."));
+		fortunes.add(new Fortune(4, "A bad random number generator: 1, 1, 1, 1, 1, 4.33e+67, 1, 1, 1"));
+		fortunes.add(new Fortune(5, "A computer program does what you tell it to do, not what you want it to do."));
+		fortunes.add(new Fortune(6, "Emacs is a nice operating system, but I prefer UNIX. — Tom Christaensen"));
+		fortunes.add(new Fortune(7, "Any program that runs right is obsolete."));
+		fortunes.add(new Fortune(8, "A list is only as strong as its weakest link. — Donald Knuth"));
+		fortunes.add(new Fortune(9, "Feature: A bug with seniority."));
+		fortunes.add(new Fortune(10, "Computers make very fast, very accurate mistakes."));
+		fortunes.add(
+				new Fortune(11, "<script>alert(\"This should not be displayed in a browser alert box.\");</script>"));
+		fortunes.add(new Fortune(12, "フレームワークのベンチマーク"));
+		fortunes.add(new Fortune(0, "Additional fortune added at request time."));
+		fortunes.sort(Comparator.comparing(Fortune::message));
+		return new Fortunes(fortunes);
+	}
+
+}
@@ -0,0 +1,88 @@
+package io.jstach.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.jstach.jstachio.Escaper;
+import io.jstach.jstachio.Output.StringOutput;
+import io.jstach.jstachio.escapers.Html;
+
+/**
+ * Compares the bulk scanning HTML escaper against the per character loop. The loop is
+ * selected with the {@value Html#SCAN_DISABLE_PROPERTY} system property which is why each
+ * strategy runs in its own fork.
+ *
+ * @author agentgt
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@State(Scope.Benchmark)
+public class HtmlEscaperBenchmark {
+
+	/**
+	 * The input to escape.
+	 */
+	@Param({ "none", "sparse", "dense" })
+	public String input = "none";
+
+	private String text = "";
+
+	private final Escaper escaper = Html.of();
+
+	private final StringBuilder buffer = new StringBuilder(4096);
+
+	/**
+	 * Creates the input.
+	 */
+	@Setup
+	public void setup() {
+		String chunk = switch (input) {
+			case "none" -> "The quick brown fox jumps over the lazy dog. ";
+			case "sparse" -> "The quick brown fox jumps over the \"lazy\" dog. ";
+			case "dense" -> "<a href='x'>&amp;</a> ";
+			default -> throw new IllegalArgumentException(input);
+		};
+		text = chunk.repeat(1024 / chunk.length() + 1);
+	}
+
+	/**
+	 * Bulk scanning which is the default.
+	 * @return escaped length
+	 */
+	@Benchmark
+	@Fork(value = 1, jvmArgsAppend = "-D" + Html.SCAN_DISABLE_PROPERTY + "=false")
+	public int scan() {
+		return escape();
+	}
+
+	/**
+	 * The per character loop.
+	 * @return escaped length
+	 */
+	@Benchmark
+	@Fork(value = 1, jvmArgsAppend = "-D" + Html.SCAN_DISABLE_PROPERTY + "=true")
+	public int loop() {
+		return escape();
+	}
+
+	private int escape() {
+		var sb = buffer;
+		sb.setLength(0);
+		escaper.append(new StringOutput(sb), text);
+		return sb.length();
+	}
+
+}
@@ -0,0 +1,23 @@
+package io.jstach.benchmark;
+
+import java.util.List;
+
+import io.jstach.jstache.JStache;
+
+/**
+ * The large "stocks" page. Mostly static markup with many short escaped variables and
+ * doubles.
+ * @param items stocks to render
+ */
+@JStache(path = "stocks.mustache")
+public record Stocks(List<Stock> items) {
+
+	/**
+	 * The default page.
+	 * @return stocks page with the classic 20 items.
+	 */
+	public static Stocks of() {
+		return new Stocks(Stock.dummyItems());
+	}
+
+}
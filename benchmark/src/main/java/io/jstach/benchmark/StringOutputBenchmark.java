@@ -0,0 +1,39 @@
+package io.jstach.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.jstach.jstachio.Output.StringOutput;
+
+/**
+ * Renders pages to a String which is the most common usage.
+ *
+ * @author agentgt
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StringOutputBenchmark {
+
+	/**
+	 * Renders to {@link StringOutput}.
+	 * @param state page and escaper
+	 * @return the rendered page
+	 */
+	@Benchmark
+	public String stringOutput(TemplateState state) {
+		var sb = new StringBuilder();
+		state.template.execute(state.model, new StringOutput(sb));
+		return sb.toString();
+	}
+
+}
@@ -0,0 +1,79 @@
+package io.jstach.benchmark;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import io.jstach.jstachio.Escaper;
+import io.jstach.jstachio.Template;
+import io.jstach.jstachio.escapers.Html;
+import io.jstach.jstachio.escapers.PlainText;
+
+/**
+ * Shared benchmark state that selects the page (model and generated template) and the
+ * escaper the generated template uses.
+ *
+ * @author agentgt
+ */
+@State(Scope.Benchmark)
+public class TemplateState {
+
+	/**
+	 * Which page to render.
+	 */
+	@Param({ "user", "stocks", "fortunes", "table" })
+	public String page = "stocks";
+
+	/**
+	 * Which escaper to use. <code>html</code> is {@link Html} and <code>plain</code> is
+	 * {@link PlainText}.
+	 */
+	@Param({ "html", "plain" })
+	public String escaper = "html";
+
+	/**
+	 * The generated template created with the chosen escaper.
+	 */
+	public Template.EncodedTemplate<Object> template;
+
+	/**
+	 * The model of the page.
+	 */
+	public Object model = "";
+
+	/**
+	 * Creates the template and model.
+	 */
+	@Setup(Level.Trial)
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public void setup() {
+		Escaper e = switch (escaper) {
+			case "html" -> Html.provider();
+			case "plain" -> PlainText.provider();
+			default -> throw new IllegalArgumentException(escaper);
+		};
+		Template.EncodedTemplate t = switch (page) {
+			case "user" -> {
+				model = UserPage.of();
+				yield new UserPageRenderer(null, e);
+			}
+			case "stocks" -> {
+				model = Stocks.of();
+				yield new StocksRenderer(null, e);
+			}
+			case "fortunes" -> {
+				model = Fortunes.of();
+				yield new FortunesRenderer(null, e);
+			}
+			case "table" -> {
+				model = WideTable.of();
+				yield new WideTableRenderer(null, e);
+			}
+			default -> throw new IllegalArgumentException(page);
+		};
+		template = t;
+	}
+
+}
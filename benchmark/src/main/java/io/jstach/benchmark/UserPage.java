@@ -0,0 +1,28 @@
+package io.jstach.benchmark;
+
+import java.util.List;
+
+import io.jstach.jstache.JStache;
+
+/**
+ * A small page similar to the user and layout examples in <code>test/examples</code>.
+ * @param title page title
+ * @param name user name
+ * @param age user age
+ * @param achievements array section
+ * @param items list section
+ */
+@JStache(path = "user.mustache")
+public record UserPage(String title, String name, int age, String[] achievements, List<String> items) {
+
+	/**
+	 * The default page.
+	 * @return user page.
+	 */
+	public static UserPage of() {
+		return new UserPage("User & Friends", "Jane <Doe>", 42,
+				new String[] { "Wrote \"Hello World\"", "Shipped it", "Fixed <b>everything</b>" },
+				List.of("apples", "oranges & pears", "'quoted'"));
+	}
+
+}
@@ -0,0 +1,52 @@
+package io.jstach.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import io.jstach.jstache.JStache;
+
+/**
+ * A "wide table" page with many rows each having many columns. This stresses section
+ * loops as every column of a row is looked up from the current element.
+ * @param headers column headers
+ * @param rows table rows
+ */
+@JStache(path = "table.mustache")
+public record WideTable(String[] headers, List<Row> rows) {
+
+	/**
+	 * A single row of the table.
+	 * @param id row id
+	 * @param name name that may need escaping
+	 * @param email email
+	 * @param city city
+	 * @param country country
+	 * @param company company
+	 * @param title job title
+	 * @param phone phone number
+	 * @param status status
+	 * @param score score
+	 * @param balance balance
+	 * @param tags tags rendered as an array section
+	 */
+	public record Row(int id, String name, String email, String city, String country, String company, String title,
+			String phone, String status, int score, double balance, String[] tags) {
+	}
+
+	/**
+	 * The default page.
+	 * @return table with 100 rows.
+	 */
+	public static WideTable of() {
+		String[] headers = { "id", "name", "email", "city", "country", "company", "title", "phone", "status", "score",
+				"balance", "tags" };
+		List<Row> rows = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			rows.add(new Row(i, "Name " + i, "user" + i + "@example.com", "City " + (i % 10), "Country",
+					"Company & Sons", "Engineer", "555-01" + i, i % 3 == 0 ? "active" : "inactive", i * 7, i * 1.5,
+					new String[] { "a", "b", "c" }));
+		}
+		return new WideTable(headers, rows);
+	}
+
+}
@@ -0,0 +1,16 @@
+/**
+ * JMH benchmarks of generated templates.
+ * <p>
+ * The models in this package are representative of what is found in
+ * <code>test/examples</code> (a small user page with a layout) as well as the large
+ * "stocks" and "fortunes" pages commonly used to compare template engines. Build the
+ * module and run the shaded jar:
+ *
+ * <pre>
+ * <code>
+ * mvn -pl benchmark -am package -DskipTests
+ * java -jar benchmark/target/benchmarks.jar
+ * </code> </pre>
+ */
+@org.eclipse.jdt.annotation.NonNullByDefault
+package io.jstach.benchmark;
@@ -1,10 +1,9 @@
 package io.jstach.apt;
 
 import java.io.IOException;
-import java.util.Collection;
 import java.util.List;
-import java.util.Set;
-import java.util.TreeSet;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
 import javax.annotation.processing.Filer;
@@ -16,7 +15,10 @@ import io.jstach.apt.prism.Prisms;
 
 class CatalogClassWriter {
 
-	private final Set<String> templateClassNames = new TreeSet<>();
+	/*
+	 * Template class name to model binary class name.
+	 */
+	private final Map<String, String> templates = new TreeMap<>();
 
 	private final ClassRef catalogClass;
 
@@ -36,6 +38,7 @@ class CatalogClassWriter {
 		String _List = List.class.getCanonicalName();
 		String _Template = Prisms.TEMPLATE_CLASS;
 		String _TemplateConfig = Prisms.TEMPLATE_CONFIG_CLASS;
+		String _Class = Class.class.getCanonicalName();
 
 		a.append("package " + packageName + ";\n");
 		a.append("\n");
@@ -56,6 +59,18 @@ class CatalogClassWriter {
 		a.append("        return " + _List + ".of(//\n");
 		a.append(listTemplates("        new ", "(templateConfig)")).append(");\n");
 		a.append("    }\n");
+		a.append("\n");
+		a.append("    @Override\n");
+		a.append("    public " + _Template + "<?> findTemplateOrNull(" + _Class + "<?> modelType, " + _TemplateConfig
+				+ " templateConfig) {\n");
+		a.append("        " + _Template + "<?> template = switch (modelType.getName()) {\n");
+		for (var e : templates.entrySet()) {
+			a.append("            case \"" + e.getValue() + "\" -> new " + e.getKey() + "(templateConfig);\n");
+		}
+		a.append("            default -> null;\n");
+		a.append("        };\n");
+		a.append("        return template != null && template.modelClass() == modelType ? template : null;\n");
+		a.append("    }\n");
 		a.append("}\n");
 	}
 
@@ -77,18 +92,17 @@ class CatalogClassWriter {
 	}
 
 	String listTemplates(String prefix, String suffix) {
-		return templateClassNames.stream().map(tn -> prefix + tn + suffix).collect(Collectors.joining(", //\n"));
+		return templates.keySet().stream().map(tn -> prefix + tn + suffix).collect(Collectors.joining(", //\n"));
 	}
 
-	void addAll(Collection<? extends ClassRef> templateClasses) {
-		for (var tc : templateClasses) {
-			this.templateClassNames.add(tc.requireCanonicalName());
-		}
-	}
-
-	void addTemplateClasses(Collection<String> templateClassNames) {
-		this.templateClassNames.addAll(templateClassNames);
-
+	/**
+	 * Adds a template to the catalog.
+	 * @param templateClassName canonical name of the generated template class.
+	 * @param modelClassName binary name of the model class which is what
+	 * {@link Class#getName()} returns at runtime.
+	 */
+	void addTemplate(String templateClassName, String modelClassName) {
+		this.templates.put(templateClassName, modelClassName);
 	}
 
 }
@@ -91,6 +91,10 @@ class CodeWriter {
 		codeGenerator.setFormatCallType(formatCallType);
 	}
 
+	void setStaticFormat(boolean staticFormat) {
+		codeGenerator.setStaticFormat(staticFormat);
+	}
+
 	void println(String s) {
 		try {
 			writer.append(s).append("\n");
@@ -100,8 +104,22 @@ class CodeWriter {
 		}
 	}
 
+	void print(String s) {
+		try {
+			writer.append(s);
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
 	void compileTemplate(TextFileObject resource, TemplateCompilerContext context)
 			throws IOException, ProcessingException {
+		compileTemplate(resource, context, this.writer);
+	}
+
+	void compileTemplate(TextFileObject resource, TemplateCompilerContext context, CodeAppendable writer)
+			throws IOException, ProcessingException {
 
 		TemplateStack stack = context.getTemplateStack();
 		String templateName = stack.getTemplateName();
@@ -344,9 +344,9 @@ public class GenerateRendererProcessor extends AbstractProcessor implements Pris
 		for (var cat : catalogClasses) {
 			var cc = cat.classRef();
 			CatalogClassWriter cw = new CatalogClassWriter(cc.getPackageName(), cc.getSimpleName());
-			cw.addAll(rendererClasses.stream()
-					.filter(js -> js.jstachio() && (js.pub() || js.classRef().isSamePackage(cc)))
-					.map(js -> js.classRef()).toList());
+			rendererClasses.stream().filter(js -> js.jstachio() && (js.pub() || js.classRef().isSamePackage(cc)))
+					.forEach(js -> cw.addTemplate(js.classRef().requireCanonicalName(),
+							js.modelClassRef().getBinaryName()));
 			cw.write(processingEnv.getFiler(), cat.logging());
 		}
 	}
@@ -976,7 +976,7 @@ public class GenerateRendererProcessor extends AbstractProcessor implements Pris
 				case JSTACHIO_BYTE -> throw new IllegalStateException();
 			};
 
-			return new JStacheRef(model.rendererClassRef(), pub, jstachio);
+			return new JStacheRef(model.rendererClassRef(), ClassRef.of(element), pub, jstachio);
 		}
 		catch (ProcessingException ex) {
 			if (config != null) {
@@ -997,7 +997,7 @@ public class GenerateRendererProcessor extends AbstractProcessor implements Pris
 		return null;
 	}
 
-	record JStacheRef(ClassRef classRef, boolean pub, boolean jstachio) {
+	record JStacheRef(ClassRef classRef, ClassRef modelClassRef, boolean pub, boolean jstachio) {
 	}
 
 	record CatalogRef(JStacheCatalogPrism prism, ClassRef classRef, Element element) {
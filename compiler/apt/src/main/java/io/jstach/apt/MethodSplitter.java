@@ -0,0 +1,445 @@
+package io.jstach.apt;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntFunction;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Splits the generated body of a render method into multiple methods so that each
+ * generated method stays well under the HotSpot <code>HugeMethodLimit</code> (8000 bytes
+ * of bytecode) which otherwise prevents the method from ever being JIT compiled.
+ * <p>
+ * The template compiler marks two kinds of places:
+ * <ul>
+ * <li>{@linkplain #OUTLINE_START Regions} which are the bodies of sections, blocks and
+ * partials. A big region is moved (outlined) to its own method and the local variables of
+ * the enclosing sections that the region uses are passed as parameters.</li>
+ * <li>{@linkplain #SPLIT_POINT Split points} between the sections and variables. A body
+ * that is still too big is split into consecutive methods at the split points that are
+ * not nested in a block of code as there the only variables in scope are the parameters
+ * of the method.</li>
+ * </ul>
+ * The size of the bytecode is estimated from the number of statements and blocks.
+ *
+ * @author agentgt
+ */
+final class MethodSplitter {
+
+	/**
+	 * Comment line the template compiler prints where the body can be split.
+	 */
+	static final String SPLIT_POINT = "// split point";
+
+	/**
+	 * Comment line the template compiler prints followed by the region id at the start of
+	 * a region that can be moved to its own method.
+	 */
+	static final String OUTLINE_START = "// outline start ";
+
+	/**
+	 * Comment line the template compiler prints followed by the region id at the end of a
+	 * region.
+	 */
+	static final String OUTLINE_END = "// outline end ";
+
+	/**
+	 * The estimated bytecode size a method body should not go over if it can be split.
+	 * Estimates are conservative so this leaves room under the 8000 byte limit.
+	 */
+	static final int DEFAULT_BUDGET = 4000;
+
+	/*
+	 * A statement is usually a few loads and an interface call. Blocks are usually
+	 * conditions or loops.
+	 */
+	private static final int STATEMENT_SIZE = 16;
+
+	private static final int BLOCK_SIZE = 16;
+
+	/**
+	 * A generated method.
+	 * @param name the name of the method or <code>null</code> for the body of the render
+	 * method itself.
+	 * @param locals the local variables passed to the method in addition to the
+	 * parameters of the render method: names to types.
+	 * @param body java code of the body.
+	 */
+	record Method(@Nullable String name, Map<String, String> locals, String body) {
+	}
+
+	private final String name;
+
+	private final String arguments;
+
+	private final IntFunction<@Nullable Map<String, String>> outlines;
+
+	private final int budget;
+
+	private final List<Method> methods = new ArrayList<>();
+
+	private int count;
+
+	private MethodSplitter(String name, String arguments, IntFunction<@Nullable Map<String, String>> outlines,
+			int budget) {
+		this.name = name;
+		this.arguments = arguments;
+		this.outlines = outlines;
+		this.budget = budget;
+	}
+
+	/**
+	 * Splits the body into methods that are under the budget if possible. Split points
+	 * and region markers are removed from the returned bodies.
+	 * @param name the prefix of the names of the generated methods.
+	 * @param arguments the parameters of the render method as call arguments.
+	 * @param outlines the local variables in scope of a region by region id or
+	 * <code>null</code> if the region cannot be moved.
+	 * @param body generated code containing split points and regions.
+	 * @param budget estimated bytecode size per method.
+	 * @return the body of the render method first followed by the generated methods if it
+	 * was split.
+	 */
+	static List<Method> split(String name, String arguments, IntFunction<@Nullable Map<String, String>> outlines,
+			String body, int budget) {
+		var splitter = new MethodSplitter(name, arguments, outlines, budget);
+		splitter.fit(new Method(null, Map.of(), body));
+		/*
+		 * The render method is fitted last as its body has the calls to the generated
+		 * methods.
+		 */
+		var methods = splitter.methods;
+		methods.add(0, methods.remove(methods.size() - 1));
+		return methods;
+	}
+
+	private void fit(Method method) {
+		List<Node> nodes = parse(method.body());
+		int size = size(nodes);
+		if (size > budget) {
+			/*
+			 * Big regions are moved first as splitting would otherwise leave them whole
+			 * in one of the split methods.
+			 */
+			size = outline(nodes, size, budget / 4);
+		}
+		if (size > budget) {
+			List<List<Node>> chunks = chunks(nodes);
+			if (chunks.size() > 1) {
+				StringBuilder calls = new StringBuilder();
+				for (var chunk : chunks) {
+					String chunkName = nextName();
+					calls.append(call(chunkName, method.locals()));
+					fit(new Method(chunkName, method.locals(), render(chunk)));
+				}
+				methods.add(new Method(method.name(), method.locals(), calls.toString()));
+				return;
+			}
+			/*
+			 * There is nowhere to split so any region no matter how small is moved.
+			 */
+			outline(nodes, size, 0);
+		}
+		methods.add(new Method(method.name(), method.locals(), strip(render(nodes))));
+	}
+
+	private int outline(List<Node> nodes, int size, int minimumSize) {
+		List<Region> regions = new ArrayList<>();
+		for (Node n : nodes) {
+			if (n instanceof Region r && r.size() > minimumSize) {
+				regions.add(r);
+			}
+		}
+		regions.sort(Comparator.comparingInt(Region::size).reversed());
+		for (Region r : regions) {
+			if (size <= budget) {
+				break;
+			}
+			var locals = outlines.apply(r.id());
+			if (locals == null) {
+				continue;
+			}
+			Set<String> used = identifiers(r.code());
+			Map<String, String> parameters = new LinkedHashMap<>();
+			locals.forEach((k, v) -> {
+				if (used.contains(k)) {
+					parameters.put(k, v);
+				}
+			});
+			String outlineName = nextName();
+			Call call = new Call(call(outlineName, parameters));
+			nodes.set(nodes.indexOf(r), call);
+			size += call.size() - r.size();
+			fit(new Method(outlineName, parameters, r.code()));
+		}
+		return size;
+	}
+
+	private String nextName() {
+		return name + count++;
+	}
+
+	private String call(String methodName, Map<String, String> locals) {
+		StringBuilder sb = new StringBuilder();
+		sb.append("        ").append(methodName).append("(").append(arguments);
+		for (String local : locals.keySet()) {
+			sb.append(", ").append(local);
+		}
+		sb.append(");\n");
+		return sb.toString();
+	}
+
+	/*
+	 * Groups the nodes between split points into chunks under the budget.
+	 */
+	private List<List<Node>> chunks(List<Node> nodes) {
+		List<List<Node>> chunks = new ArrayList<>();
+		List<Node> current = new ArrayList<>();
+		int currentSize = 0;
+		List<Node> segment = new ArrayList<>();
+		int segmentSize = 0;
+		for (int i = 0; i <= nodes.size(); i++) {
+			Node n = i < nodes.size() ? nodes.get(i) : null;
+			if (n == null || n instanceof SplitPoint) {
+				if (currentSize > 0 && currentSize + segmentSize > budget) {
+					chunks.add(current);
+					current = new ArrayList<>();
+					currentSize = 0;
+				}
+				current.addAll(segment);
+				currentSize += segmentSize;
+				segment = new ArrayList<>();
+				segmentSize = 0;
+			}
+			else {
+				segment.add(n);
+				segmentSize += n.size();
+			}
+		}
+		if (!current.isEmpty()) {
+			chunks.add(current);
+		}
+		return chunks;
+	}
+
+	private sealed interface Node {
+
+		String code();
+
+		int size();
+
+	}
+
+	private record Code(String code, int size) implements Node {
+	}
+
+	private record Call(String code) implements Node {
+		@Override
+		public int size() {
+			return STATEMENT_SIZE;
+		}
+	}
+
+	private record SplitPoint() implements Node {
+		@Override
+		public String code() {
+			return "";
+		}
+
+		@Override
+		public int size() {
+			return 0;
+		}
+	}
+
+	private record Region(int id, String code, int size) implements Node {
+	}
+
+	/*
+	 * Parses the top level of a body: regions nested in other regions are part of the
+	 * code of the outer region and split points nested in a block of code are ignored.
+	 */
+	private static List<Node> parse(String body) {
+		List<Node> nodes = new ArrayList<>();
+		StringBuilder code = new StringBuilder();
+		StringBuilder region = new StringBuilder();
+		String regionEnd = null;
+		int regionId = -1;
+		int depth = 0;
+		for (String line : lines(body)) {
+			String stripped = line.strip();
+			if (regionEnd != null) {
+				if (stripped.equals(regionEnd)) {
+					String c = region.toString();
+					nodes.add(new Region(regionId, c, estimate(c)));
+					region.setLength(0);
+					regionEnd = null;
+				}
+				else {
+					region.append(line);
+				}
+			}
+			else if (stripped.startsWith(OUTLINE_START)) {
+				addCode(nodes, code);
+				regionId = Integer.parseInt(stripped.substring(OUTLINE_START.length()));
+				regionEnd = OUTLINE_END + regionId;
+			}
+			else if (stripped.equals(SPLIT_POINT)) {
+				if (depth == 0) {
+					addCode(nodes, code);
+					nodes.add(new SplitPoint());
+				}
+			}
+			else {
+				code.append(line);
+				depth += braces(line);
+			}
+		}
+		if (regionEnd != null) {
+			throw new IllegalStateException("Region not closed. bug. id: " + regionId);
+		}
+		addCode(nodes, code);
+		return nodes;
+	}
+
+	private static void addCode(List<Node> nodes, StringBuilder code) {
+		if (code.length() > 0) {
+			String c = code.toString();
+			nodes.add(new Code(c, estimate(c)));
+			code.setLength(0);
+		}
+	}
+
+	private static int size(List<Node> nodes) {
+		int size = 0;
+		for (Node n : nodes) {
+			size += n.size();
+		}
+		return size;
+	}
+
+	private static String render(List<Node> nodes) {
+		StringBuilder sb = new StringBuilder();
+		for (Node n : nodes) {
+			sb.append(n.code());
+		}
+		return sb.toString();
+	}
+
+	/*
+	 * Removes the markers of nested regions and split points that were not used.
+	 */
+	private static String strip(String body) {
+		StringBuilder sb = new StringBuilder(body.length());
+		for (String line : lines(body)) {
+			String stripped = line.strip();
+			if (!stripped.equals(SPLIT_POINT) && !stripped.startsWith(OUTLINE_START)
+					&& !stripped.startsWith(OUTLINE_END)) {
+				sb.append(line);
+			}
+		}
+		return sb.toString();
+	}
+
+	private static List<String> lines(String body) {
+		List<String> lines = new ArrayList<>();
+		int start = 0;
+		int length = body.length();
+		while (start < length) {
+			int end = body.indexOf('\n', start);
+			end = end < 0 ? length : end + 1;
+			lines.add(body.substring(start, end));
+			start = end;
+		}
+		return lines;
+	}
+
+	/**
+	 * Estimates the bytecode size of generated code by counting statements and blocks
+	 * ignoring string literals and comments.
+	 * @param code generated java code.
+	 * @return estimated size in bytes.
+	 */
+	static int estimate(String code) {
+		int[] counts = new int[3];
+		scan(code, counts, null);
+		return counts[0] * STATEMENT_SIZE + counts[1] * BLOCK_SIZE;
+	}
+
+	private static int braces(String code) {
+		int[] counts = new int[3];
+		scan(code, counts, null);
+		return counts[1] - counts[2];
+	}
+
+	/*
+	 * The identifiers used by code which is used to pass only the locals a region uses.
+	 */
+	static Set<String> identifiers(String code) {
+		Set<String> identifiers = new HashSet<>();
+		scan(code, new int[3], identifiers);
+		return identifiers;
+	}
+
+	/*
+	 * Counts statements, opening and closing braces and collects identifiers ignoring
+	 * string literals and comments.
+	 */
+	private static void scan(String code, int[] counts, @Nullable Set<String> identifiers) {
+		int length = code.length();
+		for (int i = 0; i < length; i++) {
+			char c = code.charAt(i);
+			switch (c) {
+				case '"', '\'' -> {
+					i = skipLiteral(code, i, c);
+				}
+				case '/' -> {
+					if (i + 1 < length && code.charAt(i + 1) == '/') {
+						int end = code.indexOf('\n', i);
+						i = end < 0 ? length : end;
+					}
+					else if (i + 1 < length && code.charAt(i + 1) == '*') {
+						int end = code.indexOf("*/", i + 2);
+						i = end < 0 ? length : end + 1;
+					}
+				}
+				case ';' -> counts[0]++;
+				case '{' -> counts[1]++;
+				case '}' -> counts[2]++;
+				default -> {
+					if (Character.isJavaIdentifierStart(c)) {
+						int end = i + 1;
+						while (end < length && Character.isJavaIdentifierPart(code.charAt(end))) {
+							end++;
+						}
+						if (identifiers != null) {
+							identifiers.add(code.substring(i, end));
+						}
+						i = end - 1;
+					}
+				}
+			}
+		}
+	}
+
+	private static int skipLiteral(String code, int start, char quote) {
+		int length = code.length();
+		for (int i = start + 1; i < length; i++) {
+			char c = code.charAt(i);
+			if (c == '\\') {
+				i++;
+			}
+			else if (c == quote) {
+				return i;
+			}
+		}
+		return length;
+	}
+
+}
@@ -5,6 +5,7 @@ import static io.jstach.apt.prism.Prisms.CONTEXT_TEMPLATE_CLASS;
 import static io.jstach.apt.prism.Prisms.ENCODED_TEMPLATE_CLASS;
 import static io.jstach.apt.prism.Prisms.ESCAPER_CLASS;
 import static io.jstach.apt.prism.Prisms.FILTER_CHAIN_CLASS;
+import static io.jstach.apt.prism.Prisms.FORMATTABLE_CLASS;
 import static io.jstach.apt.prism.Prisms.FORMATTER_CLASS;
 import static io.jstach.apt.prism.Prisms.TEMPLATE_CLASS;
 import static io.jstach.apt.prism.Prisms.TEMPLATE_CONFIG_CLASS;
@@ -20,10 +21,14 @@ import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.EnumMap;
 import java.util.EnumSet;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -66,6 +71,17 @@ class TemplateClassWriter implements LoggingSupplier {
 
 	private final FormatCallType formatCallType;
 
+	/*
+	 * Whether any of the compiled render methods wait on a future.
+	 */
+	private boolean awaitUsed;
+
+	/*
+	 * The parameter types of the static format methods called by the compiled render
+	 * methods.
+	 */
+	private final Set<String> formatOverloads = new HashSet<>();
+
 	final String idt = "\n        ";
 
 	final String _F_Escaper = Function.class.getName() + "<String, String>";
@@ -306,6 +322,26 @@ class TemplateClassWriter implements LoggingSupplier {
 		println("     */");
 		println("    public static final Class<?> MODEL_CLASS = " + className + ".class;");
 		println("");
+		if (jstachio) {
+			String formatterProvideCall = formatterTypeElement.orElseThrow().getQualifiedName() + "."
+					+ formatterPrism.orElseThrow().providesMethod() + "()";
+			String contentTypeProvideCall = contentTypeElement.orElseThrow().getQualifiedName() + "."
+					+ contentTypePrism.orElseThrow().providesMethod() + "()";
+			println("    /**");
+			println("     * Formatter resolved from config at compile time.");
+			println("     * @hidden");
+			println("     */");
+			println("    private static final " + _Formatter + " STATIC_FORMATTER = " + _Formatter + ".of("
+					+ formatterProvideCall + ");");
+			println("");
+			println("    /**");
+			println("     * Escaper resolved from config at compile time.");
+			println("     * @hidden");
+			println("     */");
+			println("    private static final " + _Escaper + " STATIC_ESCAPER = " + _Escaper + ".of("
+					+ contentTypeProvideCall + ");");
+			println("");
+		}
 		println("    /**");
 		println("     * The instance. Use {@link {@link #of()} instead.");
 		println("     * @hidden");
@@ -339,11 +375,8 @@ class TemplateClassWriter implements LoggingSupplier {
 		println("    }");
 		println("");
 		if (jstachio) {
-			String formatterProvideCall = formatterTypeElement.orElseThrow().getQualifiedName() + "."
-					+ formatterPrism.orElseThrow().providesMethod() + "()";
 			println("    private static " + _Formatter + " __formatter(" + nullable_F_Formatter + " formatter) {");
-			println("        return " + _Formatter + ".of(formatter != null ? formatter : " + formatterProvideCall
-					+ ");");
+			println("        return formatter != null ? " + _Formatter + ".of(formatter) : STATIC_FORMATTER;");
 			println("    }");
 		}
 		else {
@@ -353,10 +386,8 @@ class TemplateClassWriter implements LoggingSupplier {
 		}
 		println("");
 		if (jstachio) {
-			String contentTypeProvideCall = contentTypeElement.orElseThrow().getQualifiedName() + "."
-					+ contentTypePrism.orElseThrow().providesMethod() + "()";
 			println("    private static " + _Escaper + " __escaper(" + nullable_F_Escaper + " escaper) {");
-			println("        return " + _Escaper + ".of(escaper != null ? escaper : " + contentTypeProvideCall + ");");
+			println("        return escaper != null ? " + _Escaper + ".of(escaper) : STATIC_ESCAPER;");
 			println("    }");
 		}
 		else {
@@ -684,13 +715,98 @@ class TemplateClassWriter implements LoggingSupplier {
 		println("    }");
 		println("");
 		writeExtendsConstructors(extendsElement, rendererClassSimpleName);
+		codeWriter.setStaticFormat(jstachio);
 		writeRendererDefinitionMethod(model);
 		if (preEncode) {
 			writeRendererDefinitionMethodStream(model);
 		}
+		if (jstachio) {
+			writeStaticFormatMethods(nullable);
+		}
+		if (awaitUsed) {
+			writeAwaitMethod();
+		}
 		println("}");
 	}
 
+	/*
+	 * Waits on futures that are not CompletionStages in the same way as
+	 * CompletableFuture.join so that generated code does not need to handle checked
+	 * exceptions. The generated renderer does not depend on jstachio for this so that it
+	 * works with JStacheType.STACHE.
+	 */
+	private void writeAwaitMethod() {
+		String _Future = Future.class.getName();
+		println("    private static <T> T " + VariableContext.AWAIT_METHOD + "(" + _Future + "<T> future) {");
+		println("        boolean interrupted = false;");
+		println("        try {");
+		println("            while (true) {");
+		println("                try {");
+		println("                    return future.get();");
+		println("                }");
+		println("                catch (InterruptedException e) {");
+		println("                    interrupted = true;");
+		println("                }");
+		println("            }");
+		println("        }");
+		println("        catch (" + ExecutionException.class.getName() + " e) {");
+		println("            throw new " + CompletionException.class.getName() + "(e.getCause());");
+		println("        }");
+		println("        finally {");
+		println("            if (interrupted) {");
+		println("                Thread.currentThread().interrupt();");
+		println("            }");
+		println("        }");
+		println("    }");
+		println("");
+	}
+
+	/*
+	 * The formatter and escaper are almost always the ones resolved at compile time. The
+	 * generated code calls these methods instead of the formatter so that in that case
+	 * the calls are on constants which the JIT can bind statically and inline instead of
+	 * going through the interfaces which are megamorphic when many formatters and
+	 * escapers are in use. Formatters and escapers passed in by config still work. Only
+	 * the overloads called by the render methods are written.
+	 */
+	private void writeStaticFormatMethods(String nullable) {
+		String _A = "<A extends " + _Output + "<E>, E extends Exception>";
+		String[][] overloads = { //
+				{ "Object", "Class<?> c, " + nullable + "Object o", "c, o" }, //
+				{ "char", "char c", "c" }, //
+				{ "short", "short s", "s" }, //
+				{ "int", "int i", "i" }, //
+				{ "long", "long l", "l" }, //
+				{ "double", "double d", "d" }, //
+				{ "boolean", "boolean b", "b" }, //
+				{ "String", nullMarkClassRef(String.class.getName(), nullable) + " s", "s" }, //
+				{ "Formattable", nullMarkClassRef(FORMATTABLE_CLASS, nullable) + " f", "f" } };
+		for (String[] overload : overloads) {
+			if (!formatOverloads.contains(overload[0])) {
+				continue;
+			}
+			String parameters = overload[1];
+			String arguments = overload[2];
+			println("    private static " + _A + " void __format(" //
+					+ idt + FORMATTER_CLASS + " formatter, " //
+					+ idt + APPENDER_CLASS + " downstream, " //
+					+ idt + "A a, " //
+					+ idt + "String path, " //
+					+ idt + parameters + ") throws E {");
+			println("        if (formatter != STATIC_FORMATTER) {");
+			println("            formatter.format(downstream, a, path, " + arguments + ");");
+			println("        }");
+			println("        else if (downstream == STATIC_ESCAPER) {");
+			println("            STATIC_FORMATTER.format(STATIC_ESCAPER, a, path, " + arguments + ");");
+			println("        }");
+			println("        else {");
+			println("            STATIC_FORMATTER.format(downstream, a, path, " + arguments + ");");
+			println("        }");
+			println("    }");
+			println("");
+		}
+	}
+
 	private void writeExtendsConstructors(@Nullable TypeElement extendsElement, String rendererClassSimpleName) {
 		if (extendsElement == null) {
 			return;
@@ -791,24 +907,64 @@ class TemplateClassWriter implements LoggingSupplier {
 		var element = model.element();
 		NullChecking nullChecking = nullChecking(model);
 
-		VariableContext variables = VariableContext.createDefaultContext(nullChecking);
+		VariableContext variables = VariableContext.createDefaultContext(nullChecking,
+				model.flags().contains(Flag.HOIST_ACCESSORS));
 		String dataName = variables.introduceNewNameLike("data");
 		String className = element.getQualifiedName().toString();
 
+		SplitMethod method;
 		if (jstachio) {
-			jstachioRenderMethodHead(variables, dataName, className, model);
+			method = jstachioRenderMethodHead(variables, dataName, className, model);
 		}
 		else {
-			stacheRenderMethodHead(variables, dataName, className, model);
+			method = stacheRenderMethodHead(variables, dataName, className, model);
 		}
 		TemplateCompilerContext context = codeWriter.createTemplateContext(model.namedTemplate(), element, dataName,
 				variables, model.flags());
-		codeWriter.compileTemplate(templateLoader, context);
+		writeMethodBody(method, context);
+		if (jstachio) {
+			jstachioRenderMethodWrapper(variables, dataName, className, model);
+		}
+	}
+
+	/*
+	 * The parts of a render method signature needed to split the method body into
+	 * multiple private methods with the same parameters plus the locals of outlined
+	 * sections.
+	 */
+	private record SplitMethod(String name, String typeParameters, String parameters, String arguments,
+			String exception) {
+	}
+
+	private void writeMethodBody(SplitMethod method, TemplateCompilerContext context)
+			throws IOException, ProcessingException {
+		var body = new CodeAppendable.StringCodeAppendable();
+		codeWriter.compileTemplate(templateLoader, context, body);
+		awaitUsed |= context.isAwaitUsed();
+		formatOverloads.addAll(context.formatOverloads());
+		String code = context.resolveHoisted(body.toString());
+		List<MethodSplitter.Method> methods = MethodSplitter.split(method.name(), method.arguments(),
+				context::outlineLocals, code, MethodSplitter.DEFAULT_BUDGET);
+		codeWriter.print(methods.get(0).body());
 		println("");
 		println("    }");
+		if (methods.size() > 1 && isDebug()) {
+			debug("Splitting " + method.name() + " into " + methods.size() + " methods");
+		}
+		for (var m : methods.subList(1, methods.size())) {
+			StringBuilder parameters = new StringBuilder(method.parameters());
+			m.locals()
+					.forEach((name, type) -> parameters.append(",").append(idt).append(type).append(" ").append(name));
+			println("");
+			println("    private static " + method.typeParameters() + " void " + m.name() + "(" //
+					+ parameters + ") throws " + method.exception() + " {");
+			codeWriter.print(m.body());
+			println("");
+			println("    }");
+		}
 	}
 
-	private void stacheRenderMethodHead(VariableContext variables, String dataName, String className,
+	private SplitMethod stacheRenderMethodHead(VariableContext variables, String dataName, String className,
 			RendererModel model) {
 		String nullable = model.nullableAnnotation() + " ";
 		final String _F_Formatter = Function.class.getName() + "<" + nullable + "Object, String>";
@@ -822,14 +978,19 @@ class TemplateClassWriter implements LoggingSupplier {
 		println("     * @param " + variables.escaper() + " used to write escaped variables.");
 		println("     * @throws java.io.IOException if an error occurs while writing to the appendable");
 		println("     */");
-		println("    public static  void render(" //
-				+ idt + className + " " + dataName + ", " //
+		String parameters = idt + className + " " + dataName + ", " //
 				+ idt + _Appendable + " " + variables.unescapedWriter() + "," //
 				+ idt + _Formatter + " " + variables.formatter() + "," //
-				+ idt + _Escaper + " " + variables.escaper() + ") throws java.io.IOException {");
+				+ idt + _Escaper + " " + variables.escaper();
+		println("    public static  void render(" + parameters + ") throws java.io.IOException {");
+		String arguments = dataName + ", " //
+				+ variables.unescapedWriter() + ", " //
+				+ variables.formatter() + ", " //
+				+ variables.escaper();
+		return new SplitMethod("__render", "", parameters, arguments, "java.io.IOException");
 	}
 
-	private void jstachioRenderMethodHead(VariableContext variables, String dataName, String className,
+	private SplitMethod jstachioRenderMethodHead(VariableContext variables, String dataName, String className,
 			RendererModel model) {
 		String _Appender = APPENDER_CLASS;
 		String _Escaper = _Appender;
@@ -841,50 +1002,73 @@ class TemplateClassWriter implements LoggingSupplier {
 		println("     * Renders the passed in model.");
 		println("     * @param <A> appendable type.");
 		println("     * @param <E> error type.");
+		println("     * @param " + variables.template() + " instance of template.");
 		println("     * @param " + dataName + " model");
+		println("     * @param " + variables.context() + " context");
 		println("     * @param " + variables.unescapedWriter() + " appendable to write to.");
 		println("     * @param " + variables.formatter() + " formats variables before they are passed to the escaper.");
 		println("     * @param " + variables.escaper() + " used to write escaped variables.");
 		println("     * @param " + variables.appender() + " used to write unescaped variables.");
 		println("     * @throws E if an error occurs while writing to the appendable");
 		println("     */");
-		println("    public static " + _A + " void render(" //
+		String parameters = idt + _Template + " " + variables.template() + ", " //
 				+ idt + className + " " + dataName + ", " //
+				+ idt + _ContextNode + " " + variables.context() + ", " //
 				+ idt + "A" + " " + variables.unescapedWriter() + "," //
 				+ idt + _Formatter + " " + variables.formatter() + "," //
 				+ idt + _Escaper + " " + variables.escaper() + "," //
-				+ idt + _Appender + " " + variables.appender() + ") throws E {");
-		println("        render(" //
-				+ "of(), " //
-				+ dataName + ", " //
-				+ renderContextNode(variables, dataName, model) + ", " //
-				+ variables.unescapedWriter() + ", " //
-				+ variables.formatter() + ", " //
-				+ variables.escaper() + ", " //
-				+ variables.appender() + ");");
-		println("    }");
+				+ idt + _Appender + " " + variables.appender();
+		println("    protected static " + _A + " void render(" + parameters + ") throws E {");
+		return new SplitMethod("__render", _A, parameters, splitArguments(variables, dataName), "E");
+	}
+
+	/*
+	 * Written after the render method body has been compiled as only then is it known if
+	 * the template uses the context node.
+	 */
+	private void jstachioRenderMethodWrapper(VariableContext variables, String dataName, String className,
+			RendererModel model) {
+		String _Appender = APPENDER_CLASS;
+		String _Escaper = _Appender;
+		String _Formatter = FORMATTER_CLASS;
+		String _A = "<A extends " + _Output + "<E>, E extends Exception>";
 		println("");
 		println("    /**");
 		println("     * Renders the passed in model.");
 		println("     * @param <A> appendable type.");
 		println("     * @param <E> error type.");
-		println("     * @param " + variables.template() + " instance of template.");
 		println("     * @param " + dataName + " model");
-		println("     * @param " + variables.context() + " context");
 		println("     * @param " + variables.unescapedWriter() + " appendable to write to.");
 		println("     * @param " + variables.formatter() + " formats variables before they are passed to the escaper.");
 		println("     * @param " + variables.escaper() + " used to write escaped variables.");
 		println("     * @param " + variables.appender() + " used to write unescaped variables.");
 		println("     * @throws E if an error occurs while writing to the appendable");
 		println("     */");
-		println("    protected static " + _A + " void render(" //
-				+ idt + _Template + " " + variables.template() + ", " //
+		println("    public static " + _A + " void render(" //
 				+ idt + className + " " + dataName + ", " //
-				+ idt + _ContextNode + " " + variables.context() + ", " //
 				+ idt + "A" + " " + variables.unescapedWriter() + "," //
 				+ idt + _Formatter + " " + variables.formatter() + "," //
 				+ idt + _Escaper + " " + variables.escaper() + "," //
 				+ idt + _Appender + " " + variables.appender() + ") throws E {");
+		println("        render(" //
+				+ "of(), " //
+				+ dataName + ", " //
+				+ renderContextNode(variables, dataName, model) + ", " //
+				+ variables.unescapedWriter() + ", " //
+				+ variables.formatter() + ", " //
+				+ variables.escaper() + ", " //
+				+ variables.appender() + ");");
+		println("    }");
+	}
+
+	private static String splitArguments(VariableContext variables, String dataName) {
+		return variables.template() + ", " //
+				+ dataName + ", " //
+				+ variables.context() + ", " //
+				+ variables.unescapedWriter() + ", " //
+				+ variables.formatter() + ", " //
+				+ variables.escaper() + ", " //
+				+ variables.appender();
 	}
 
 	private NullChecking nullChecking(RendererModel model) {
@@ -908,7 +1092,9 @@ class TemplateClassWriter implements LoggingSupplier {
 		var element = model.element();
 		NullChecking nullChecking = nullChecking(model);
 
-		VariableContext variables = VariableContext.createDefaultContext(nullChecking);
+		VariableContext variables = VariableContext.createDefaultContext(nullChecking,
+				model.flags().contains(Flag.HOIST_ACCESSORS),
+				model.flags().contains(Flag.PACK_TEXT) ? model.charset() : null);
 		String dataName = variables.introduceNewNameLike("data");
 		String className = element.getQualifiedName().toString();
 		String _Appender = APPENDER_CLASS;
@@ -923,36 +1109,38 @@ class TemplateClassWriter implements LoggingSupplier {
 		println("     * Renders to an OutputStream use pre-encoded parts of the template.");
 		println("     * @param <A> output type.");
 		println("     * @param <E> error type.");
+		println("     * @param " + variables.template() + " instance of template.");
 		println("     * @param " + dataName + " model");
+		println("     * @param " + variables.context() + " context");
 		println("     * @param " + variables.unescapedWriter() + " stream to write to.");
 		println("     * @param " + variables.formatter() + " formats variables before they are passed to the escaper.");
 		println("     * @param " + variables.escaper() + " used to write escaped variables.");
 		println("     * @param " + variables.appender() + " used to write unescaped variables.");
 		println("     * @throws E if an error occurs while writing to the appendable");
 		println("     */");
-		println("    protected static " + _OutputStream + " void encode(" //
+		String parameters = idt + _Template + " " + variables.template() + ", " //
 				+ idt + className + " " + dataName + ", " //
+				+ idt + _ContextNode + " " + variables.context() + ", " //
 				+ idt + "A" + " " + variables.unescapedWriter() + "," //
 				+ idt + _Formatter + " " + variables.formatter() + "," //
 				+ idt + _Escaper + " " + variables.escaper() + "," //
-				+ idt + _Appender + " " + variables.appender() + ") throws E {");
-		println("        encode(" //
-				+ "of(), " //
-				+ dataName + ", " //
-				+ renderContextNode(variables, dataName, model) + ", " //
-				+ variables.unescapedWriter() + ", " //
-				+ variables.formatter() + ", " //
-				+ variables.escaper() + ", " //
-				+ variables.appender() + ");");
-		println("    }");
+				+ idt + _Appender + " " + variables.appender();
+		println("    protected static " + _OutputStream + " void encode(" + parameters + ") throws E {");
+
+		TemplateCompilerContext context = codeWriter.createTemplateContext(model.namedTemplate(), element, dataName,
+				variables, model.flags());
+		writeMethodBody(
+				new SplitMethod("__encode", _OutputStream, parameters, splitArguments(variables, dataName), "E"),
+				context);
+		/*
+		 * Like render the wrapper is written after the body.
+		 */
 		println("");
 		println("    /**");
 		println("     * Renders to an OutputStream use pre-encoded parts of the template.");
 		println("     * @param <A> output type.");
 		println("     * @param <E> error type.");
-		println("     * @param " + variables.template() + " instance of template.");
 		println("     * @param " + dataName + " model");
-		println("     * @param " + variables.context() + " context");
 		println("     * @param " + variables.unescapedWriter() + " stream to write to.");
 		println("     * @param " + variables.formatter() + " formats variables before they are passed to the escaper.");
 		println("     * @param " + variables.escaper() + " used to write escaped variables.");
@@ -960,19 +1148,24 @@ class TemplateClassWriter implements LoggingSupplier {
 		println("     * @throws E if an error occurs while writing to the appendable");
 		println("     */");
 		println("    protected static " + _OutputStream + " void encode(" //
-				+ idt + _Template + " " + variables.template() + ", " //
 				+ idt + className + " " + dataName + ", " //
-				+ idt + _ContextNode + " " + variables.context() + ", " //
 				+ idt + "A" + " " + variables.unescapedWriter() + "," //
 				+ idt + _Formatter + " " + variables.formatter() + "," //
 				+ idt + _Escaper + " " + variables.escaper() + "," //
 				+ idt + _Appender + " " + variables.appender() + ") throws E {");
-
-		TemplateCompilerContext context = codeWriter.createTemplateContext(model.namedTemplate(), element, dataName,
-				variables, model.flags());
-		codeWriter.compileTemplate(templateLoader, context);
-		println("");
+		println("        encode(" //
+				+ "of(), " //
+				+ dataName + ", " //
+				+ renderContextNode(variables, dataName, model) + ", " //
+				+ variables.unescapedWriter() + ", " //
+				+ variables.formatter() + ", " //
+				+ variables.escaper() + ", " //
+				+ variables.appender() + ");");
 		println("    }");
+		for (var entry : variables.packedTextVariables()) {
+			println("    private static final byte[] " + entry.getKey() + " = (" + entry.getValue()
+					+ ").getBytes(TEMPLATE_CHARSET);");
+		}
 		var textVariables = variables.textVariables();
 		for (var entry : textVariables) {
 			println("    private static final byte[] " + entry.getKey() + " = (" + entry.getValue()
@@ -984,7 +1177,10 @@ class TemplateClassWriter implements LoggingSupplier {
 	}
 
 	private static String renderContextNode(VariableContext variables, String dataName, RendererModel model) {
-		boolean enabled = !model.flags().contains(Flag.CONTEXT_SUPPORT_DISABLE);
+		/*
+		 * If the template does not use @context we do not bother resolving it.
+		 */
+		boolean enabled = !model.flags().contains(Flag.CONTEXT_SUPPORT_DISABLE) && variables.isContextUsed();
 		return renderContextNode(variables, dataName, enabled);
 	}
 
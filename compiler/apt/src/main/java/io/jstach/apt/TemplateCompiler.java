@@ -104,6 +104,11 @@ abstract class TemplateCompiler extends AbstractTemplateCompiler {
 
 	private @Nullable ParameterPartial _partial;
 
+	/*
+	 * Region ids of the open sections and blocks (see printOutlineStart).
+	 */
+	private final Deque<Integer> outlines = new ArrayDeque<>();
+
 	protected TemplateCompiler(NamedReader reader, TemplateCompilerContext context) {
 		this.reader = reader;
 		this.context = context;
@@ -223,6 +228,7 @@ abstract class TemplateCompiler extends AbstractTemplateCompiler {
 
 	void startParentSection(PositionedToken<MustacheToken> token) throws ProcessingException {
 		flushUnescaped();
+		printSplitPoint();
 		if (!(token.innerToken() instanceof TagToken tt)) {
 			throw new IllegalStateException("bug");
 		}
@@ -257,6 +263,7 @@ abstract class TemplateCompiler extends AbstractTemplateCompiler {
 		boolean done = processor.process(token).isDone();
 		afterProcessToken(token);
 		if (done) {
+			int outline = printOutlineStart();
 			try (p) {
 				debug("start parameter partial: ", p.getTemplateName());
 				p.run();
@@ -265,6 +272,7 @@ abstract class TemplateCompiler extends AbstractTemplateCompiler {
 			catch (IOException e) {
 				throw new ProcessingException(this.position, e);
 			}
+			printOutlineEnd(outline);
 			debug("end content: ", p.getProcessor().getEndContent());
 			popPartial();
 			println();
@@ -384,6 +392,61 @@ abstract class TemplateCompiler extends AbstractTemplateCompiler {
 		currentWriter().println();
 	}
 
+	/*
+	 * Marks where the generated method can be split into multiple methods (see
+	 * MethodSplitter). The splitter only uses the split points that are not nested in a
+	 * block of code of the method (or of a region moved to its own method) as then the
+	 * only variables in scope are the parameters of the method.
+	 */
+	private void printSplitPoint() {
+		if (!isOutlining()) {
+			return;
+		}
+		println();
+		print(MethodSplitter.SPLIT_POINT);
+		println();
+	}
+
+	/*
+	 * Marks the start of the body of a section, block or partial which can be moved to
+	 * its own method with the local variables of the enclosing sections as parameters.
+	 */
+	private int printOutlineStart() {
+		if (!isOutlining()) {
+			return -1;
+		}
+		int id = context.newOutline();
+		println();
+		print(MethodSplitter.OUTLINE_START + id);
+		println();
+		return id;
+	}
+
+	private void printOutlineEnd(int id) {
+		if (id < 0) {
+			return;
+		}
+		println();
+		print(MethodSplitter.OUTLINE_END + id);
+		println();
+	}
+
+	/*
+	 * Lambda templates are compiled to the body of a java lambda which cannot be split.
+	 */
+	@SuppressWarnings("resource")
+	private boolean isOutlining() {
+		@Nullable
+		TemplateCompilerLike c = this;
+		while (c != null) {
+			if (c.getCompilerType() == TemplateCompilerType.LAMBDA) {
+				return false;
+			}
+			c = c.getCaller();
+		}
+		return true;
+	}
+
 	private void printBeginSectionComment() {
 		println();
 		print("// start " + context.getType() + ". name: " + context.currentEnclosedContextName() + ", template: "
@@ -401,6 +464,7 @@ abstract class TemplateCompiler extends AbstractTemplateCompiler {
 	@Override
 	protected void _beginSection(String name) throws ProcessingException {
 		flushUnescaped();
+		printSplitPoint();
 		var contextType = ContextType.SECTION;
 		try {
 			pushContext(name, contextType);
@@ -414,6 +478,9 @@ abstract class TemplateCompiler extends AbstractTemplateCompiler {
 			if (context.getType() == ContextType.LAMBDA) {
 				_beginLambdaSection(name);
 			}
+			else {
+				outlines.push(printOutlineStart());
+			}
 
 		}
 		catch (ContextException ex) {
@@ -507,6 +574,7 @@ abstract class TemplateCompiler extends AbstractTemplateCompiler {
 	@Override
 	protected void _beginInvertedSection(String name) throws ProcessingException {
 		flushUnescaped();
+		printSplitPoint();
 		var contextType = ContextType.INVERTED;
 		try {
 			pushContext(name, contextType);
@@ -514,6 +582,7 @@ abstract class TemplateCompiler extends AbstractTemplateCompiler {
 			print(context.beginSectionRenderingCode());
 			println();
 			depth++;
+			outlines.push(printOutlineStart());
 		}
 		catch (ContextException ex) {
 			throw new ProcessingException(position, ex);
@@ -528,12 +597,14 @@ abstract class TemplateCompiler extends AbstractTemplateCompiler {
 	@Override
 	protected void _beginBlockSection(String name) throws ProcessingException {
 		flushUnescaped();
+		printSplitPoint();
 		var contextType = ContextType.BLOCK;
 		try {
 			pushContext(name, contextType);
 			printBeginSectionComment();
 			// We do not increase the printing depth for blocks
 			// depth++;
+			outlines.push(printOutlineStart());
 		}
 		catch (ContextException e) {
 			throw new ProcessingException(position, e);
@@ -561,6 +632,7 @@ abstract class TemplateCompiler extends AbstractTemplateCompiler {
 			}
 			case BLOCK -> {
 				flushUnescaped();
+				printOutlineEnd(outlines.pop());
 				_endBlockSection(name);
 			}
 			case PATH, ESCAPED_VAR, UNESCAPED_VAR, SECTION_VAR, PARTIAL -> {
@@ -568,6 +640,7 @@ abstract class TemplateCompiler extends AbstractTemplateCompiler {
 			}
 			case ROOT, SECTION, INVERTED -> {
 				flushUnescaped();
+				printOutlineEnd(outlines.pop());
 				depth--;
 			}
 		}
@@ -593,7 +666,11 @@ abstract class TemplateCompiler extends AbstractTemplateCompiler {
 	protected void _variable(String name) throws ProcessingException.VariableProcessingException {
 		indent();
 		flushUnescaped();
+		printSplitPoint();
 		println();
+		if (printFlush(name)) {
+			return;
+		}
 		try {
 			// TODO figure out indenting variables
 			TemplateCompilerContext variable = context.getChild(name, ContextType.ESCAPED_VAR);
@@ -621,6 +698,7 @@ abstract class TemplateCompiler extends AbstractTemplateCompiler {
 	@Override
 	protected void _partial(String name) throws ProcessingException {
 		flushUnescaped();
+		printSplitPoint();
 		println();
 		var contextType = ContextType.PARTIAL;
 		try {
@@ -632,9 +710,11 @@ abstract class TemplateCompiler extends AbstractTemplateCompiler {
 			if (pp != null) {
 				throw new IllegalStateException("bug. parent (parameter partial) is already started for this context");
 			}
+			int outline = printOutlineStart();
 			try (var p = createPartial(name)) {
 				p.run();
 			}
+			printOutlineEnd(outline);
 
 		}
 		catch (ContextException | IOException ex) {
@@ -649,7 +729,11 @@ abstract class TemplateCompiler extends AbstractTemplateCompiler {
 	protected void _unescapedVariable(String name) throws ProcessingException {
 		indent();
 		flushUnescaped();
+		printSplitPoint();
 		println();
+		if (printFlush(name)) {
+			return;
+		}
 		try {
 			TemplateCompilerContext variable = context.getChild(name, ContextType.UNESCAPED_VAR);
 			print("// unescaped variable: " + variable.currentEnclosedContextName());
@@ -663,6 +747,20 @@ abstract class TemplateCompiler extends AbstractTemplateCompiler {
 		}
 	}
 
+	/*
+	 * The flush virtual variable outputs nothing but flushes the output.
+	 */
+	private boolean printFlush(String name) {
+		if (!Prisms.JSTACHE_FLUSH_BINDING_NAME.equals(name)) {
+			return false;
+		}
+		print("// flush");
+		println();
+		print(context.renderFlushCode());
+		println();
+		return true;
+	}
+
 	private void indent() {
 		if (atStartOfLine) {
 			printCodeToWrite(indent);
@@ -36,25 +36,39 @@ import io.jstach.apt.internal.context.RenderingContext.ChildRenderingContext;
 /**
  * @author Victor Nazarov
  */
-class ArrayRenderingContext implements ChildRenderingContext {
+class ArrayRenderingContext implements ChildRenderingContext, HoistedExpressions.Loop {
 
 	private final JavaExpression arrayExpression;
 
+	private final String elementVariableName;
+
 	private final String indexVariableName;
 
+	private final int hoistLoop;
+
 	private final RenderingContext parent;
 
-	public ArrayRenderingContext(JavaExpression arrayExpression, String indexVariableName, RenderingContext parent) {
+	/*
+	 * The array expression should already be bound to a local variable as it is used
+	 * multiple times.
+	 */
+	public ArrayRenderingContext(JavaExpression arrayExpression, String elementVariableName, String indexVariableName,
+			int hoistLoop, RenderingContext parent) {
 		this.arrayExpression = arrayExpression;
+		this.elementVariableName = elementVariableName;
 		this.indexVariableName = indexVariableName;
+		this.hoistLoop = hoistLoop;
 		this.parent = parent;
 	}
 
 	@Override
 	public String beginSectionRenderingCode() {
-		return parent.beginSectionRenderingCode()
-				+ String.format("for (int %s = 0; %s < %s; %s++) { ", indexVariableName, indexExpression().text(),
-						arrayExpression.arrayLength().text(), indexExpression().text());
+		String lengthVariableName = elementVariableName + "Length";
+		String marker = hoistLoop >= 0 ? HoistedExpressions.marker(hoistLoop) : "";
+		return parent.beginSectionRenderingCode() + marker
+				+ String.format("for (int %s = 0, %s = %s; %s < %s; %s++) { var %s = %s; ", indexVariableName,
+						lengthVariableName, arrayExpression.arrayLength().text(), indexVariableName, lengthVariableName,
+						indexVariableName, elementVariableName, arrayExpression.subscript(indexExpression()).text());
 	}
 
 	@Override
@@ -63,7 +77,7 @@ class ArrayRenderingContext implements ChildRenderingContext {
 	}
 
 	JavaExpression componentExpession() {
-		return arrayExpression.subscript(indexExpression());
+		return arrayExpression.subscript(indexExpression()).local(elementVariableName);
 	}
 
 	@Override
@@ -85,6 +99,21 @@ class ArrayRenderingContext implements ChildRenderingContext {
 		return arrayExpression.model().expression(indexVariableName, arrayExpression.model().knownTypes()._int);
 	}
 
+	@Override
+	public boolean addLocals(LocalVariables locals) {
+		if (!locals.add(elementVariableName, componentExpession().type())) {
+			return false;
+		}
+		locals.add(indexVariableName, "int");
+		locals.add(elementVariableName + "Length", "int");
+		return true;
+	}
+
+	@Override
+	public int hoistLoop() {
+		return hoistLoop;
+	}
+
 	@Override
 	public RenderingContext getParent() {
 		return parent;
@@ -0,0 +1,161 @@
+package io.jstach.apt.internal.context;
+
+import java.text.MessageFormat;
+import java.util.function.Predicate;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+import io.jstach.apt.internal.context.RenderingContext.ChildRenderingContext;
+import io.jstach.apt.prism.Prisms;
+
+/**
+ * Caches the output of a section of a method annotated with <code>JStacheCached</code>.
+ * The value of the section is bound to a local that is part of the cache key. On a hit
+ * the cached output is written with a single write otherwise the section is rendered to a
+ * buffer which is then cached and written.
+ * <p>
+ * Because the output is shared by every model with an equal value the body of the section
+ * may only use the value. Names that are not found in the value are not looked up in the
+ * enclosing contexts and fail compilation instead which also prevents
+ * <code>@context</code>, <code>@root</code> and lambdas from being used in the section.
+ *
+ * @author agentgt
+ */
+class CachedRenderingContext implements ChildRenderingContext {
+
+	private final JavaExpression expression;
+
+	private final String name;
+
+	private final JavaExpression local;
+
+	private final String keyName;
+
+	private final String fragmentName;
+
+	private final String bufferName;
+
+	private final String writer;
+
+	private final String fragmentId;
+
+	private final long ttlSeconds;
+
+	private final boolean encoded;
+
+	private final String formatter;
+
+	private final String escaper;
+
+	private final VariableContext variables;
+
+	private final RenderingContext parent;
+
+	CachedRenderingContext(JavaExpression expression, String name, String fragmentId, long ttlSeconds, boolean encoded,
+			VariableContext outer, RenderingContext parent) {
+		this.expression = expression;
+		this.name = name;
+		this.fragmentId = fragmentId;
+		this.ttlSeconds = ttlSeconds;
+		this.encoded = encoded;
+		this.writer = outer.unescapedWriter();
+		this.formatter = outer.formatter();
+		this.escaper = outer.escaper();
+		this.parent = parent;
+		VariableContext variables = parent.createEnclosedVariableContext();
+		this.local = expression.local(variables.introduceNewNameLike("cachedValue"));
+		this.keyName = variables.introduceNewNameLike("cachedKey");
+		this.fragmentName = variables.introduceNewNameLike("cachedFragment");
+		this.bufferName = variables.introduceNewNameLike("cachedWriter");
+		this.variables = variables;
+	}
+
+	/**
+	 * The section value bound to a local.
+	 * @return local variable expression.
+	 */
+	JavaExpression local() {
+		return local;
+	}
+
+	/**
+	 * The buffer the section is rendered to on a cache miss.
+	 * @return variable name of the buffer.
+	 */
+	String bufferName() {
+		return bufferName;
+	}
+
+	@Override
+	public String beginSectionRenderingCode() {
+		String cache = Prisms.FRAGMENT_CACHE_CLASS + ".of()";
+		String charset = encoded ? writer + ".charset()" : "null";
+		String fragmentType = encoded ? "byte[]" : "String";
+		String get = encoded ? ".getBytes(" : ".getString(";
+		String hit = encoded ? ".write(" : ".append(";
+		String buffer = encoded ? ".bytesOutput(" : ".stringOutput(";
+		return parent.beginSectionRenderingCode() //
+				+ "{ var " + local.text() + " = " + expression.text() + "; " //
+				+ "var " + keyName + " = new " + Prisms.FRAGMENT_CACHE_CLASS + ".Key(\"" + fragmentId + "\", "
+				+ local.text() + ", " + formatter + ", " + escaper + ", " + charset + "); " //
+				+ fragmentType + " " + fragmentName + " = " + cache + get + keyName + "); " //
+				+ "if (" + fragmentName + " != null) { " + writer + hit + fragmentName + "); } " //
+				+ "else { var " + bufferName + " = " + cache + buffer + keyName + "); ";
+	}
+
+	@Override
+	public String endSectionRenderingCode() {
+		String cache = Prisms.FRAGMENT_CACHE_CLASS + ".of()";
+		String put = encoded ? ".putBytes(" : ".putString(";
+		String hit = encoded ? ".write(" : ".append(";
+		return " " + writer + hit + cache + put + keyName + ", " + bufferName + ", " + ttlSeconds + "L)); } }"
+				+ parent.endSectionRenderingCode();
+	}
+
+	@Override
+	public @Nullable JavaExpression get(String name) throws ContextException {
+		return null;
+	}
+
+	@Override
+	public @Nullable JavaExpression find(String name, Predicate<RenderingContext> filter) throws ContextException {
+		throw new ContextException(
+				MessageFormat.format("''{0}'' cannot be used in the section of ''{1}'' as it is not part of its value. "
+						+ "The section is annotated with JStacheCached and its output is shared by every model "
+						+ "with an equal value so it may only use the value. "
+						+ "@context, @root and lambdas cannot be used either.", name, this.name));
+	}
+
+	@Override
+	public JavaExpression currentExpression() {
+		return local;
+	}
+
+	@Override
+	public VariableContext createEnclosedVariableContext() {
+		return variables.createEnclosedContext();
+	}
+
+	@Override
+	public boolean addLocals(LocalVariables locals) {
+		if (!locals.add(local.text(), expression.type())) {
+			return false;
+		}
+		locals.add(keyName, Prisms.FRAGMENT_CACHE_CLASS + ".Key");
+		locals.add(fragmentName, encoded ? "byte[]" : "String");
+		locals.add(bufferName,
+				encoded ? "io.jstach.jstachio.output.ByteBufferedOutputStream" : Prisms.OUTPUT_CLASS + ".StringOutput");
+		return true;
+	}
+
+	@Override
+	public RenderingContext getParent() {
+		return parent;
+	}
+
+	@Override
+	public String description() {
+		return getClass().getSimpleName() + "[expression=" + expression + ", fragment=" + fragmentId + "]";
+	}
+
+}
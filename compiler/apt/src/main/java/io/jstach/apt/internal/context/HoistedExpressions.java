@@ -0,0 +1,136 @@
+package io.jstach.apt.internal.context;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.lang.model.type.TypeMirror;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Collects expressions that do not change while a loop (list or array section) runs so
+ * that they can be declared as local variables before the loop.
+ * <p>
+ * Loops are generated before their body is compiled, so a loop only prints a
+ * {@linkplain #marker(int) marker} where the declarations go. The markers are replaced
+ * with the collected declarations once the entire method body has been generated.
+ *
+ * @author agentgt
+ */
+final class HoistedExpressions {
+
+	/*
+	 * The quotes make it impossible for the marker to appear in template text as quotes
+	 * are escaped in string literals.
+	 */
+	private static final String MARKER_START = "/* hoisted \"";
+
+	private static final String MARKER_END = "\" */";
+
+	/**
+	 * A rendering context that loops and thus can have expressions hoisted out of it.
+	 */
+	interface Loop extends RenderingContext {
+
+		/**
+		 * The loop id.
+		 * @return loop id or <code>-1</code> if hoisting is disabled.
+		 */
+		int hoistLoop();
+
+	}
+
+	private final List<Map<String, String>> loops = new ArrayList<>();
+
+	private final List<List<String>> declarations = new ArrayList<>();
+
+	private final List<Map<String, TypeMirror>> types = new ArrayList<>();
+
+	private final Map<String, Integer> locals = new HashMap<>();
+
+	/**
+	 * Registers a new loop.
+	 * @return loop id.
+	 */
+	int newLoop() {
+		int id = loops.size();
+		loops.add(new LinkedHashMap<>());
+		declarations.add(new ArrayList<>());
+		types.add(new LinkedHashMap<>());
+		return id;
+	}
+
+	static String marker(int loop) {
+		return MARKER_START + loop + MARKER_END;
+	}
+
+	/**
+	 * Finds the local variable of an expression already hoisted to the loop.
+	 * @param loop loop id
+	 * @param expression java expression
+	 * @return local variable name or <code>null</code>.
+	 */
+	@Nullable
+	String find(int loop, String expression) {
+		return loops.get(loop).get(expression);
+	}
+
+	void declare(int loop, String expression, String variableName, TypeMirror type, String declaration) {
+		loops.get(loop).put(expression, variableName);
+		declarations.get(loop).add(declaration);
+		types.get(loop).put(variableName, type);
+		locals.put(variableName, loop);
+	}
+
+	/**
+	 * Adds the locals declared before a loop.
+	 * @param loop loop id
+	 * @param localVariables collected locals
+	 * @return false if a local cannot be passed to another method.
+	 */
+	boolean addLocals(int loop, LocalVariables localVariables) {
+		for (var e : types.get(loop).entrySet()) {
+			if (!localVariables.add(e.getKey(), e.getValue())) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Finds the loop a variable was hoisted to.
+	 * @param variableName local variable name
+	 * @return loop id or <code>-1</code> if the variable was not declared by hoisting.
+	 */
+	int loopOf(String variableName) {
+		Integer loop = locals.get(variableName);
+		return loop == null ? -1 : loop;
+	}
+
+	String replaceMarkers(String code) {
+		if (loops.isEmpty()) {
+			return code;
+		}
+		StringBuilder sb = new StringBuilder(code.length());
+		int start = 0;
+		int i;
+		while ((i = code.indexOf(MARKER_START, start)) >= 0) {
+			int end = code.indexOf(MARKER_END, i + MARKER_START.length());
+			if (end < 0) {
+				break;
+			}
+			sb.append(code, start, i);
+			int loop = Integer.parseInt(code.substring(i + MARKER_START.length(), end));
+			for (String d : declarations.get(loop)) {
+				sb.append(d).append(" ");
+			}
+			start = end + MARKER_END.length();
+		}
+		sb.append(code, start, code.length());
+		return sb.toString();
+	}
+
+}
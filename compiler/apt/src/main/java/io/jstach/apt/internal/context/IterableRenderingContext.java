@@ -56,7 +56,7 @@ import io.jstach.apt.internal.util.ToStringTypeVisitor;
  * @author Victor Nazarov
  * @author agentgt
  */
-class IterableRenderingContext implements ChildRenderingContext {
+class IterableRenderingContext implements ChildRenderingContext, HoistedExpressions.Loop {
 
 	private final JavaExpression expression;
 
@@ -68,23 +68,51 @@ class IterableRenderingContext implements ChildRenderingContext {
 
 	private final String iteratorVariableName;
 
+	private final String sizeVariableName;
+
+	private final String sequentialVariableName;
+
+	private final boolean list;
+
+	private final int hoistLoop;
+
+	/*
+	 * The expression should already be bound to a local variable as it is used multiple
+	 * times.
+	 */
 	public IterableRenderingContext(JavaExpression expression, String elementVariableName, String indexVariableName,
-			RenderingContext parent) {
+			boolean list, int hoistLoop, RenderingContext parent) {
 		this.expression = expression;
 		this.elementVariableName = elementVariableName;
 		this.indexVariableName = indexVariableName;
-		this.iteratorVariableName = elementVariableName + "It";
+		this.iteratorVariableName = elementVariableName + (list ? "List" : "It");
+		this.sizeVariableName = elementVariableName + "Size";
+		this.sequentialVariableName = elementVariableName + "It";
+		this.list = list;
+		this.hoistLoop = hoistLoop;
 		this.parent = parent;
 	}
 
 	@Override
 	public String beginSectionRenderingCode() {
-		String loop = """
-				@SuppressWarnings("unused")
-				int ${i} = 0;
-				for (java.util.Iterator<? extends ${elementGeneric}> ${iteratorVar} = ${iterableVar}.iterator(); ${iteratorVar}.hasNext(); ${i}++) {
-				    ${elementType} ${elementVar} = ${iteratorVar}.next();
-				""";
+		/*
+		 * Lists are iterated by index with the size hoisted to avoid the iterator. Lists
+		 * that are not random access (LinkedList) still use their iterator for the
+		 * element as get(i) would be linear.
+		 */
+		String loop = list
+				? """
+						java.util.List<? extends ${elementGeneric}> ${iteratorVar} = ${iterableVar};
+						java.util.Iterator<? extends ${elementGeneric}> ${sequentialVar} = ${iteratorVar} instanceof java.util.RandomAccess ? java.util.Collections.emptyIterator() : ${iteratorVar}.iterator();
+						for (int ${i} = 0, ${sizeVar} = ${iteratorVar}.size(); ${i} < ${sizeVar}; ${i}++) {
+						    ${elementType} ${elementVar} = ${sequentialVar}.hasNext() ? ${sequentialVar}.next() : ${iteratorVar}.get(${i});
+						"""
+				: """
+						@SuppressWarnings("unused")
+						int ${i} = 0;
+						for (java.util.Iterator<? extends ${elementGeneric}> ${iteratorVar} = ${iterableVar}.iterator(); ${iteratorVar}.hasNext(); ${i}++) {
+						    ${elementType} ${elementVar} = ${iteratorVar}.next();
+						""";
 		String elementType = ToStringTypeVisitor.toCodeSafeString(elementExpession().type());
 		Map<String, String> names = Map.of( //
 				"i", indexVariableName, //
@@ -92,9 +120,14 @@ class IterableRenderingContext implements ChildRenderingContext {
 				"elementType", elementType, //
 				"elementVar", elementVariableName, //
 				"iteratorVar", iteratorVariableName, //
+				"sizeVar", sizeVariableName, //
+				"sequentialVar", sequentialVariableName, //
 				"iterableVar", expression.text() //
 		);
 		loop = Interpolator.of().interpolate(loop, names::get);
+		if (hoistLoop >= 0) {
+			loop = HoistedExpressions.marker(hoistLoop) + loop;
+		}
 
 		return parent.beginSectionRenderingCode() + loop;
 	}
@@ -136,6 +169,10 @@ class IterableRenderingContext implements ChildRenderingContext {
 
 	JavaExpression last() {
 		var model = expression.model();
+		if (list) {
+			return model.expression("(" + indexVariableName + " == " + sizeVariableName + " - 1 )",
+					model.knownTypes()._boolean);
+		}
 		return model.expression("( ! " + iteratorVariableName + ".hasNext() )", model.knownTypes()._boolean);
 	}
 
@@ -212,6 +249,30 @@ class IterableRenderingContext implements ChildRenderingContext {
 		return model.expression(elementVariableName, elementType);
 	}
 
+	@Override
+	public boolean addLocals(LocalVariables locals) {
+		TypeMirror elementType = elementExpession().type();
+		if (!locals.add(elementVariableName, elementType)) {
+			return false;
+		}
+		String elementGeneric = ToStringTypeVisitor.toCodeSafeString(elementType);
+		locals.add(indexVariableName, "int");
+		if (list) {
+			locals.add(iteratorVariableName, "java.util.List<? extends " + elementGeneric + ">");
+			locals.add(sizeVariableName, "int");
+			locals.add(sequentialVariableName, "java.util.Iterator<? extends " + elementGeneric + ">");
+		}
+		else {
+			locals.add(iteratorVariableName, "java.util.Iterator<? extends " + elementGeneric + ">");
+		}
+		return true;
+	}
+
+	@Override
+	public int hoistLoop() {
+		return hoistLoop;
+	}
+
 	@Override
 	public RenderingContext getParent() {
 		return parent;
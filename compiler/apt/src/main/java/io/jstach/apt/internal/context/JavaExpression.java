@@ -41,6 +41,8 @@ import javax.lang.model.type.DeclaredType;
 import javax.lang.model.type.ExecutableType;
 import javax.lang.model.type.TypeMirror;
 
+import org.eclipse.jdt.annotation.Nullable;
+
 /**
  * @author Victor Nazarov
  */
@@ -54,11 +56,19 @@ class JavaExpression {
 
 	private final List<String> path;
 
+	private final @Nullable Element element;
+
 	JavaExpression(JavaLanguageModel model, String text, TypeMirror type, List<String> path) {
+		this(model, text, type, path, null);
+	}
+
+	private JavaExpression(JavaLanguageModel model, String text, TypeMirror type, List<String> path,
+			@Nullable Element element) {
 		this.model = model;
 		this.text = text;
 		this.type = type;
 		this.path = path;
+		this.element = element;
 	}
 
 	String text() {
@@ -73,6 +83,15 @@ class JavaExpression {
 		return model;
 	}
 
+	/*
+	 * The field or method the expression accesses or null if the expression is not a
+	 * member access.
+	 */
+	@Nullable
+	Element element() {
+		return element;
+	}
+
 	private static List<String> concat(List<String> list, String a) {
 		list = new ArrayList<>(list);
 		list.add(a);
@@ -116,7 +135,7 @@ class JavaExpression {
 		VariableElement fieldElement = (VariableElement) element;
 		TypeMirror memberType = model.asMemberOf((DeclaredType) type, fieldElement);
 		return new JavaExpression(model, text + "." + fieldElement.getSimpleName(), memberType,
-				concatPath(fieldElement.getSimpleName().toString()));
+				concatPath(fieldElement.getSimpleName().toString()), fieldElement);
 	}
 
 	public JavaExpression methodCall(Element element, JavaExpression... arguments) {
@@ -133,7 +152,7 @@ class JavaExpression {
 		}
 		result.append(")");
 		return new JavaExpression(model, result.toString(), executableType.getReturnType(),
-				concatPath(executableElement.getSimpleName().toString()));
+				concatPath(executableElement.getSimpleName().toString()), executableElement);
 	}
 
 	public boolean isNullable() {
@@ -154,6 +173,22 @@ class JavaExpression {
 		return "JavaExpression [text=" + text + ", type=" + type + ", path=" + path + "]";
 	}
 
+	/*
+	 * The same expression bound to a local variable. The type, path and element are kept
+	 * so that null checking is the same.
+	 */
+	JavaExpression local(String variableName) {
+		return new JavaExpression(model, variableName, type, path, element);
+	}
+
+	/*
+	 * The value of a Supplier, CompletionStage or Future. The path is kept as the
+	 * template refers to the value by the name of the wrapper.
+	 */
+	JavaExpression unwrap(String text, TypeMirror valueType) {
+		return new JavaExpression(model, text, valueType, path);
+	}
+
 	JavaExpression listSize() {
 		return new JavaExpression(model, text + ".size()", model.knownTypes()._int.typeMirror(), concatPath("size"));
 	}
@@ -106,6 +106,12 @@ class ListRenderingContext implements ChildRenderingContext {
 		return listExpression.model().expression(indexVariableName, listExpression.model().knownTypes()._int);
 	}
 
+	@Override
+	public boolean addLocals(LocalVariables locals) {
+		locals.add(indexVariableName, "int");
+		return true;
+	}
+
 	@Override
 	public RenderingContext getParent() {
 		return parent;
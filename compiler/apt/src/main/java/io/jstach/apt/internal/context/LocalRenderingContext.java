@@ -0,0 +1,75 @@
+package io.jstach.apt.internal.context;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+import io.jstach.apt.internal.context.RenderingContext.ChildRenderingContext;
+
+/**
+ * Evaluates an expression once and binds it to a local variable so that the section (null
+ * check, loop and so on) does not repeat the entire accessor chain.
+ *
+ * @author agentgt
+ */
+class LocalRenderingContext implements ChildRenderingContext {
+
+	private final JavaExpression expression;
+
+	private final JavaExpression local;
+
+	private final RenderingContext parent;
+
+	LocalRenderingContext(JavaExpression expression, String variableName, RenderingContext parent) {
+		this.expression = expression;
+		this.local = expression.local(variableName);
+		this.parent = parent;
+	}
+
+	/**
+	 * The expression bound to the local variable.
+	 * @return local variable expression.
+	 */
+	JavaExpression local() {
+		return local;
+	}
+
+	@Override
+	public String beginSectionRenderingCode() {
+		return parent.beginSectionRenderingCode() + "{ var " + local.text() + " = " + expression.text() + "; ";
+	}
+
+	@Override
+	public String endSectionRenderingCode() {
+		return " }" + parent.endSectionRenderingCode();
+	}
+
+	@Override
+	public @Nullable JavaExpression get(String name) throws ContextException {
+		return null;
+	}
+
+	@Override
+	public JavaExpression currentExpression() {
+		return local;
+	}
+
+	@Override
+	public VariableContext createEnclosedVariableContext() {
+		return parent.createEnclosedVariableContext();
+	}
+
+	@Override
+	public boolean addLocals(LocalVariables locals) {
+		return locals.add(local.text(), expression.type());
+	}
+
+	@Override
+	public RenderingContext getParent() {
+		return parent;
+	}
+
+	@Override
+	public String description() {
+		return getClass().getSimpleName() + "[expression=" + expression + ", local=" + local.text() + "]";
+	}
+
+}
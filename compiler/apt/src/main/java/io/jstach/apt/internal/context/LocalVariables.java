@@ -0,0 +1,127 @@
+package io.jstach.apt.internal.context;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.lang.model.element.Element;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.WildcardType;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+import io.jstach.apt.internal.util.ToStringTypeVisitor;
+
+/**
+ * Collects the local variables declared by the begin code of the rendering contexts that
+ * enclose a section so that the body of the section can be moved to its own method with
+ * the locals passed as parameters.
+ * <p>
+ * Locals are declared with <code>var</code> so a local can only be passed if its type can
+ * be written down in the renderer: type variables, intersections and types not accessible
+ * from the package of the renderer cannot.
+ *
+ * @author agentgt
+ */
+final class LocalVariables {
+
+	private final String packageName;
+
+	private final Map<String, String> locals = new LinkedHashMap<>();
+
+	LocalVariables(String packageName) {
+		this.packageName = packageName;
+	}
+
+	/**
+	 * Adds a local whose type is known to be denotable.
+	 * @param name variable name
+	 * @param type java code of the type
+	 */
+	void add(String name, String type) {
+		locals.putIfAbsent(name, type);
+	}
+
+	/**
+	 * Adds a local.
+	 * @param name variable name
+	 * @param type type of the local
+	 * @return false if the type cannot be written as a parameter type.
+	 */
+	boolean add(String name, TypeMirror type) {
+		if (!isDenotable(type)) {
+			return false;
+		}
+		add(name, ToStringTypeVisitor.toCodeSafeString(type));
+		return true;
+	}
+
+	Map<String, String> toMap() {
+		return Collections.unmodifiableMap(locals);
+	}
+
+	private boolean isDenotable(TypeMirror type) {
+		return switch (type.getKind()) {
+			case BOOLEAN, BYTE, SHORT, INT, LONG, CHAR, FLOAT, DOUBLE -> true;
+			case ARRAY -> isDenotable(((ArrayType) type).getComponentType());
+			case DECLARED -> {
+				DeclaredType declaredType = (DeclaredType) type;
+				if (!isAccessible(declaredType.asElement())) {
+					yield false;
+				}
+				for (TypeMirror argument : declaredType.getTypeArguments()) {
+					if (!isDenotableArgument(argument)) {
+						yield false;
+					}
+				}
+				yield true;
+			}
+			default -> false;
+		};
+	}
+
+	private boolean isDenotableArgument(TypeMirror argument) {
+		if (argument instanceof WildcardType wildcardType) {
+			var extendsBound = wildcardType.getExtendsBound();
+			var superBound = wildcardType.getSuperBound();
+			return (extendsBound == null || isDenotable(extendsBound))
+					&& (superBound == null || isDenotable(superBound));
+		}
+		return isDenotable(argument);
+	}
+
+	private boolean isAccessible(Element element) {
+		@Nullable
+		Element e = element;
+		while (e != null && !(e instanceof PackageElement)) {
+			if (!(e instanceof TypeElement)) {
+				// local classes cannot be named outside of their method
+				return false;
+			}
+			var modifiers = e.getModifiers();
+			if (modifiers.contains(Modifier.PRIVATE)) {
+				return false;
+			}
+			if (!modifiers.contains(Modifier.PUBLIC) && !packageName.equals(packageOf(e))) {
+				return false;
+			}
+			e = e.getEnclosingElement();
+		}
+		return true;
+	}
+
+	private static String packageOf(Element element) {
+		@Nullable
+		Element e = element;
+		while (e != null && !(e instanceof PackageElement)) {
+			e = e.getEnclosingElement();
+		}
+		return e instanceof PackageElement p ? p.getQualifiedName().toString() : "";
+	}
+
+}
@@ -0,0 +1,163 @@
+package io.jstach.apt.internal.context;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Packs the static text of a template into as few byte arrays (blobs) as possible. The
+ * offsets and lengths of each part are calculated at compile time so the generated code
+ * writes ranges of the blobs with constants.
+ * <p>
+ * Blobs are declared with string literals which cannot be longer than 65535 bytes in the
+ * class file so a new blob is started if a literal would be too long.
+ *
+ * @author agentgt
+ */
+final class PackedText {
+
+	static final String BLOB = "TEXT_BLOB";
+
+	/*
+	 * These charsets encode each char the same regardless of what comes before it so the
+	 * parts can be encoded separately to calculate the offsets.
+	 */
+	private static final Set<Charset> PACKABLE_CHARSETS = Set.of(StandardCharsets.UTF_8, StandardCharsets.ISO_8859_1,
+			StandardCharsets.US_ASCII);
+
+	private static final int MAX_LITERAL_LENGTH = 65535;
+
+	private final Charset charset;
+
+	private final List<List<String>> blobs = new ArrayList<>();
+
+	private final Map<String, String> ranges = new HashMap<>();
+
+	private int offset;
+
+	private int literalLength;
+
+	PackedText(Charset charset) {
+		this.charset = charset;
+	}
+
+	static @Nullable PackedText of(@Nullable Charset charset) {
+		if (charset == null || !PACKABLE_CHARSETS.contains(charset)) {
+			return null;
+		}
+		return new PackedText(charset);
+	}
+
+	/**
+	 * Adds the text to the current blob if it was not already added.
+	 * @param code java string literal code
+	 * @return arguments to pass to <code>write(byte[], int, int)</code>.
+	 */
+	String add(String code) {
+		String range = ranges.get(code);
+		if (range != null) {
+			return range;
+		}
+		String text = stringValue(code);
+		int length = text.getBytes(charset).length;
+		int textLiteralLength = literalLength(text);
+		if (blobs.isEmpty() || literalLength + textLiteralLength > MAX_LITERAL_LENGTH) {
+			blobs.add(new ArrayList<>());
+			offset = 0;
+			literalLength = 0;
+		}
+		int blob = blobs.size() - 1;
+		blobs.get(blob).add(code);
+		range = BLOB + "_" + blob + ", " + offset + ", " + length;
+		offset += length;
+		literalLength += textLiteralLength;
+		ranges.put(code, range);
+		return range;
+	}
+
+	/**
+	 * The blob variable names and java code of their text.
+	 * @return entries of variable name and string literal code.
+	 */
+	List<Entry<String, String>> blobVariables() {
+		List<Entry<String, String>> results = new ArrayList<>();
+		int i = 0;
+		for (var codes : blobs) {
+			results.add(Map.entry(BLOB + "_" + i++, String.join(" +", codes)));
+		}
+		return results;
+	}
+
+	/*
+	 * The length of the string in the class file which is modified UTF-8.
+	 */
+	private static int literalLength(String s) {
+		int length = 0;
+		for (int i = 0; i < s.length(); i++) {
+			char c = s.charAt(i);
+			if (c >= 0x01 && c <= 0x7F) {
+				length += 1;
+			}
+			else if (c <= 0x7FF) {
+				length += 2;
+			}
+			else {
+				length += 3;
+			}
+		}
+		return length;
+	}
+
+	/*
+	 * Evaluates the string literal (or concatenation of string literals) code generated
+	 * by the template compiler.
+	 */
+	static String stringValue(String code) {
+		StringBuilder sb = new StringBuilder(code.length());
+		boolean literal = false;
+		int length = code.length();
+		for (int i = 0; i < length; i++) {
+			char c = code.charAt(i);
+			if (!literal) {
+				if (c == '"') {
+					literal = true;
+				}
+				continue;
+			}
+			if (c == '"') {
+				literal = false;
+			}
+			else if (c == '\\' && i + 1 < length) {
+				char e = code.charAt(++i);
+				switch (e) {
+					case 'n' -> sb.append('\n');
+					case 'r' -> sb.append('\r');
+					case 't' -> sb.append('\t');
+					case 'b' -> sb.append('\b');
+					case 'f' -> sb.append('\f');
+					case 's' -> sb.append(' ');
+					case 'u' -> {
+						while (code.charAt(i + 1) == 'u') {
+							i++;
+						}
+						sb.append((char) Integer.parseInt(code.substring(i + 1, i + 5), 16));
+						i += 4;
+					}
+					default -> sb.append(e);
+				}
+			}
+			else {
+				sb.append(c);
+			}
+		}
+		return sb.toString();
+	}
+
+}
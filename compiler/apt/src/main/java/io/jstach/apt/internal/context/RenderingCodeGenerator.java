@@ -39,6 +39,7 @@ import java.util.stream.Stream;
 import javax.lang.model.element.ExecutableElement;
 import javax.lang.model.element.Modifier;
 import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.TypeParameterElement;
 import javax.lang.model.type.ArrayType;
 import javax.lang.model.type.DeclaredType;
 import javax.lang.model.type.PrimitiveType;
@@ -76,6 +77,8 @@ public class RenderingCodeGenerator {
 
 	private FormatCallType formatCallType;
 
+	private boolean staticFormat;
+
 	private RenderingCodeGenerator(KnownTypes types, JavaLanguageModel javaModel, FormatterTypes formatterTypes,
 			FormatCallType formatCallType) {
 		this.knownTypes = types;
@@ -92,6 +95,15 @@ public class RenderingCodeGenerator {
 		this.formatCallType = formatCallType;
 	}
 
+	/**
+	 * Whether or not variables are formatted by calling the generated static
+	 * <code>__format</code> methods of the renderer instead of the formatter directly.
+	 * @param staticFormat true if the renderer has the static format methods.
+	 */
+	public void setStaticFormat(boolean staticFormat) {
+		this.staticFormat = staticFormat;
+	}
+
 	String generateRenderingCode(JavaExpression expression, VariableContext variables, String path)
 			throws TypeException {
 		TypeMirror type = expression.type();
@@ -105,7 +117,7 @@ public class RenderingCodeGenerator {
 		KnownType knownType = javaModel.resolveType(type).orElse(null);
 
 		if (isDirectFormat(type, knownType)) {
-			return renderFormatCall(variables, path, text);
+			return renderDirectFormatCall(variables, path, text, formatOverload(knownType));
 		}
 		else if (knownType != null && knownType instanceof ObjectType) {
 			String cname = knownType.renderClassName() + ".class";
@@ -137,6 +149,27 @@ public class RenderingCodeGenerator {
 		return false;
 	}
 
+	/*
+	 * The parameter type of the static format method that Java overload resolution picks
+	 * for a directly formatted expression. Byte and float widen to short and double.
+	 */
+	private String formatOverload(@Nullable KnownType knownType) {
+		if (knownType instanceof NativeType nt) {
+			Class<?> c = nt.unboxedType();
+			if (c == byte.class) {
+				return "short";
+			}
+			if (c == float.class) {
+				return "double";
+			}
+			return c.getName();
+		}
+		if (knownType != null && knownType.equals(knownTypes._String)) {
+			return "String";
+		}
+		return "Formattable";
+	}
+
 	private String renderFormatCall(VariableContext variables, String path, String text, String cname) {
 		return switch (formatCallType) {
 			case JSTACHIO, JSTACHIO_BYTE -> renderFormatCallJStache(variables, path, text, cname);
@@ -144,28 +177,36 @@ public class RenderingCodeGenerator {
 		};
 	}
 
-	private String renderFormatCall(VariableContext variables, String path, String text) {
+	private String renderDirectFormatCall(VariableContext variables, String path, String text, String overload) {
 		return switch (formatCallType) {
-			case JSTACHIO, JSTACHIO_BYTE -> renderFormatCallJStache(variables, path, text);
+			case JSTACHIO, JSTACHIO_BYTE -> renderDirectFormatCallJStache(variables, path, text, overload);
 			case STACHE -> renderFormatCallStache(variables, text);
 		};
 	}
 
-	private String renderFormatCallJStache(VariableContext variables, String path, String text) {
-		return variables.formatter() + ".format(" + variables.escaper() //
+	private String renderDirectFormatCallJStache(VariableContext variables, String path, String text, String overload) {
+		return renderFormatCallStart(variables, overload) + variables.escaper() //
 				+ ", " + variables.unescapedWriter() //
 				+ ", " + "\"" + path + "\"" //
 				+ ", " + text + ");";
 	}
 
 	private String renderFormatCallJStache(VariableContext variables, String path, String text, String cname) {
-		return variables.formatter() + ".format(" + variables.escaper() //
+		return renderFormatCallStart(variables, "Object") + variables.escaper() //
 				+ ", " + variables.unescapedWriter() //
 				+ ", " + "\"" + path + "\"" //
 				+ ", " + cname //
 				+ ", " + text + ");";
 	}
 
+	private String renderFormatCallStart(VariableContext variables, String overload) {
+		if (staticFormat) {
+			variables.markFormatUsed(overload);
+			return "__format(" + variables.formatter() + ", ";
+		}
+		return variables.formatter() + ".format(";
+	}
+
 	private String renderFormatCallStache(VariableContext variables, String text) {
 		String fmt = variables.formatter() + ".apply(" + text + ")";
 		if (variables.isEscaped()) {
@@ -255,6 +296,10 @@ public class RenderingCodeGenerator {
 		else if (javaModel.isType(expression.type(), knownTypes._Optional)) {
 			return createOptionalContext(childType, expression, enclosing);
 		}
+		else if (isDeferred(expression)) {
+			LocalRenderingContext deferred = createDeferredContext(expression, enclosing);
+			return createRenderingContext(childType, deferred.local(), deferred);
+		}
 		else if (USE_LIST_CONTEXT && javaModel.isType(expression.type(), knownTypes._List)) {
 			RenderingContext nullable = nullableRenderingContext(expression, enclosing);
 			VariableContext variableContext = nullable.createEnclosedVariableContext();
@@ -270,11 +315,14 @@ public class RenderingCodeGenerator {
 			return createMapContext(expression, enclosing);
 		}
 		else if (expression.type().getKind() == TypeKind.ARRAY) {
-			RenderingContext nullable = nullableRenderingContext(expression, enclosing);
-			VariableContext variableContext = nullable.createEnclosedVariableContext();
+			VariableContext variableContext = enclosing.createEnclosedVariableContext();
+			String elementVariableName = variableContext.introduceNewNameLike("element");
 			String indexVariableName = variableContext.introduceNewNameLike("i");
+			LocalRenderingContext local = new LocalRenderingContext(expression, elementVariableName + "s", enclosing);
+			RenderingContext nullable = nullableRenderingContext(local.local(), local);
 			RenderingContext variables = new VariablesRenderingContext(variableContext, nullable);
-			ArrayRenderingContext array = new ArrayRenderingContext(expression, indexVariableName, variables);
+			ArrayRenderingContext array = new ArrayRenderingContext(local.local(), elementVariableName,
+					indexVariableName, newHoistLoop(variableContext), variables);
 			return createRenderingContext(childType, array.componentExpession(), array);
 		}
 		else if (expression.type().getKind() == TypeKind.DECLARED) {
@@ -329,6 +377,81 @@ public class RenderingCodeGenerator {
 		return createRenderingContext(childType, optional.currentExpression(), optional);
 	}
 
+	private boolean isDeferred(JavaExpression expression) {
+		return deferredType(expression) != null;
+	}
+
+	/*
+	 * Only bindings declared exactly as one of the wrapper types are deferred. Models
+	 * that merely implement Supplier or Future (for example a list that is also a
+	 * supplier) keep being rendered as what they are.
+	 */
+	private @Nullable ObjectType deferredType(JavaExpression expression) {
+		if (!(expression.type() instanceof DeclaredType declaredType)) {
+			return null;
+		}
+		var element = declaredType.asElement();
+		for (ObjectType wrapperType : List.of(knownTypes._Supplier, knownTypes._CompletionStage,
+				knownTypes._CompletableFuture, knownTypes._Future)) {
+			if (wrapperType.typeElement().equals(element)) {
+				return wrapperType;
+			}
+		}
+		return null;
+	}
+
+	/*
+	 * Supplier, CompletionStage and Future values are resolved where the section or
+	 * variable is rendered and bound to a local variable so that the supplier is called
+	 * or the future is waited on only once.
+	 */
+	private LocalRenderingContext createDeferredContext(JavaExpression expression, RenderingContext enclosing)
+			throws TypeException {
+		JavaExpression value = deferredValue(expression, enclosing);
+		VariableContext variableContext = enclosing.createEnclosedVariableContext();
+		String valueVariableName = variableContext.introduceNewNameLike("value");
+		return new LocalRenderingContext(value, valueVariableName,
+				new VariablesRenderingContext(variableContext, enclosing));
+	}
+
+	private JavaExpression deferredValue(JavaExpression expression, RenderingContext enclosing) throws TypeException {
+		ObjectType wrapperType = deferredType(expression);
+		String text = expression.text();
+		if (wrapperType == null) {
+			throw new TypeException("Expected a deferred type. type: " + expression.type());
+		}
+		else if (wrapperType == knownTypes._Supplier) {
+			return expression.unwrap(text + ".get()", deferredValueType(expression, wrapperType));
+		}
+		else if (wrapperType == knownTypes._CompletionStage) {
+			return expression.unwrap(text + ".toCompletableFuture().join()",
+					deferredValueType(expression, wrapperType));
+		}
+		else if (wrapperType == knownTypes._CompletableFuture) {
+			return expression.unwrap(text + ".join()", deferredValueType(expression, wrapperType));
+		}
+		enclosing.variableContext().markAwaitUsed();
+		return expression.unwrap(VariableContext.AWAIT_METHOD + "(" + text + ")",
+				deferredValueType(expression, wrapperType));
+	}
+
+	/*
+	 * Like iterables asMemberOf is used to resolve the type parameter as it keeps the
+	 * type annotations (nullable) unlike the direct supertypes.
+	 */
+	private TypeMirror deferredValueType(JavaExpression expression, ObjectType wrapperType) throws TypeException {
+		if (!(expression.type() instanceof DeclaredType declaredType)
+				|| javaModel.getSupertype(declaredType, wrapperType) == null) {
+			throw new TypeException("Expected " + wrapperType.typeElement() + " type. type: " + expression.type());
+		}
+		TypeParameterElement parameterElement = wrapperType.typeElement().getTypeParameters().get(0);
+		TypeMirror valueType = javaModel.getTypes().asMemberOf(declaredType, parameterElement);
+		if (valueType instanceof WildcardType wildcardType) {
+			valueType = resolveBound(wildcardType);
+		}
+		return valueType;
+	}
+
 	private RenderingContext createMapContext(JavaExpression expression, RenderingContext enclosing) {
 		RenderingContext nullable = nullableRenderingContext(expression, enclosing);
 		DeclaredType mapType = (DeclaredType) expression.type();
@@ -346,24 +469,38 @@ public class RenderingCodeGenerator {
 
 	private RenderingContext createIterableContext(JavaExpression expression, RenderingContext enclosing)
 			throws TypeException {
-		RenderingContext nullable = nullableRenderingContext(expression, enclosing);
-		VariableContext variableContext = nullable.createEnclosedVariableContext();
+		VariableContext variableContext = enclosing.createEnclosedVariableContext();
 		String elementVariableName = variableContext.introduceNewNameLike("element");
 		String indexVariableName = variableContext.introduceNewNameLike("i");
-
+		/*
+		 * The iterable is evaluated once instead of once for the null check and again for
+		 * the loop.
+		 */
+		LocalRenderingContext local = new LocalRenderingContext(expression, elementVariableName + "s", enclosing);
+		RenderingContext nullable = nullableRenderingContext(local.local(), local);
 		RenderingContext variables = new VariablesRenderingContext(variableContext, nullable);
-		IterableRenderingContext iterable = new IterableRenderingContext(expression, elementVariableName,
-				indexVariableName, variables);
+		boolean list = knownTypes._List.isType(expression.type());
+		IterableRenderingContext iterable = new IterableRenderingContext(local.local(), elementVariableName,
+				indexVariableName, list, newHoistLoop(variableContext), variables);
 		if (expression.model().isType(expression.type(), knownTypes._ContextNode)) {
 			return createContextNodeContext(iterable.elementExpession(), iterable);
 		}
 		return createRenderingContext(ContextType.SECTION_VAR, iterable.elementExpession(), iterable);
 	}
 
+	private static int newHoistLoop(VariableContext variableContext) {
+		var hoisted = variableContext.hoisted();
+		return hoisted == null ? -1 : hoisted.newLoop();
+	}
+
 	RenderingContext createInvertedRenderingContext(JavaExpression expression, RenderingContext enclosing)
 			throws TypeException {
 		if (knownTypes._Iterable.isType(expression.type())
 				&& !expression.model().isType(expression.type(), knownTypes._ContextNode)) {
+			if (knownTypes._Collection.isType(expression.type())) {
+				return new BooleanRenderingContext(
+						"(" + expression.text() + " == null )" + " || " + expression.text() + ".isEmpty()", enclosing);
+			}
 			return new BooleanRenderingContext(
 					"(" + expression.text() + " == null )" + " || ! " + expression.text() + ".iterator().hasNext()",
 					enclosing);
@@ -379,6 +516,13 @@ public class RenderingCodeGenerator {
 			// enclosing);
 			throw new IllegalStateException("bug");
 		}
+		else if (isDeferred(expression)) {
+			/*
+			 * Inverted sections are a single condition so the value cannot be bound to a
+			 * local and is resolved inline.
+			 */
+			return createInvertedRenderingContext(deferredValue(expression, enclosing), enclosing);
+		}
 		else if (javaModel.isType(expression.type(), knownTypes._boolean)) {
 			return new BooleanRenderingContext("!(" + expression.text() + ")", enclosing);
 		}
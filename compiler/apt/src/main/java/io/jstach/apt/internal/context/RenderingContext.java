@@ -102,6 +102,16 @@ interface RenderingContext {
 	@Nullable
 	RenderingContext getParent();
 
+	/**
+	 * Adds the local variables declared by the begin code of this context (not its
+	 * parents) that are in scope of the section body.
+	 * @param locals collected locals
+	 * @return false if a local cannot be passed to another method.
+	 */
+	default boolean addLocals(LocalVariables locals) {
+		return true;
+	}
+
 	default String printStack() {
 		StringBuilder sb = new StringBuilder();
 		@Nullable
@@ -73,6 +73,7 @@ class RootRenderingContext implements RenderingContext {
 				if (contextNodeType == null) {
 					yield null;
 				}
+				variables.markContextUsed();
 				yield lm.expression(variables.context(), contextNodeType.typeElement().asType());
 			}
 			// @template
@@ -96,6 +97,14 @@ class RootRenderingContext implements RenderingContext {
 		return _get(name);
 	}
 
+	/**
+	 * The root model expression which is a parameter of the render method.
+	 * @return root expression.
+	 */
+	JavaExpression rootExpression() {
+		return expression;
+	}
+
 	@Override
 	public JavaExpression currentExpression() {
 		throw new IllegalStateException("No current data in root context");
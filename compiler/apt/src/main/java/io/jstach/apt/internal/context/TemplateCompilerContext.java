@@ -38,17 +38,22 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Pattern;
 
 import javax.lang.model.type.DeclaredType;
 import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.TypeMirror;
 
 import org.eclipse.jdt.annotation.Nullable;
 
 import io.jstach.apt.internal.AnnotatedException;
+import io.jstach.apt.internal.FormatterTypes.FormatCallType;
 import io.jstach.apt.internal.ProcessingException;
 import io.jstach.apt.internal.context.ContextException.FieldNotFoundContextException;
 import io.jstach.apt.internal.context.Lambda.Lambdas;
+import io.jstach.apt.prism.JStacheCachedPrism;
 import io.jstach.apt.prism.Prisms;
 import io.jstach.apt.prism.Prisms.Flag;
 
@@ -101,12 +106,21 @@ public class TemplateCompilerContext {
 		return switch (generator.getFormatCallType()) {
 			case JSTACHIO, STACHE -> unescapedWriterExpression() + ".append(" + code + ");";
 			case JSTACHIO_BYTE -> {
-				String byteVar = variables.addTextCode(code);
+				String byteVar = variables.addEncodedText(code);
 				yield unescapedWriterExpression() + ".write(" + byteVar + ");";
 			}
 		};
 	}
 
+	public String renderFlushCode() {
+		String writer = unescapedWriterExpression();
+		return switch (generator.getFormatCallType()) {
+			case JSTACHIO, JSTACHIO_BYTE -> writer + ".flush();";
+			case STACHE ->
+				"if (" + writer + " instanceof java.io.Flushable) ((java.io.Flushable) " + writer + ").flush();";
+		};
+	}
+
 	public String renderingCode() throws ContextException {
 		return beginSectionRenderingCode() + sectionBodyRenderingCode(variables) + endSectionRenderingCode();
 	}
@@ -273,8 +287,21 @@ public class TemplateCompilerContext {
 		if (enclosedField instanceof LambdaRenderingContext) {
 			childType = ContextType.LAMBDA;
 		}
-		return new TemplateCompilerContext(templateStack, lambdas, generator, variables, enclosedField, childType,
-				new EnclosedRelation(name, this));
+		VariableContext enclosedVariables = variables;
+		/*
+		 * The body of a cached section is rendered to the buffer of the section.
+		 */
+		@Nullable
+		RenderingContext c = enclosedField;
+		while (c != null && !(c instanceof OwnedRenderingContext)) {
+			if (c instanceof CachedRenderingContext cached) {
+				enclosedVariables = variables.withUnescapedWriter(cached.bufferName());
+				break;
+			}
+			c = c.getParent();
+		}
+		return new TemplateCompilerContext(templateStack, lambdas, generator, enclosedVariables, enclosedField,
+				childType, new EnclosedRelation(name, this));
 	}
 
 	private TemplateCompilerContext _getChild(String name, ContextType childType) throws ContextException {
@@ -398,6 +425,31 @@ public class TemplateCompilerContext {
 					"Field not found in current context: ''{0}'' , template: " + templateStack.describeTemplateStack(),
 					name));
 		}
+		if (childType == ContextType.SECTION) {
+			var cached = cache(name, entry, enclosing);
+			if (cached != null) {
+				enclosing = cached;
+				entry = cached.local();
+			}
+		}
+		var hoisted = variables.hoisted();
+		if (hoisted != null) {
+			var hoistedEntry = hoist(hoisted, entry, enclosing);
+			if (hoistedEntry != null) {
+				entry = hoistedEntry;
+			}
+			else if ((childType == ContextType.PATH || childType == ContextType.SECTION) && isLocalCandidate(entry)) {
+				/*
+				 * The entry is bound to a local so that the null check and every part of
+				 * the path use the local instead of calling the accessor repeatedly.
+				 */
+				VariableContext variableContext = enclosing.createEnclosedVariableContext();
+				String localName = variableContext.introduceNewNameLike(memberName(entry) + "Value");
+				var local = new LocalRenderingContext(entry, localName, enclosing);
+				enclosing = new VariablesRenderingContext(variableContext, local);
+				entry = local.local();
+			}
+		}
 		RenderingContext enclosedField;
 		enclosedField = switch (childType) {
 			case ESCAPED_VAR, UNESCAPED_VAR, SECTION, SECTION_VAR, PATH ->
@@ -415,6 +467,169 @@ public class TemplateCompilerContext {
 		return enclosedField;
 	}
 
+	/*
+	 * Caches the section if the accessor is annotated with JStacheCached. Zero dependency
+	 * renderers cannot use the cache as it is part of the runtime.
+	 */
+	private @Nullable CachedRenderingContext cache(String name, JavaExpression entry, RenderingContext enclosing) {
+		var element = entry.element();
+		if (element == null) {
+			return null;
+		}
+		var prism = JStacheCachedPrism.getInstanceOn(element);
+		if (prism == null) {
+			return null;
+		}
+		var formatCallType = generator.getFormatCallType();
+		if (formatCallType == FormatCallType.STACHE) {
+			templateStack.logging().debug("Ignoring JStacheCached for zero dependency renderer: ", name);
+			return null;
+		}
+		boolean encoded = formatCallType == FormatCallType.JSTACHIO_BYTE;
+		String fragmentId = templateStack.getModelClass().getBinaryName() + "#" + name + "@" + variables.nextFragment();
+		return new CachedRenderingContext(entry, name, fragmentId, prism.ttlSeconds(), encoded, variables, enclosing);
+	}
+
+	private static final Pattern HOISTABLE_PATTERN = Pattern
+			.compile("^([A-Za-z_$][\\w$]*)\\.([A-Za-z_$][\\w$]*)(\\(\\))?$");
+
+	private static final Pattern LOCAL_PATTERN = Pattern.compile("^[A-Za-z_$][\\w$]*$");
+
+	/*
+	 * Hoists an accessor out of the outermost loop it is invariant in. Only single
+	 * accessor calls on the root model or on an already hoisted local are hoisted as
+	 * those are the only expressions known to be in scope before the loop.
+	 */
+	private @Nullable JavaExpression hoist(HoistedExpressions hoisted, JavaExpression entry,
+			RenderingContext enclosing) {
+		var matcher = HOISTABLE_PATTERN.matcher(entry.text());
+		if (!matcher.matches()) {
+			return null;
+		}
+		String base = matcher.group(1);
+		String text = entry.text();
+		final int loop;
+		final String declaration;
+		int baseLoop = hoisted.loopOf(base);
+		if (baseLoop >= 0) {
+			if (entry.type().getKind().isPrimitive()) {
+				return null;
+			}
+			loop = baseLoop;
+			declaration = base + " == null ? null : " + text;
+		}
+		else {
+			int outermost = -1;
+			RootRenderingContext root = null;
+			@Nullable
+			RenderingContext c = enclosing;
+			while (c != null) {
+				if (c instanceof HoistedExpressions.Loop l && l.hoistLoop() >= 0) {
+					outermost = l.hoistLoop();
+				}
+				if (c instanceof RootRenderingContext r) {
+					root = r;
+				}
+				c = c.getParent();
+			}
+			if (outermost < 0 || root == null || !root.rootExpression().text().equals(base)) {
+				return null;
+			}
+			loop = outermost;
+			declaration = text;
+		}
+		String name = hoisted.find(loop, text);
+		if (name == null) {
+			name = variables.introduceNewNameLike(memberName(entry) + "Hoisted");
+			hoisted.declare(loop, text, name, entry.type(), "var " + name + " = " + declaration + ";");
+		}
+		return entry.local(name);
+	}
+
+	private boolean isLocalCandidate(JavaExpression entry) {
+		if (entry.type().getKind() != TypeKind.DECLARED || LOCAL_PATTERN.matcher(entry.text()).matches()) {
+			return false;
+		}
+		var knownTypes = generator.javaModel.knownTypes();
+		return !generator.javaModel.isType(entry.type(), knownTypes._Iterable);
+	}
+
+	private static String memberName(JavaExpression entry) {
+		String path = entry.path();
+		int i = path.lastIndexOf('.');
+		String member = i < 0 ? path : path.substring(i + 1);
+		return LOCAL_PATTERN.matcher(member).matches() ? member : "value";
+	}
+
+	/**
+	 * Declares the accessors hoisted out of loops if hoisting is enabled.
+	 * @param code the generated method body.
+	 * @return code with hoisted declarations.
+	 */
+	public String resolveHoisted(String code) {
+		return variables.resolveHoisted(code);
+	}
+
+	/**
+	 * Whether the renderer needs the generated await method.
+	 * @return true if the compiled template waits on a future.
+	 * @see VariableContext#isAwaitUsed()
+	 */
+	public boolean isAwaitUsed() {
+		return variables.isAwaitUsed();
+	}
+
+	/**
+	 * The static format methods the renderer needs.
+	 * @return parameter types of the called format methods.
+	 * @see VariableContext#formatOverloads()
+	 */
+	public Set<String> formatOverloads() {
+		return variables.formatOverloads();
+	}
+
+	/**
+	 * Registers the code generated next, which is the body of the current section, block
+	 * or partial, as a region that can be moved to its own method if the generated method
+	 * is too big.
+	 * @return region id.
+	 */
+	public int newOutline() {
+		RenderingContext c = this.context;
+		String packageName = templateStack.getModelClass().getPackageName();
+		return variables.addOutline(() -> localVariables(c, packageName));
+	}
+
+	/**
+	 * The local variables in scope of a region that have to be passed to the method the
+	 * region is moved to.
+	 * @param id region id.
+	 * @return names to types of the locals or <code>null</code> if the region cannot be
+	 * moved.
+	 * @see #newOutline()
+	 */
+	public @Nullable Map<String, String> outlineLocals(int id) {
+		return variables.outlineLocals(id);
+	}
+
+	private @Nullable Map<String, String> localVariables(RenderingContext context, String packageName) {
+		var locals = new LocalVariables(packageName);
+		var hoisted = variables.hoisted();
+		@Nullable
+		RenderingContext c = context;
+		while (c != null) {
+			if (!c.addLocals(locals)) {
+				return null;
+			}
+			if (hoisted != null && c instanceof HoistedExpressions.Loop l && l.hoistLoop() >= 0
+					&& !hoisted.addLocals(l.hoistLoop(), locals)) {
+				return null;
+			}
+			c = c.getParent();
+		}
+		return locals.toMap();
+	}
+
 	public boolean isEnclosed() {
 		return enclosedRelation != null;
 	}
@@ -29,11 +29,15 @@
  */
 package io.jstach.apt.internal.context;
 
+import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 import java.util.TreeMap;
+import java.util.function.Supplier;
 
 import org.eclipse.jdt.annotation.Nullable;
 
@@ -53,7 +57,32 @@ public class VariableContext {
 
 	public static String TEXT = "TEXT";
 
+	public static String AWAIT_METHOD = "__await";
+
 	public static VariableContext createDefaultContext(NullChecking nullChecking) {
+		return createDefaultContext(nullChecking, false);
+	}
+
+	/**
+	 * Creates the root variable context of a generated method.
+	 * @param nullChecking null checking strategy
+	 * @param hoisting whether or not accessors can be cached in local variables.
+	 * @return root context
+	 */
+	public static VariableContext createDefaultContext(NullChecking nullChecking, boolean hoisting) {
+		return createDefaultContext(nullChecking, hoisting, null);
+	}
+
+	/**
+	 * Creates the root variable context of a generated method.
+	 * @param nullChecking null checking strategy
+	 * @param hoisting whether or not accessors can be cached in local variables.
+	 * @param packedTextCharset if not null the pre-encoded text will be packed into blobs
+	 * if the charset allows it.
+	 * @return root context
+	 */
+	public static VariableContext createDefaultContext(NullChecking nullChecking, boolean hoisting,
+			@Nullable Charset packedTextCharset) {
 		TreeMap<String, Integer> variables = new TreeMap<>();
 		variables.put(ESCAPER, 1);
 		variables.put(APPENDER, 1);
@@ -63,7 +92,7 @@ public class VariableContext {
 		variables.put(CONTEXT, 1);
 
 		return new RootVariableContext(APPENDER, ESCAPER, APPENDABLE, FORMATTER, TEMPLATE, CONTEXT, variables,
-				nullChecking);
+				nullChecking, hoisting ? new HoistedExpressions() : null, PackedText.of(packedTextCharset));
 	}
 
 	private final String appender;
@@ -126,12 +155,152 @@ public class VariableContext {
 
 		private List<String> textCodes = new ArrayList<>();
 
+		private final @Nullable HoistedExpressions hoisted;
+
+		private final @Nullable PackedText packedText;
+
+		private boolean contextUsed;
+
+		private boolean awaitUsed;
+
+		private final Set<String> formatOverloads = new HashSet<>();
+
+		private int fragments;
+
+		private final List<Supplier<@Nullable Map<String, String>>> outlines = new ArrayList<>();
+
 		RootVariableContext(String appender, String escaper, String unescapedWriter, String formatter, String template,
-				String context, Map<String, Integer> variables, NullChecking nullChecking) {
+				String context, Map<String, Integer> variables, NullChecking nullChecking,
+				@Nullable HoistedExpressions hoisted, @Nullable PackedText packedText) {
 			super(appender, escaper, unescapedWriter, formatter, template, context, variables, null, true,
 					nullChecking);
+			this.hoisted = hoisted;
+			this.packedText = packedText;
+		}
+
+	}
+
+	/**
+	 * Expressions hoisted out of loops if enabled.
+	 * @return hoisted expressions or <code>null</code> if hoisting is disabled.
+	 */
+	@Nullable
+	HoistedExpressions hoisted() {
+		@Nullable
+		VariableContext p = this;
+		while (p != null) {
+			if (p instanceof RootVariableContext r) {
+				return r.hoisted;
+			}
+			p = p.parent;
+		}
+		return null;
+	}
+
+	/**
+	 * Replaces the hoisting markers of loops with the declarations of the hoisted
+	 * expressions.
+	 * @param code generated method body.
+	 * @return code with the declarations.
+	 */
+	public String resolveHoisted(String code) {
+		var h = hoisted();
+		if (h == null) {
+			return code;
+		}
+		return h.replaceMarkers(code);
+	}
+
+	private RootVariableContext root() {
+		@Nullable
+		VariableContext p = this;
+		while (p != null) {
+			if (p instanceof RootVariableContext r) {
+				return r;
+			}
+			p = p.parent;
 		}
+		throw new IllegalStateException("bug");
+	}
+
+	/**
+	 * Marks the context node as used by the template.
+	 */
+	void markContextUsed() {
+		root().contextUsed = true;
+	}
+
+	/**
+	 * Whether or not the template (including partials and lambdas) uses the context node
+	 * which is known only after the template is compiled.
+	 * @return true if <code>@context</code> is referenced.
+	 */
+	public boolean isContextUsed() {
+		return root().contextUsed;
+	}
+
+	/**
+	 * Marks the generated await method as used by the template.
+	 */
+	void markAwaitUsed() {
+		root().awaitUsed = true;
+	}
+
+	/**
+	 * Whether or not the template waits on a {@link java.util.concurrent.Future} that is
+	 * not a {@link java.util.concurrent.CompletionStage} which requires the renderer to
+	 * have the await method.
+	 * @return true if the await method is called.
+	 */
+	public boolean isAwaitUsed() {
+		return root().awaitUsed;
+	}
+
+	/**
+	 * Marks the generated static format method taking the parameter type as used.
+	 * @param parameterType simple name of the type of the formatted value.
+	 */
+	void markFormatUsed(String parameterType) {
+		root().formatOverloads.add(parameterType);
+	}
 
+	/**
+	 * The parameter types of the generated static format methods the template calls so
+	 * that only those methods are generated.
+	 * @return simple names of the types of the formatted values.
+	 */
+	public Set<String> formatOverloads() {
+		return root().formatOverloads;
+	}
+
+	/**
+	 * Numbers the cached sections of the generated method.
+	 * @return the next number.
+	 */
+	int nextFragment() {
+		return root().fragments++;
+	}
+
+	/**
+	 * Registers a region of the generated method that can be moved to its own method.
+	 * @param locals computes the locals in scope of the region. It is called once the
+	 * method is generated as loops declare hoisted locals while their body is compiled.
+	 * @return region id.
+	 */
+	int addOutline(Supplier<@Nullable Map<String, String>> locals) {
+		var outlines = root().outlines;
+		outlines.add(locals);
+		return outlines.size() - 1;
+	}
+
+	/**
+	 * The local variables in scope of a region.
+	 * @param id region id.
+	 * @return names to types of the locals or <code>null</code> if the region cannot be
+	 * moved.
+	 */
+	public @Nullable Map<String, String> outlineLocals(int id) {
+		return root().outlines.get(id).get();
 	}
 
 	public List<String> textCodes() {
@@ -155,6 +324,31 @@ public class VariableContext {
 		return results;
 	}
 
+	/**
+	 * The blobs of packed pre-encoded text.
+	 * @return entries of variable name and string literal code or empty if not packed.
+	 */
+	public List<Entry<String, String>> packedTextVariables() {
+		var packed = root().packedText;
+		if (packed == null) {
+			return List.of();
+		}
+		return packed.blobVariables();
+	}
+
+	/**
+	 * Adds text to be written as pre-encoded bytes.
+	 * @param textCode java string literal code
+	 * @return the arguments to pass to the write method of the encoded output.
+	 */
+	String addEncodedText(String textCode) {
+		var packed = root().packedText;
+		if (packed == null) {
+			return addTextCode(textCode);
+		}
+		return packed.add(textCode);
+	}
+
 	public String addTextCode(String textCode) {
 		var codes = textCodes();
 		int i = codes.indexOf(textCode);
@@ -198,7 +392,11 @@ public class VariableContext {
 	}
 
 	VariableContext unescaped() {
-		return new VariableContext(appender, appender, unescapedWriter, formatter, template, context, variables, parent,
+		/*
+		 * The variables are shared and this is the parent so that the root is still
+		 * reachable when this is the root.
+		 */
+		return new VariableContext(appender, appender, unescapedWriter, formatter, template, context, variables, this,
 				false, nullChecking);
 	}
 
@@ -237,6 +435,15 @@ public class VariableContext {
 		}
 	}
 
+	/*
+	 * A child context that writes to a different output such as the buffer of a cached
+	 * section.
+	 */
+	VariableContext withUnescapedWriter(String writer) {
+		return new VariableContext(appender, escaper, writer, formatter, template, context,
+				new TreeMap<String, Integer>(), this, escaped, nullChecking);
+	}
+
 	VariableContext createEnclosedContext() {
 		return new VariableContext(appender, escaper, unescapedWriter, formatter, template, context,
 				new TreeMap<String, Integer>(), this, true, nullChecking);
@@ -32,11 +32,16 @@ package io.jstach.apt.internal.context.types;
 import java.net.URI;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
 
 import javax.lang.model.type.TypeKind;
 import javax.lang.model.util.Elements;
@@ -74,6 +79,14 @@ public class KnownTypes implements TypesMixin {
 
 	public final ObjectType _Optional;
 
+	public final ObjectType _Supplier;
+
+	public final ObjectType _CompletionStage;
+
+	public final ObjectType _CompletableFuture;
+
+	public final ObjectType _Future;
+
 	public final ObjectType _Integer;
 
 	public final ObjectType _Short;
@@ -96,6 +109,8 @@ public class KnownTypes implements TypesMixin {
 
 	public final ObjectType _List;
 
+	public final ObjectType _Collection;
+
 	public final ObjectType _Map;
 
 	public final Optional<ObjectType> _ContextNode;
@@ -150,6 +165,10 @@ public class KnownTypes implements TypesMixin {
 		_Error = b.objectType(Error.class);
 		_RuntimeException = b.objectType(RuntimeException.class);
 		_Optional = b.objectType(Optional.class);
+		_Supplier = b.objectType(Supplier.class);
+		_CompletionStage = b.objectType(CompletionStage.class);
+		_CompletableFuture = b.objectType(CompletableFuture.class);
+		_Future = b.objectType(Future.class);
 
 		// Custom types that may not be there.
 		_ContextNode = b.optionalObjectType(Prisms.CONTEXT_NODE_CLASS);
@@ -159,6 +178,7 @@ public class KnownTypes implements TypesMixin {
 		// _Iterable
 		_Iterable = b.objectType(Iterable.class);
 		_List = b.objectType(List.class);
+		_Collection = b.objectType(Collection.class);
 
 		_Map = b.objectType(Map.class);
 		_UUID = b.objectType(UUID.class);
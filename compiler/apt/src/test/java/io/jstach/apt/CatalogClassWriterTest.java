@@ -3,7 +3,6 @@ package io.jstach.apt;
 import static org.junit.Assert.assertEquals;
 
 import java.io.IOException;
-import java.util.List;
 
 import org.junit.Test;
 
@@ -15,9 +14,9 @@ public class CatalogClassWriterTest {
 	public void testWrite() throws IOException, ProcessingException {
 		StringBuilder sb = new StringBuilder();
 		CatalogClassWriter w = new CatalogClassWriter("com.company", "MyCatalog");
-		w.addTemplateClasses(List.of("com.company.tmp.MyTemplate"));
-		w.addTemplateClasses(List.of("com.company.tmp.MyTemplate"));
-		w.addTemplateClasses(List.of("com.company.tmp.AnotherTemplate"));
+		w.addTemplate("com.company.tmp.MyTemplate", "com.company.tmp.My");
+		w.addTemplate("com.company.tmp.MyTemplate", "com.company.tmp.My");
+		w.addTemplate("com.company.tmp.AnotherTemplate", "com.company.tmp.Outer$Another");
 		w.write(sb);
 
 		String expected = """
@@ -40,6 +39,16 @@ public class CatalogClassWriterTest {
 				        new com.company.tmp.AnotherTemplate(templateConfig), //
 				        new com.company.tmp.MyTemplate(templateConfig));
 				    }
+
+				    @Override
+				    public io.jstach.jstachio.Template<?> findTemplateOrNull(java.lang.Class<?> modelType, io.jstach.jstachio.TemplateConfig templateConfig) {
+				        io.jstach.jstachio.Template<?> template = switch (modelType.getName()) {
+				            case "com.company.tmp.Outer$Another" -> new com.company.tmp.AnotherTemplate(templateConfig);
+				            case "com.company.tmp.My" -> new com.company.tmp.MyTemplate(templateConfig);
+				            default -> null;
+				        };
+				        return template != null && template.modelClass() == modelType ? template : null;
+				    }
 				}
 				""";
 		String actual = sb.toString();
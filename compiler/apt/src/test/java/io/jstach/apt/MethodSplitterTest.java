@@ -0,0 +1,109 @@
+package io.jstach.apt;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import io.jstach.apt.MethodSplitter.Method;
+
+public class MethodSplitterTest {
+
+	@Test
+	public void testUnderBudgetIsNotSplit() {
+		String body = """
+				a();
+				// split point
+				// outline start 0
+				b();
+				// outline end 0
+				""";
+		var actual = MethodSplitter.split("__render", "data", id -> Map.of(), body, MethodSplitter.DEFAULT_BUDGET);
+		assertEquals(List.of(new Method(null, Map.of(), "a();\nb();\n")), actual);
+	}
+
+	@Test
+	public void testOverBudgetIsSplit() {
+		String body = """
+				a();
+				  // split point
+				if (x) { b(); }
+				// split point
+				c("; {");
+				""";
+		var actual = MethodSplitter.split("__render", "data", id -> Map.of(), body, 32);
+		var expected = List.of( //
+				new Method(null, Map.of(), """
+						        __render0(data);
+						        __render1(data);
+						        __render2(data);
+						"""), //
+				new Method("__render0", Map.of(), "a();\n"), //
+				new Method("__render1", Map.of(), "if (x) { b(); }\n"), //
+				new Method("__render2", Map.of(), "c(\"; {\");\n"));
+		assertEquals(expected, actual);
+	}
+
+	@Test
+	public void testSplitPointInBlockIsNotUsed() {
+		String body = """
+				for (var e : list) {
+				// split point
+				a(e);
+				// split point
+				b(e);
+				}
+				""";
+		var actual = MethodSplitter.split("__render", "data", id -> Map.of(), body, 16);
+		assertEquals(List.of(new Method(null, Map.of(), "for (var e : list) {\na(e);\nb(e);\n}\n")), actual);
+	}
+
+	@Test
+	public void testRegionIsOutlinedWithUsedLocals() {
+		String body = """
+				a();
+				for (var element : list) {
+				// outline start 0
+				b(element);
+				// outline start 1
+				c(element);
+				// outline end 1
+				// outline end 0
+				}
+				""";
+		Map<String, String> locals = Map.of("element", "String", "list", "java.util.List<String>");
+		var actual = MethodSplitter.split("__render", "data", id -> locals, body, 48);
+		var expected = List.of( //
+				new Method(null, Map.of(), """
+						a();
+						for (var element : list) {
+						        __render0(data, element);
+						}
+						"""), //
+				new Method("__render0", Map.of("element", "String"), "b(element);\nc(element);\n"));
+		assertEquals(expected, actual);
+	}
+
+	@Test
+	public void testRegionThatCannotBeMovedIsNotOutlined() {
+		String body = """
+				for (var element : list) {
+				// outline start 0
+				b(element);
+				c(element);
+				// outline end 0
+				}
+				""";
+		var actual = MethodSplitter.split("__render", "data", id -> null, body, 16);
+		assertEquals(List.of(new Method(null, Map.of(), "for (var element : list) {\nb(element);\nc(element);\n}\n")),
+				actual);
+	}
+
+	@Test
+	public void testEstimateIgnoresLiteralsAndComments() {
+		assertEquals(16, MethodSplitter.estimate("a(\"; { ;\", ';'); // ; {\n/* ; */"));
+	}
+
+}
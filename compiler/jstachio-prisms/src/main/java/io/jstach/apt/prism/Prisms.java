@@ -43,6 +43,16 @@ public interface Prisms {
 	 */
 	public static final String JSTACHE_FLAGS_CONTEXT_SUPPORT_DISABLE = "jstache.context_support_disable";
 
+	/**
+	 * Generated
+	 */
+	public static final String JSTACHE_FLAGS_HOIST_ACCESSORS = "jstache.hoist_accessors";
+
+	/**
+	 * Generated
+	 */
+	public static final String JSTACHE_FLAGS_PACK_TEXT = "jstache.pack_text";
+
 	/**
 	 * Generated
 	 */
@@ -88,6 +98,11 @@ public interface Prisms {
 	 */
 	public static final String JSTACHE_INDEX_JMUSTACHE_BINDING_NAME = "-index";
 
+	/**
+	 * Generated
+	 */
+	public static final String JSTACHE_FLUSH_BINDING_NAME = "@flush";
+
 	/**
 	 * Generated
 	 */
@@ -167,6 +182,14 @@ public interface Prisms {
 		 * Generated
 		 */
 		CONTEXT_SUPPORT_DISABLE, //
+		/**
+		 * Generated
+		 */
+		HOIST_ACCESSORS, //
+		/**
+		 * Generated
+		 */
+		PACK_TEXT, //
 
 	}
 
@@ -317,6 +340,11 @@ public interface Prisms {
 	 */
 	public static final String PLAIN_TEXT_CLASS = "io.jstach.jstachio.escapers.PlainText";
 
+	/**
+	 * Generated
+	 */
+	public static final String FRAGMENT_CACHE_CLASS = "io.jstach.jstachio.FragmentCache";
+
 	/* Annotation classes */
 	/**
 	 * Generated
@@ -388,6 +416,11 @@ public interface Prisms {
 	 */
 	public static final String JSTACHE_FLAGS_CLASS = "io.jstach.jstache.JStacheFlags";
 
+	/**
+	 * Generated
+	 */
+	public static final String JSTACHE_CACHED_CLASS = "io.jstach.jstache.JStacheCached";
+
 	/**
 	 * Generated
 	 */
@@ -405,7 +438,8 @@ public interface Prisms {
 			JSTACHE_CONTENT_TYPE_CLASS, //
 			JSTACHE_FORMATTER_CLASS, //
 			JSTACHE_FORMATTER_TYPES_CLASS, //
-			JSTACHE_FLAGS_CLASS //
+			JSTACHE_FLAGS_CLASS, //
+			JSTACHE_CACHED_CLASS //
 	);
 
 }
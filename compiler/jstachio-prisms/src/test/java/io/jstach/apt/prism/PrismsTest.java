@@ -25,6 +25,7 @@ import io.jstach.jstache.JStacheType;
 import io.jstach.jstachio.Appender;
 import io.jstach.jstachio.Escaper;
 import io.jstach.jstachio.Formatter;
+import io.jstach.jstachio.FragmentCache;
 import io.jstach.jstachio.Output;
 import io.jstach.jstachio.Renderer;
 import io.jstach.jstachio.Template;
@@ -250,7 +251,8 @@ public class PrismsTest {
 				UnspecifiedFormatter.class, //
 				UnspecifiedContentType.class, //
 				Html.class, //
-				PlainText.class //
+				PlainText.class, //
+				FragmentCache.class //
 
 		);
 	}
@@ -270,7 +272,8 @@ public class PrismsTest {
 				io.jstach.jstache.JStacheContentType.class, //
 				io.jstach.jstache.JStacheFormatter.class, //
 				io.jstach.jstache.JStacheFormatterTypes.class, //
-				io.jstach.jstache.JStacheFlags.class //
+				io.jstach.jstache.JStacheFlags.class, //
+				io.jstach.jstache.JStacheCached.class //
 		);
 	}
 
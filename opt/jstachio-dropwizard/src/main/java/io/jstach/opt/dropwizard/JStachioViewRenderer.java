@@ -14,6 +14,9 @@ import io.dropwizard.views.common.ViewRenderException;
 import io.dropwizard.views.common.ViewRenderer;
 import io.jstach.jstachio.JStachio;
 import io.jstach.jstachio.Output.EncodedOutput;
+import io.jstach.jstachio.Template;
+import io.jstach.jstachio.output.BufferedEncodedOutputPool;
+import io.jstach.jstachio.output.OutputSizeHint;
 import io.jstach.jstachio.spi.JStachioConfig;
 import io.jstach.jstachio.spi.JStachioExtension;
 import io.jstach.jstachio.spi.JStachioFactory;
@@ -27,7 +30,8 @@ import io.jstach.jstachio.spi.JStachioFactory;
  * <pre><code class="language-java">
  * JStachio jstachio = ...; // See JStachioFactory
  * bootstrap.addBundle(new ViewBundle&lt;&gt;(new JStachioViewRenderer(jstachio)));
- * </code> </pre>
+ * </code> </pre> A {@link BufferedEncodedOutputPool} can also be passed so that views are
+ * rendered into pooled buffers before being written to the response.
  *
  * @author agentgt
  */
@@ -36,11 +40,13 @@ public class JStachioViewRenderer implements ViewRenderer {
 
 	private @Nullable JStachio jstachio = null;
 
+	private final @Nullable BufferedEncodedOutputPool bufferPool;
+
 	/**
 	 * ServiceLoader will call this
 	 */
 	public JStachioViewRenderer() {
-		// Empty on purpose (placate sonar)
+		this.bufferPool = null;
 	}
 
 	/**
@@ -49,7 +55,20 @@ public class JStachioViewRenderer implements ViewRenderer {
 	 * @see JStachioFactory
 	 */
 	public JStachioViewRenderer(JStachio jstachio) {
+		this(jstachio, null);
+	}
+
+	/**
+	 * Programmatically create the renderer with the given jstachio that will render views
+	 * into buffers from the pool if the view charset matches the pool charset.
+	 * @param jstachio a jstachio instance.
+	 * @param bufferPool if not null used to buffer the rendering of views.
+	 * @see JStachioFactory
+	 * @see BufferedEncodedOutputPool
+	 */
+	public JStachioViewRenderer(JStachio jstachio, @Nullable BufferedEncodedOutputPool bufferPool) {
 		this.jstachio = jstachio;
+		this.bufferPool = bufferPool;
 	}
 
 	@Override
@@ -60,6 +79,28 @@ public class JStachioViewRenderer implements ViewRenderer {
 	@Override
 	public void render(View view, Locale locale, OutputStream output) throws IOException {
 		if (view instanceof JStachioView jv) {
+			var pool = this.bufferPool;
+			if (pool != null && pool.charset().equals(jv.charset())) {
+				var j = jstachio();
+				var model = jv.model();
+				Template<Object> template;
+				try {
+					template = j.findTemplate(model);
+				}
+				catch (IOException | RuntimeException e) {
+					throw e;
+				}
+				catch (Exception e) {
+					throw new ViewRenderException("Template not found for JStachioView: " + view, e);
+				}
+				OutputSizeHint sizeHint = OutputSizeHint.of(template);
+				try (var buffer = pool.acquire(sizeHint.sizeHint(0))) {
+					j.write(model, buffer);
+					sizeHint.record(buffer.size());
+					buffer.transferTo(output);
+				}
+				return;
+			}
 			try (var out = EncodedOutput.of(output, jv.charset())) {
 				jstachio().write(jv.model(), out);
 			}
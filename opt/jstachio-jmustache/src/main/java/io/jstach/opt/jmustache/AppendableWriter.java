@@ -0,0 +1,65 @@
+package io.jstach.opt.jmustache;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.CharBuffer;
+
+/*
+ * Lets JMustache write directly to the output instead of to an intermediate String.
+ */
+final class AppendableWriter extends Writer {
+
+	private final Appendable appendable;
+
+	private AppendableWriter(Appendable appendable) {
+		this.appendable = appendable;
+	}
+
+	static Writer of(Appendable appendable) {
+		if (appendable instanceof Writer w) {
+			return w;
+		}
+		return new AppendableWriter(appendable);
+	}
+
+	@Override
+	public void write(int c) throws IOException {
+		appendable.append((char) c);
+	}
+
+	@Override
+	public void write(String str) throws IOException {
+		appendable.append(str);
+	}
+
+	@Override
+	public void write(String str, int off, int len) throws IOException {
+		appendable.append(str, off, off + len);
+	}
+
+	@Override
+	public void write(char[] cbuf, int off, int len) throws IOException {
+		appendable.append(CharBuffer.wrap(cbuf, off, len));
+	}
+
+	@Override
+	public Writer append(CharSequence csq) throws IOException {
+		appendable.append(csq);
+		return this;
+	}
+
+	@Override
+	public Writer append(CharSequence csq, int start, int end) throws IOException {
+		appendable.append(csq, start, end);
+		return this;
+	}
+
+	@Override
+	public void flush() throws IOException {
+	}
+
+	@Override
+	public void close() throws IOException {
+	}
+
+}
@@ -29,8 +29,6 @@ class CompilerAdapter {
 
 	private final Map<String, JStachePartial> partials;
 
-	private String sectionBody = null;
-
 	public CompilerAdapter(TemplateInfo template, Class<?> modelClass, Loader loader) {
 		this.compiler = Mustache.compiler() //
 				.standardsMode(false) //
@@ -58,9 +56,6 @@ class CompilerAdapter {
 
 		@Override
 		public Reader getTemplate(String name) throws Exception {
-			if (sectionBody != null && JStacheLambda.SECTION_PARTIAL_NAME.equals(name)) {
-				return new StringReader(sectionBody);
-			}
 			var partial = partials.get(name);
 			if (partial != null) {
 				return openPartial(partial);
@@ -82,9 +77,18 @@ class CompilerAdapter {
 		return loader.openPartial(fullPath);
 	}
 
+	/*
+	 * JMustache loads partials lazily while the template executes so the section body has
+	 * to be captured by a loader of its own rather than shared by the cached compiler.
+	 */
 	Template compileForLambda(String template, String sectionBody) {
-		this.sectionBody = sectionBody;
-		return this.compiler.compile(template);
+		TemplateLoader sectionLoader = name -> {
+			if (JStacheLambda.SECTION_PARTIAL_NAME.equals(name)) {
+				return new StringReader(sectionBody);
+			}
+			return this.compiler.loader.getTemplate(name);
+		};
+		return this.compiler.withLoader(sectionLoader).compile(template);
 	}
 
 	public Template compile(Reader br) {
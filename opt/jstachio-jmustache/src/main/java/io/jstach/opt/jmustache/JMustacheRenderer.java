@@ -4,6 +4,9 @@ import java.io.IOException;
 import java.io.Reader;
 import java.lang.System.Logger;
 import java.lang.System.Logger.Level;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.eclipse.jdt.annotation.Nullable;
@@ -77,12 +80,14 @@ public class JMustacheRenderer extends AbstractJStacheEngine {
 
 	private volatile @Nullable String suffix = null;
 
-	private String sourcePath = "src/main/resources";
+	private volatile String sourcePath = "src/main/resources";
 
 	private Logger logger = JStachioConfig.noopLogger();
 
 	private long initTime = System.currentTimeMillis();
 
+	private final ConcurrentHashMap<CacheKey, CompiledTemplate> cache = new ConcurrentHashMap<>();
+
 	/**
 	 * Enables JMustache
 	 * @param flag true enables
@@ -122,6 +127,7 @@ public class JMustacheRenderer extends AbstractJStacheEngine {
 	 */
 	public JMustacheRenderer sourcePath(String sourcePath) {
 		this.sourcePath = sourcePath;
+		clearCache();
 		return this;
 	}
 
@@ -159,8 +165,18 @@ public class JMustacheRenderer extends AbstractJStacheEngine {
 
 	}
 
-	private CompilerAdapter createCompiler(TemplateInfo template, Class<?> modelClass) {
-		Loader loader = new Loader(logger, sourcePath, initTime);
+	/**
+	 * Clears the compiled template cache. Compiled templates are normally recompiled when
+	 * the last modified time of the template file or any of its partial files changes or
+	 * when the template info is reloaded (its {@link TemplateInfo#lastLoaded()} or
+	 * {@link TemplateInfo#templateString()} changes). The cache is also cleared when the
+	 * {@linkplain #sourcePath(String) source path} changes.
+	 */
+	public void clearCache() {
+		cache.clear();
+	}
+
+	private CompilerAdapter createCompiler(TemplateInfo template, Class<?> modelClass, Loader loader) {
 		return new CompilerAdapter(template, modelClass, loader);
 	}
 
@@ -170,23 +186,60 @@ public class JMustacheRenderer extends AbstractJStacheEngine {
 			return false;
 		}
 
-		Loader loader = new Loader(logger, sourcePath, initTime);
+		var key = new CacheKey(context.getClass(), template.getClass(), template.templatePath(), broken);
+		var compiled = cache.get(key);
+		String sourcePath = this.sourcePath;
+
+		if (compiled == null || !compiled.isCurrent(template, sourcePath)) {
+			Loader loader = new Loader(logger, sourcePath, initTime);
+			Reader reader = loader.open(template, broken);
+			if (reader == null) {
+				cache.remove(key);
+				return false;
+			}
+			Template t;
+			try (reader) {
+				t = createCompiler(template, context.getClass(), loader).compile(reader);
+			}
+			compiled = new CompiledTemplate(t, loader.dependencies(), sourcePath, template.lastLoaded(),
+					template.templateString());
+			cache.put(key, compiled);
+		}
+		if (prefix != null) {
+			a.append(prefix);
+		}
+		compiled.template().execute(context, AppendableWriter.of(a));
+		if (suffix != null) {
+			a.append(suffix);
+		}
+		return true;
+	}
+
+	private record CacheKey(Class<?> modelClass, Class<?> templateClass, String templatePath, boolean broken) {
+	}
 
-		Reader reader = loader.open(template, broken);
+	/*
+	 * A template is current if it was compiled from the same source path and template
+	 * info and none of the files it was compiled from have been modified. The template
+	 * string is usually a constant of the generated renderer so the equals check is
+	 * mostly an identity check.
+	 */
+	private record CompiledTemplate(Template template, Map<Path, Long> dependencies, String sourcePath, long lastLoaded,
+			String templateString) {
 
-		if (reader != null) {
-			Template t = createCompiler(template, context.getClass()).compile(reader);
-			String result = t.execute(context);
-			if (prefix != null) {
-				a.append(prefix);
+		boolean isCurrent(TemplateInfo info, String sourcePath) {
+			if (!this.sourcePath.equals(sourcePath) || this.lastLoaded != info.lastLoaded()
+					|| !this.templateString.equals(info.templateString())) {
+				return false;
 			}
-			a.append(result);
-			if (suffix != null) {
-				a.append(suffix);
+			for (var e : dependencies.entrySet()) {
+				if (e.getKey().toFile().lastModified() != e.getValue()) {
+					return false;
+				}
 			}
 			return true;
 		}
-		return false;
+
 	}
 
 }
@@ -11,7 +11,9 @@ import java.lang.System.Logger.Level;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.jdt.annotation.Nullable;
 
@@ -26,6 +28,12 @@ class Loader {
 
 	private final long initTime;
 
+	/*
+	 * Files opened by this loader and their last modified time when opened. Lambdas can
+	 * open partials after the template is compiled hence concurrent.
+	 */
+	private final Map<Path, Long> dependencies = new ConcurrentHashMap<>();
+
 	public Loader(Logger logger, String sourcePath, long initTime) {
 		super();
 		this.logger = logger;
@@ -77,6 +85,7 @@ class Loader {
 	}
 
 	protected InputStream openFile(Path path) throws IOException {
+		dependencies.put(path, path.toFile().lastModified());
 		InputStream is = Files.newInputStream(path);
 		if (logger.isLoggable(Level.INFO)) {
 			logger.log(Level.INFO, "Using JMustache. template:" + "file " + path);
@@ -96,6 +105,14 @@ class Loader {
 		return is;
 	}
 
+	/**
+	 * The files opened so far with their last modified time.
+	 * @return live view of files opened.
+	 */
+	public Map<Path, Long> dependencies() {
+		return dependencies;
+	}
+
 	public String getSourcePath() {
 		return sourcePath;
 	}
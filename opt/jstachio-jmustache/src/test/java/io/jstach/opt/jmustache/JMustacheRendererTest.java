@@ -3,22 +3,33 @@ package io.jstach.opt.jmustache;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.fail;
 
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
+import org.eclipse.jdt.annotation.Nullable;
 import org.junit.Test;
 
 import io.jstach.jstache.JStache;
 import io.jstach.jstache.JStacheLambda;
 import io.jstach.jstachio.JStachio;
 import io.jstach.jstachio.Output;
+import io.jstach.jstachio.TemplateInfo;
 import io.jstach.jstachio.context.ContextJStachio;
 import io.jstach.jstachio.context.ContextNode;
 import io.jstach.jstachio.spi.JStachioExtensions;
 import io.jstach.jstachio.spi.JStachioFactory;
+import io.jstach.jstachio.spi.Templates;
 
 public class JMustacheRendererTest {
 
@@ -120,6 +131,48 @@ public class JMustacheRendererTest {
 		assertEquals(expected, actual);
 	}
 
+	@JStache(template = """
+			{{#lambda}}<a>{{name}}</a>{{/lambda}}|{{#lambda}}<b>{{name}}</b>{{/lambda}}""")
+	public record ConcurrentLambdaModel(String message) {
+
+		@JStacheLambda(template = "{{#list}}{{>@section}}{{/list}}")
+		public LambdaSectionPartialModel.LambdaModel lambda(Object o) {
+			return new LambdaSectionPartialModel.LambdaModel(List.of(new LambdaSectionPartialModel.Model(message)));
+		}
+	}
+
+	@Test
+	public void testSectionPartialConcurrently() throws Exception {
+		JMustacheRenderer jmustacheExt = jmustache();
+		jmustacheExt.use(true).prefix(null);
+		int threads = 8;
+		int renders = 500;
+		var executor = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int t = 0; t < threads; t++) {
+				int seed = t;
+				futures.add(executor.submit(() -> {
+					for (int i = 0; i < renders; i++) {
+						String name = "n" + seed + "_" + i;
+						String actual = JStachio.render(new ConcurrentLambdaModel(name));
+						/*
+						 * Each section has to be rendered with its own body.
+						 */
+						assertEquals("<a>" + name + "</a>|<b>" + name + "</b>", actual);
+					}
+				}));
+			}
+			for (var f : futures) {
+				f.get(60, TimeUnit.SECONDS);
+			}
+		}
+		finally {
+			executor.shutdownNow();
+			jmustacheExt.use(false);
+		}
+	}
+
 	@JStache(template = """
 			{{@context.message}}
 			""")
@@ -144,6 +197,115 @@ public class JMustacheRendererTest {
 		assertEquals(expected, actual);
 	}
 
+	@JStache(path = "cache-test.mustache")
+	public record CacheModel(String name) {
+	}
+
+	@Test
+	public void testCacheReloadsModifiedFile() throws Exception {
+		JMustacheRenderer jmustacheExt = jmustache();
+		Path dir = Files.createTempDirectory("jmustache");
+		Path file = dir.resolve("cache-test.mustache");
+		try {
+			jmustacheExt.sourcePath(dir.toString()).use(true).prefix(null);
+			/*
+			 * The file has to be modified after the extension was loaded to be used.
+			 */
+			long now = System.currentTimeMillis() + 10_000;
+			Files.writeString(file, "Hi {{name}}!");
+			file.toFile().setLastModified(now);
+			assertEquals("Hi Luke!", JStachio.render(new CacheModel("Luke")));
+			assertEquals("Hi Leia!", JStachio.render(new CacheModel("Leia")));
+			Files.writeString(file, "Bye {{name}}!");
+			file.toFile().setLastModified(now + 2_000);
+			assertEquals("Bye Luke!", JStachio.render(new CacheModel("Luke")));
+		}
+		finally {
+			jmustacheExt.sourcePath("src/main/resources").use(false);
+			Files.deleteIfExists(file);
+			Files.deleteIfExists(dir);
+		}
+	}
+
+	@JStache(template = "Hi {{name}}!")
+	public record ReloadModel(String name) {
+	}
+
+	@Test
+	public void testCacheReloadsChangedTemplateInfo() throws Exception {
+		JMustacheRenderer jmustacheExt = jmustache();
+		try {
+			jmustacheExt.use(true).prefix(null);
+			TemplateInfo info = Templates.getInfoByReflection(ReloadModel.class);
+			var model = new ReloadModel("Luke");
+			StringBuilder sb = new StringBuilder();
+			jmustacheExt.execute(model, sb, new ReloadedTemplateInfo(info, "Hi {{name}}!", 1), false);
+			assertEquals("Hi Luke!", sb.toString());
+			sb.setLength(0);
+			jmustacheExt.execute(model, sb, new ReloadedTemplateInfo(info, "Bye {{name}}!", 2), false);
+			assertEquals("Bye Luke!", sb.toString());
+			sb.setLength(0);
+			jmustacheExt.execute(model, sb, new ReloadedTemplateInfo(info, "Hello {{name}}!", 2), false);
+			assertEquals("Hello Luke!", sb.toString());
+		}
+		finally {
+			jmustacheExt.use(false);
+			jmustacheExt.clearCache();
+		}
+	}
+
+	/*
+	 * Mimics a hot swapped template info with the same template class.
+	 */
+	record ReloadedTemplateInfo(TemplateInfo delegate, String templateString, long lastLoaded) implements TemplateInfo {
+
+		@Override
+		public String templateName() {
+			return delegate.templateName();
+		}
+
+		@Override
+		public String templatePath() {
+			return delegate.templatePath();
+		}
+
+		@Override
+		public Class<?> templateContentType() {
+			return delegate.templateContentType();
+		}
+
+		@Override
+		public Charset templateCharset() {
+			return delegate.templateCharset();
+		}
+
+		@Override
+		public String templateMediaType() {
+			return delegate.templateMediaType();
+		}
+
+		@Override
+		public Function<String, String> templateEscaper() {
+			return delegate.templateEscaper();
+		}
+
+		@Override
+		public Function<@Nullable Object, String> templateFormatter() {
+			return delegate.templateFormatter();
+		}
+
+		@Override
+		public boolean supportsType(Class<?> type) {
+			return delegate.supportsType(type);
+		}
+
+		@Override
+		public Class<?> modelClass() {
+			return delegate.modelClass();
+		}
+
+	}
+
 	private JMustacheRenderer jmustache() {
 		JMustacheRenderer jmustacheExt;
 		if (JStachioFactory.defaultJStachio() instanceof JStachioExtensions.Provider je) {
@@ -1,5 +1,6 @@
 package io.jstach.opt.spring.boot.webmvc;
 
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
@@ -10,25 +11,33 @@ import java.util.stream.Stream;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.env.Environment;
+import org.springframework.http.MediaType;
 
 import io.jstach.jstachio.JStachio;
 import io.jstach.jstachio.Template;
 import io.jstach.jstachio.TemplateConfig;
+import io.jstach.jstachio.output.BufferedEncodedOutputPool;
 import io.jstach.jstachio.spi.JStachioConfig;
 import io.jstach.jstachio.spi.JStachioExtension;
+import io.jstach.jstachio.spi.JStachioFilter;
 import io.jstach.jstachio.spi.JStachioTemplateFinder;
+import io.jstach.jstachio.spi.RenderMetrics;
+import io.jstach.jstachio.spi.RenderStats;
 import io.jstach.jstachio.spi.TemplateProvider;
 import io.jstach.jstachio.spi.Templates;
 import io.jstach.opt.spring.SpringJStachio;
 import io.jstach.opt.spring.SpringJStachioExtension;
 import io.jstach.opt.spring.web.JStachioHttpMessageConverter;
 import io.jstach.opt.spring.webmvc.ServletJStachioHttpMessageConverter;
+import io.micrometer.observation.ObservationRegistry;
 
 /**
  * Configures JStachio Spring style.
@@ -149,6 +158,37 @@ public class JStachioConfiguration {
 		return new SpringJStachioExtension(config, templateFinder);
 	}
 
+	/**
+	 * Render metrics which are observed with Micrometer if there is an observation
+	 * registry otherwise kept in memory.
+	 * @param observationRegistry optional observation registry.
+	 * @return render metrics
+	 * @see JStachioProperties#isMetrics()
+	 */
+	@Bean
+	@ConditionalOnProperty(prefix = "spring.jstachio.webmvc", name = "metrics", havingValue = "true")
+	@ConditionalOnMissingBean(RenderMetrics.class)
+	public RenderMetrics renderMetrics(
+			@SuppressWarnings("exports") ObjectProvider<ObservationRegistry> observationRegistry) {
+		ObservationRegistry registry = observationRegistry.getIfAvailable();
+		if (registry == null) {
+			return RenderStats.of();
+		}
+		return new ObservationRenderMetrics(registry);
+	}
+
+	/**
+	 * The filter that records render metrics.
+	 * @param renderMetrics where to record the renders.
+	 * @return filter extension
+	 * @see JStachioProperties#isMetrics()
+	 */
+	@Bean
+	@ConditionalOnProperty(prefix = "spring.jstachio.webmvc", name = "metrics", havingValue = "true")
+	public JStachioFilter renderMetricsFilter(RenderMetrics renderMetrics) {
+		return RenderMetrics.filter(renderMetrics);
+	}
+
 	/**
 	 * Creates jstachio from found plugins
 	 * @param extensions plugins
@@ -196,8 +236,14 @@ public class JStachioConfiguration {
 	@Bean
 	@ConditionalOnMissingBean(value = JStachioHttpMessageConverter.class)
 	public JStachioHttpMessageConverter messageConverter(JStachio jstachio, JStachioProperties properties) {
-		return new ServletJStachioHttpMessageConverter(jstachio, properties.getMediaType(),
-				properties.getBufferLimit());
+		MediaType mediaType = properties.getMediaType();
+		BufferedEncodedOutputPool bufferPool = null;
+		if (properties.isBufferPool()) {
+			var charset = mediaType.getCharset();
+			bufferPool = BufferedEncodedOutputPool.of(charset == null ? StandardCharsets.UTF_8 : charset);
+		}
+		return new ServletJStachioHttpMessageConverter(jstachio, mediaType, properties.getBufferLimit(), bufferPool,
+				properties.isEtag());
 	}
 
 }
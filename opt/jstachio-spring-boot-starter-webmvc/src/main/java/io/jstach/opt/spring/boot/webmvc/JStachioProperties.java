@@ -18,6 +18,12 @@ public class JStachioProperties {
 
 	private MediaType mediaType = JStachioHttpMessageConverter.DEFAULT_MEDIA_TYPE;
 
+	private boolean bufferPool = false;
+
+	private boolean metrics = false;
+
+	private boolean etag = false;
+
 	/**
 	 * Do nothing constructor for Spring
 	 */
@@ -44,6 +50,66 @@ public class JStachioProperties {
 		this.bufferLimit = bufferLimit;
 	}
 
+	/**
+	 * If enabled buffers used for {@linkplain #getBufferLimit() buffering} are pooled and
+	 * reused across requests instead of allocated for each request which reduces
+	 * allocation and garbage for large pages.
+	 * @return true if buffers are pooled which by default is false.
+	 * @see io.jstach.jstachio.output.BufferedEncodedOutputPool
+	 */
+	public boolean isBufferPool() {
+		return bufferPool;
+	}
+
+	/**
+	 * See {@link #isBufferPool()}
+	 * @param bufferPool true enables pooling.
+	 */
+	public void setBufferPool(boolean bufferPool) {
+		this.bufferPool = bufferPool;
+	}
+
+	/**
+	 * If enabled the render count, latency, output size and errors of every template
+	 * rendered by JStachio are recorded. If there is an
+	 * {@link io.micrometer.observation.ObservationRegistry} the renders are observed with
+	 * it (and thus recorded with Micrometer) otherwise they are recorded in memory with
+	 * {@link io.jstach.jstachio.spi.RenderStats}.
+	 * @return true if metrics are recorded which by default is false.
+	 * @see ObservationRenderMetrics
+	 */
+	public boolean isMetrics() {
+		return metrics;
+	}
+
+	/**
+	 * See {@link #isMetrics()}
+	 * @param metrics true enables metrics.
+	 */
+	public void setMetrics(boolean metrics) {
+		this.metrics = metrics;
+	}
+
+	/**
+	 * If enabled the output of templates rendered by the message converter is digested
+	 * while rendering and if it fits in the {@linkplain #getBufferLimit() buffer} an
+	 * <code>ETag</code> header is set. If the request has a matching
+	 * <code>If-None-Match</code> header a <code>304</code> is sent without the body.
+	 * @return true if ETags are set which by default is false.
+	 * @see io.jstach.jstachio.output.DigestEncodedOutput
+	 */
+	public boolean isEtag() {
+		return etag;
+	}
+
+	/**
+	 * See {@link #isEtag()}
+	 * @param etag true enables ETags.
+	 */
+	public void setEtag(boolean etag) {
+		this.etag = etag;
+	}
+
 	/**
 	 * The media type which by default is "<code>text/html; charset=UTF-8</code>". If the
 	 * charset is not in the media type than UTF-8 will be used.
@@ -0,0 +1,74 @@
+package io.jstach.opt.spring.boot.webmvc;
+
+import io.jstach.jstachio.Output;
+import io.jstach.jstachio.TemplateInfo;
+import io.jstach.jstachio.spi.RenderMetrics;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+
+/**
+ * Observes renders with Micrometer. With Spring Boot actuator each observation is
+ * recorded as a timer named {@value #OBSERVATION_NAME} tagged with the template name and
+ * the error if any. Latency histograms can be enabled with the usual
+ * <code>management.metrics.distribution</code> properties.
+ * <p>
+ * The output size is added as a high cardinality key value so it is available to tracing
+ * but not as a metric. Use {@link io.jstach.jstachio.spi.RenderStats} if output size
+ * metrics are needed.
+ *
+ * @author agentgt
+ */
+public class ObservationRenderMetrics implements RenderMetrics {
+
+	/**
+	 * The name of the observation.
+	 */
+	public static final String OBSERVATION_NAME = "jstachio.render";
+
+	/**
+	 * Low cardinality key of the template name.
+	 */
+	public static final String TEMPLATE_KEY = "jstachio.template";
+
+	/**
+	 * High cardinality key of the output size.
+	 */
+	public static final String OUTPUT_SIZE_KEY = "jstachio.output.size";
+
+	private final ObservationRegistry registry;
+
+	/**
+	 * Creates metrics that observe with the registry.
+	 * @param registry observation registry usually wired by Spring Boot.
+	 */
+	public ObservationRenderMetrics(@SuppressWarnings("exports") ObservationRegistry registry) {
+		this.registry = registry;
+	}
+
+	@Override
+	public TemplateMetrics templateMetrics(TemplateInfo template) {
+		String templateName = template.templateName();
+		return new TemplateMetrics() {
+
+			@Override
+			public Sample start(Output<?> output) {
+				var observation = Observation.createNotStarted(OBSERVATION_NAME, registry)
+						.lowCardinalityKeyValue(TEMPLATE_KEY, templateName).start();
+				return (outputSize, error) -> {
+					if (error != null) {
+						observation.error(error);
+					}
+					observation.highCardinalityKeyValue(OUTPUT_SIZE_KEY, String.valueOf(outputSize));
+					observation.stop();
+				};
+			}
+
+			@Override
+			public boolean isEnabled() {
+				return !registry.isNoop();
+			}
+
+		};
+	}
+
+}
@@ -27,6 +27,7 @@ module io.jstach.opt.spring.boot.webmvc {
 	requires spring.context;
 	requires spring.boot;
 	requires spring.boot.autoconfigure;
+	requires micrometer.observation;
 	
 	requires com.fasterxml.jackson.databind;
 
@@ -0,0 +1,42 @@
+package io.jstach.opt.spring.example.hello;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+@SpringBootTest(properties = "spring.jstachio.webmvc.etag=true")
+@AutoConfigureMockMvc
+public class HelloControllerETagTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Test
+	void testNotModified() throws Exception {
+		var result = mockMvc.perform(MockMvcRequestBuilders.get("/")) //
+				.andExpect(status().isOk()) //
+				.andExpect(header().exists(HttpHeaders.ETAG)) //
+				.andReturn();
+		String etag = result.getResponse().getHeader(HttpHeaders.ETAG);
+		assertThat(result.getResponse().getContentAsString()).contains("Spring Boot is now JStachioed!");
+
+		mockMvc.perform(MockMvcRequestBuilders.get("/").header(HttpHeaders.IF_NONE_MATCH, etag)) //
+				.andExpect(status().isNotModified()) //
+				.andExpect(header().string(HttpHeaders.ETAG, etag)) //
+				.andExpect(content().string(""));
+
+		mockMvc.perform(MockMvcRequestBuilders.get("/").header(HttpHeaders.IF_NONE_MATCH, "\"stale\"")) //
+				.andExpect(status().isOk()) //
+				.andExpect(header().string(HttpHeaders.ETAG, etag));
+	}
+
+}
@@ -2,6 +2,7 @@ package io.jstach.opt.spring.webflux.example.hello;
 
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.reactive.result.view.RedirectView;
 import org.springframework.web.reactive.result.view.View;
@@ -9,6 +10,8 @@ import org.springframework.web.reactive.result.view.View;
 import io.jstach.jstache.JStacheInterfaces;
 import io.jstach.opt.spring.web.JStachioHttpMessageConverter;
 import io.jstach.opt.spring.webflux.JStachioModelView;
+import io.jstach.opt.spring.webflux.JStachioStreamingView;
+import reactor.core.publisher.Flux;
 
 /**
  * Example hello world controller using different ways to use JStachio for web
@@ -59,4 +62,42 @@ public class HelloController {
 		return JStachioModelView.of(new HelloModel("Spring Boot WebFlux View is now JStachioed!"));
 	}
 
+	/**
+	 * Same as {@link #mvc()} but the view is {@linkplain JStachioModelView#chunked()
+	 * chunked} so that the page is published in small buffers as it is rendered.
+	 * @return the model that will be used as a chunked View
+	 */
+	@GetMapping(value = "/chunked")
+	public View chunked() {
+		var model = new HelloModel("Spring Boot WebFlux View is now JStachioed!");
+		return new JStachioModelView() {
+			@Override
+			public Object model() {
+				return model;
+			}
+
+			@Override
+			public boolean chunked() {
+				return true;
+			}
+
+			@Override
+			public int bufferSize() {
+				return 64;
+			}
+		};
+	}
+
+	/**
+	 * Streams a report of greetings with {@link JStachioStreamingView}. The rows are
+	 * rendered as they are published.
+	 * @param count number of rows.
+	 * @return streaming view of the report.
+	 */
+	@GetMapping(value = "/report")
+	public View report(@RequestParam(name = "count", defaultValue = "100") int count) {
+		var rows = Flux.range(1, count).map(i -> new HelloReport.Row(i, "Hello & welcome"));
+		return JStachioStreamingView.of(new HelloReport.Header("Greetings"), rows, new HelloReport.Footer(count));
+	}
+
 }
@@ -0,0 +1,49 @@
+package io.jstach.opt.spring.webflux.example.hello;
+
+import io.jstach.jstache.JStache;
+
+/**
+ * Models for a report that is streamed with
+ * {@link io.jstach.opt.spring.webflux.JStachioStreamingView}. The page is split into a
+ * header, a row per element and a footer.
+ *
+ * @author agentgt
+ */
+public final class HelloReport {
+
+	private HelloReport() {
+	}
+
+	/**
+	 * Rendered before the rows.
+	 * @param title title of the report
+	 */
+	@JStache(template = """
+			<table title="{{title}}">
+			""")
+	public record Header(String title) {
+	}
+
+	/**
+	 * Rendered for every published element.
+	 * @param index row number
+	 * @param message greeting
+	 */
+	@JStache(template = """
+			<tr><td>{{index}}</td><td>{{message}}</td></tr>
+			""")
+	public record Row(int index, String message) {
+	}
+
+	/**
+	 * Rendered after the rows.
+	 * @param count number of rows
+	 */
+	@JStache(template = """
+			</table>
+			<p>{{count}} rows</p>
+			""")
+	public record Footer(int count) {
+	}
+
+}
@@ -0,0 +1,168 @@
+package io.jstach.opt.spring.webflux;
+
+import java.nio.charset.Charset;
+import java.util.function.Consumer;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+
+import io.jstach.jstachio.Output.EncodedOutput;
+import io.jstach.jstachio.output.AsciiEncoding;
+
+/*
+ * Rolls over to a new buffer from the factory once the current buffer has reached the
+ * chunk size and hands the full buffer to the consumer which is usually a DemandHandoff.
+ *
+ * Bytes are split exactly at the chunk size but encoded strings are written whole so a
+ * buffer may expand slightly past the chunk size.
+ */
+class ChunkedDataBufferOutput implements EncodedOutput<RuntimeException> {
+
+	private final DataBufferFactory bufferFactory;
+
+	private final int chunkSize;
+
+	private final Charset charset;
+
+	private final Consumer<DataBuffer> consumer;
+
+	private final boolean ascii;
+
+	private final byte[] digits = new byte[AsciiEncoding.MAX_LONG_LENGTH];
+
+	private @Nullable DataBuffer buffer;
+
+	public ChunkedDataBufferOutput(DataBufferFactory bufferFactory, int chunkSize, Charset charset,
+			Consumer<DataBuffer> consumer) {
+		super();
+		if (chunkSize <= 0) {
+			throw new IllegalArgumentException("chunkSize should be greater than 0");
+		}
+		this.bufferFactory = bufferFactory;
+		this.chunkSize = chunkSize;
+		this.charset = charset;
+		this.consumer = consumer;
+		this.ascii = AsciiEncoding.isAsciiCompatible(charset);
+	}
+
+	private DataBuffer buffer() {
+		var b = this.buffer;
+		if (b == null) {
+			b = this.buffer = bufferFactory.allocateBuffer(chunkSize);
+		}
+		return b;
+	}
+
+	/*
+	 * Emits the current buffer if it is full.
+	 */
+	private void rollover(DataBuffer b) {
+		if (b.readableByteCount() >= chunkSize) {
+			this.buffer = null;
+			consumer.accept(b);
+		}
+	}
+
+	@Override
+	public void append(CharSequence csq) throws RuntimeException {
+		var b = buffer();
+		b.write(csq, charset);
+		rollover(b);
+	}
+
+	@Override
+	public void append(String s) throws RuntimeException {
+		var b = buffer();
+		b.write(s, charset);
+		rollover(b);
+	}
+
+	@Override
+	public void write(byte[] bytes) throws RuntimeException {
+		write(bytes, 0, bytes.length);
+	}
+
+	@Override
+	public void write(byte[] bytes, int off, int len) throws RuntimeException {
+		while (len > 0) {
+			var b = buffer();
+			int n = Math.min(len, chunkSize - b.readableByteCount());
+			if (n <= 0) {
+				rollover(b);
+				continue;
+			}
+			b.write(bytes, off, n);
+			off += n;
+			len -= n;
+			rollover(b);
+		}
+	}
+
+	@Override
+	public void append(short s) throws RuntimeException {
+		append((long) s);
+	}
+
+	@Override
+	public void append(int i) throws RuntimeException {
+		append((long) i);
+	}
+
+	@Override
+	public void append(long l) throws RuntimeException {
+		if (ascii) {
+			byte[] d = this.digits;
+			int len = AsciiEncoding.write(l, d, 0);
+			write(d, 0, len);
+		}
+		else {
+			append(String.valueOf(l));
+		}
+	}
+
+	@Override
+	public void append(boolean b) throws RuntimeException {
+		if (ascii) {
+			write(AsciiEncoding.toBytes(b));
+		}
+		else {
+			append(String.valueOf(b));
+		}
+	}
+
+	@Override
+	public Charset charset() {
+		return this.charset;
+	}
+
+	/**
+	 * Emits the remaining partially filled buffer if any.
+	 */
+	@Override
+	public void flush() {
+		var b = this.buffer;
+		this.buffer = null;
+		if (b != null) {
+			if (b.readableByteCount() > 0) {
+				consumer.accept(b);
+			}
+			else {
+				DataBufferUtils.release(b);
+			}
+		}
+	}
+
+	/**
+	 * Releases the current buffer without emitting it. Used on error.
+	 */
+	public void release() {
+		var b = this.buffer;
+		this.buffer = null;
+		if (b != null) {
+			DataBufferUtils.release(b);
+		}
+	}
+
+}
@@ -5,6 +5,7 @@ import java.nio.charset.Charset;
 import org.springframework.core.io.buffer.DataBuffer;
 
 import io.jstach.jstachio.Output.EncodedOutput;
+import io.jstach.jstachio.output.AsciiEncoding;
 
 class DataBufferOutput implements EncodedOutput<RuntimeException> {
 
@@ -12,10 +13,18 @@ class DataBufferOutput implements EncodedOutput<RuntimeException> {
 
 	private final Charset charset;
 
+	private final boolean ascii;
+
+	/*
+	 * Scratch space for digits so that numbers can be written without creating Strings.
+	 */
+	private final byte[] digits = new byte[AsciiEncoding.MAX_LONG_LENGTH];
+
 	public DataBufferOutput(DataBuffer buffer, Charset charset) {
 		super();
 		this.buffer = buffer;
 		this.charset = charset;
+		this.ascii = AsciiEncoding.isAsciiCompatible(charset);
 	}
 
 	@Override
@@ -38,6 +47,38 @@ class DataBufferOutput implements EncodedOutput<RuntimeException> {
 		buffer.write(bytes, off, len);
 	}
 
+	@Override
+	public void append(short s) throws RuntimeException {
+		append((long) s);
+	}
+
+	@Override
+	public void append(int i) throws RuntimeException {
+		append((long) i);
+	}
+
+	@Override
+	public void append(long l) throws RuntimeException {
+		if (ascii) {
+			byte[] d = this.digits;
+			int len = AsciiEncoding.write(l, d, 0);
+			buffer.write(d, 0, len);
+		}
+		else {
+			append(String.valueOf(l));
+		}
+	}
+
+	@Override
+	public void append(boolean b) throws RuntimeException {
+		if (ascii) {
+			buffer.write(AsciiEncoding.toBytes(b));
+		}
+		else {
+			append(String.valueOf(b));
+		}
+	}
+
 	@Override
 	public Charset charset() {
 		return this.charset;
@@ -0,0 +1,91 @@
+package io.jstach.opt.spring.webflux;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+
+import reactor.core.publisher.FluxSink;
+
+/*
+ * Hands the chunks of a template rendered on another thread to a sink only when the
+ * subscriber has requested them. The rendering thread blocks while there is no demand so
+ * besides the requested chunks only the chunk being filled is held in memory.
+ *
+ * If the subscriber cancels the blocked (or next) handoff throws a CancellationException
+ * which unwinds the rendering of the template.
+ */
+final class DemandHandoff implements Consumer<DataBuffer> {
+
+	private final FluxSink<DataBuffer> sink;
+
+	private final ReentrantLock lock = new ReentrantLock();
+
+	private final Condition changed = lock.newCondition();
+
+	private long demand;
+
+	private boolean cancelled;
+
+	DemandHandoff(FluxSink<DataBuffer> sink) {
+		this.sink = sink;
+		sink.onRequest(this::request);
+		sink.onCancel(this::cancel);
+	}
+
+	void request(long n) {
+		lock.lock();
+		try {
+			long d = demand + n;
+			demand = d < 0 ? Long.MAX_VALUE : d;
+			changed.signalAll();
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+	void cancel() {
+		lock.lock();
+		try {
+			cancelled = true;
+			changed.signalAll();
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public void accept(DataBuffer buffer) {
+		lock.lock();
+		try {
+			while (demand == 0 && !cancelled) {
+				changed.await();
+			}
+			if (cancelled) {
+				throw new CancellationException("Subscriber cancelled");
+			}
+			if (demand != Long.MAX_VALUE) {
+				demand--;
+			}
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			DataBufferUtils.release(buffer);
+			throw new CancellationException("Interrupted while waiting for demand");
+		}
+		catch (CancellationException e) {
+			DataBufferUtils.release(buffer);
+			throw e;
+		}
+		finally {
+			lock.unlock();
+		}
+		sink.next(buffer);
+	}
+
+}
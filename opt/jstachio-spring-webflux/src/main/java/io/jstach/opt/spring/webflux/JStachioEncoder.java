@@ -2,22 +2,32 @@ package io.jstach.opt.spring.webflux;
 
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
 
 import org.eclipse.jdt.annotation.Nullable;
+import org.reactivestreams.Publisher;
 import org.springframework.core.ResolvableType;
 import org.springframework.core.codec.AbstractSingleValueEncoder;
 import org.springframework.core.codec.Hints;
 import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.http.MediaType;
 import org.springframework.util.MimeType;
 import org.springframework.web.server.NotAcceptableStatusException;
 
 import io.jstach.jstachio.JStachio;
 import io.jstach.jstachio.Template;
+import io.jstach.jstachio.output.OutputSizeHint;
+import reactor.core.Exceptions;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 
 /**
  * Encodes a JStachio model into a bytes to be used as output from a webflux reactive
@@ -35,6 +45,8 @@ public class JStachioEncoder extends AbstractSingleValueEncoder<Object> {
 
 	private final MediaType mediaType;
 
+	private final boolean chunked;
+
 	/**
 	 * TODO make public on minor release
 	 */
@@ -57,19 +69,47 @@ public class JStachioEncoder extends AbstractSingleValueEncoder<Object> {
 	 * Create the encoder from a JStachio
 	 * @param jstachio not <code>null</code>.
 	 * @param allocateBufferSize how much to initially allocate from the buffer factory
+	 * until the output size of the template has been estimated.
 	 */
 	public JStachioEncoder(JStachio jstachio, int allocateBufferSize) {
 		this(jstachio, allocateBufferSize, DEFAULT_MEDIA_TYPE);
 	}
 
+	/**
+	 * Create the encoder from a JStachio that can stream the output in chunks.
+	 * <p>
+	 * If chunked the output is not fully buffered but instead a new buffer is allocated
+	 * from the buffer factory every time the current buffer reaches the buffer size and
+	 * the full buffer is published as soon as it is requested. The template is rendered
+	 * on the {@linkplain Schedulers#boundedElastic() bounded elastic} scheduler which
+	 * waits while the subscriber (the client connection) has not requested more buffers
+	 * and stops rendering if the subscriber cancels. This lowers time to first byte and
+	 * bounds the memory of a large page to the requested buffers at the cost of not
+	 * knowing the <code>Content-Length</code>. A partially filled buffer is also
+	 * published when the template flushes (<code>{{&#64;flush}}</code>). If not chunked
+	 * flushes are ignored.
+	 * @param jstachio not <code>null</code>.
+	 * @param allocateBufferSize how much to initially allocate from the buffer factory or
+	 * if chunked the size of each chunk.
+	 * @param chunked if true the output will be published in chunks.
+	 */
+	public JStachioEncoder(JStachio jstachio, int allocateBufferSize, boolean chunked) {
+		this(jstachio, allocateBufferSize, DEFAULT_MEDIA_TYPE, chunked);
+	}
+
 	/*
 	 * TODO possibly make public on minor release
 	 */
 	JStachioEncoder(JStachio jstachio, int allocateBufferSize, MediaType mediaType) {
+		this(jstachio, allocateBufferSize, mediaType, false);
+	}
+
+	JStachioEncoder(JStachio jstachio, int allocateBufferSize, MediaType mediaType, boolean chunked) {
 		super(mediaType);
 		this.jstachio = jstachio;
 		this.allocateBufferSize = allocateBufferSize;
 		this.mediaType = mediaType;
+		this.chunked = chunked;
 	}
 
 	@Override
@@ -85,6 +125,10 @@ public class JStachioEncoder extends AbstractSingleValueEncoder<Object> {
 	@Override
 	protected Flux<DataBuffer> encode(Object event, DataBufferFactory bufferFactory, ResolvableType type,
 			@Nullable MimeType mimeType, @Nullable Map<String, Object> hints) {
+		if (chunked) {
+			checkMimeType(mimeType);
+			return encodeChunked(jstachio, event, bufferFactory, allocateBufferSize, this.mediaType.getCharset());
+		}
 		return Flux.just(encodeValue(event, bufferFactory, type, mimeType, hints));
 	}
 
@@ -96,6 +140,13 @@ public class JStachioEncoder extends AbstractSingleValueEncoder<Object> {
 			logger.debug(logPrefix + "Writing [" + event + "]");
 		}
 
+		checkMimeType(mimeType);
+
+		return encode(jstachio, event, bufferFactory, allocateBufferSize, this.mediaType.getCharset());
+
+	}
+
+	private void checkMimeType(@Nullable MimeType mimeType) {
 		/*
 		 * We check the media type to see if it matches otherwise Spring will default to
 		 * application/json and will send Content-Type application/json back but return
@@ -118,9 +169,6 @@ public class JStachioEncoder extends AbstractSingleValueEncoder<Object> {
 			 */
 			throw new NotAcceptableStatusException(List.of(this.mediaType));
 		}
-
-		return encode(jstachio, event, bufferFactory, allocateBufferSize, this.mediaType.getCharset());
-
 	}
 
 	static DataBuffer encode( //
@@ -140,9 +188,143 @@ public class JStachioEncoder extends AbstractSingleValueEncoder<Object> {
 			charset = template.templateCharset();
 		}
 
-		DataBufferOutput output = new DataBufferOutput(bufferFactory.allocateBuffer(bufferSize), charset);
+		/*
+		 * We use the estimated size of the template output to avoid the buffer growing.
+		 */
+		var sizeHint = OutputSizeHint.of(template);
+		DataBufferOutput output = new DataBufferOutput(bufferFactory.allocateBuffer(sizeHint.sizeHint(bufferSize)),
+				charset);
+
+		var buffer = template.write(event, output).getBuffer();
+		sizeHint.record(buffer.readableByteCount());
+		return buffer;
+	}
+
+	static Flux<DataBuffer> encodeChunked( //
+			JStachio jstachio, //
+			Object event, //
+			DataBufferFactory bufferFactory, //
+			int chunkSize, //
+			@Nullable Charset charset) {
+		return encodeChunked(jstachio, event, bufferFactory, chunkSize, charset, Schedulers.boundedElastic());
+	}
+
+	/*
+	 * The template is rendered on the scheduler which should allow blocking as the
+	 * rendering thread waits for demand.
+	 */
+	static Flux<DataBuffer> encodeChunked( //
+			JStachio jstachio, //
+			Object event, //
+			DataBufferFactory bufferFactory, //
+			int chunkSize, //
+			@Nullable Charset charset, //
+			Scheduler scheduler) {
+		Template<Object> template;
+		try {
+			template = jstachio.findTemplate(event);
+		}
+		catch (Exception e) {
+			return Flux.error(e);
+		}
+		Charset resolvedCharset = charset == null ? template.templateCharset() : charset;
+		return Flux.create(sink -> {
+			var handoff = new DemandHandoff(sink);
+			scheduler.schedule(() -> {
+				var output = new ChunkedDataBufferOutput(bufferFactory, chunkSize, resolvedCharset, handoff);
+				try {
+					template.write(event, output);
+					output.flush();
+					sink.complete();
+				}
+				catch (CancellationException e) {
+					output.release();
+				}
+				catch (Throwable e) {
+					/*
+					 * Errors thrown by the template such as StackOverflowError must still
+					 * terminate the response and release the buffers.
+					 */
+					output.release();
+					sink.error(e);
+					Exceptions.throwIfJvmFatal(e);
+				}
+			});
+		});
+	}
+
+	static Flux<DataBuffer> encodeStream( //
+			JStachio jstachio, //
+			@Nullable Object header, //
+			Publisher<?> elements, //
+			@Nullable Object footer, //
+			DataBufferFactory bufferFactory, //
+			int elementsPerBuffer, //
+			Duration maxBufferDelay, //
+			int bufferSize, //
+			@Nullable Charset charset) {
+		/*
+		 * A batch is published once it is full or once its first element has waited
+		 * maxBufferDelay so that slow publishers are still rendered as elements arrive.
+		 */
+		Flux<DataBuffer> result = Flux.from(elements) //
+				.bufferTimeout(elementsPerBuffer, maxBufferDelay, true) //
+				.map(batch -> encodeAll(jstachio, batch, bufferFactory, bufferSize, charset));
+		if (header != null) {
+			result = Mono.fromCallable(() -> encode(jstachio, header, bufferFactory, bufferSize, charset))
+					.concatWith(result);
+		}
+		if (footer != null) {
+			result = result
+					.concatWith(Mono.fromCallable(() -> encode(jstachio, footer, bufferFactory, bufferSize, charset)));
+		}
+		return result;
+	}
 
-		return template.write(event, output).getBuffer();
+	/*
+	 * Renders many models into a single buffer.
+	 */
+	static DataBuffer encodeAll( //
+			JStachio jstachio, //
+			List<?> models, //
+			DataBufferFactory bufferFactory, //
+			int bufferSize, //
+			@Nullable Charset charset) {
+		List<Template<Object>> templates = new ArrayList<>(models.size());
+		long estimate = 0;
+		for (Object model : models) {
+			Template<Object> template;
+			try {
+				template = jstachio.findTemplate(model);
+			}
+			catch (Exception e) {
+				throw new RuntimeException(e);
+			}
+			templates.add(template);
+			estimate += OutputSizeHint.of(template).sizeHint(0);
+			if (charset == null) {
+				charset = template.templateCharset();
+			}
+		}
+		if (charset == null) {
+			charset = StandardCharsets.UTF_8;
+		}
+		int size = estimate <= 0 ? bufferSize : (int) Math.min(estimate, Integer.MAX_VALUE - 8);
+		var buffer = bufferFactory.allocateBuffer(size);
+		DataBufferOutput output = new DataBufferOutput(buffer, charset);
+		try {
+			for (int i = 0; i < templates.size(); i++) {
+				var template = templates.get(i);
+				int start = buffer.readableByteCount();
+				template.write(models.get(i), output);
+				OutputSizeHint.of(template).record(buffer.readableByteCount() - start);
+			}
+		}
+		catch (RuntimeException e) {
+			DataBufferUtils.release(buffer);
+			throw e;
+		}
+		return buffer;
 	}
 
-}
\ No newline at end of file
+}
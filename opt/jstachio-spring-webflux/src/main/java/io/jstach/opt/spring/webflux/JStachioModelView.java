@@ -46,6 +46,12 @@ public interface JStachioModelView extends View {
 			protected Mono<Void> renderInternal(Map<String, Object> model, @Nullable MediaType contentType,
 					ServerWebExchange exchange) {
 				var response = exchange.getResponse();
+				if (chunked()) {
+					var mediaType = mediaType();
+					response.getHeaders().setContentType(mediaType);
+					return response.writeWith(JStachioEncoder.encodeChunked(jstachio(), model(),
+							response.bufferFactory(), bufferSize(), mediaType.getCharset()));
+				}
 				return response.writeWith(Mono.fromCallable(() -> {
 					var bufferFactory = response.bufferFactory();
 					var mediaType = mediaType();
@@ -95,13 +101,29 @@ public interface JStachioModelView extends View {
 	}
 
 	/**
-	 * The initial size of the buffer allocated to be used for rendering.
+	 * The initial size of the buffer allocated to be used for rendering until the output
+	 * size of the template has been estimated.
 	 * @return buffer size the default is 4K.
+	 * @see io.jstach.jstachio.output.OutputSizeHint
 	 */
 	default int bufferSize() {
 		return JStachioEncoder.DEFAULT_BUFFER_SIZE;
 	}
 
+	/**
+	 * Whether to publish the output in chunks of {@link #bufferSize()} as the template is
+	 * rendered instead of buffering the entire output. The template is rendered on a
+	 * separate thread that only produces chunks as fast as the client requests them and
+	 * stops if the client goes away. Chunking lowers time to first byte and bounds the
+	 * memory of large pages but the <code>Content-Length</code> will not be set. Chunking
+	 * is required for templates that flush (<code>{{&#64;flush}}</code>) to send their
+	 * output early.
+	 * @return by default false.
+	 */
+	default boolean chunked() {
+		return false;
+	}
+
 	/**
 	 * The default media type for the view.
 	 * @return media type the default is "<code>text/html; charset=UTF-8</code>"
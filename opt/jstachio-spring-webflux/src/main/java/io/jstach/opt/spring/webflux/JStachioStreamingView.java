@@ -0,0 +1,165 @@
+package io.jstach.opt.spring.webflux;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.reactivestreams.Publisher;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.result.view.View;
+import org.springframework.web.server.ServerWebExchange;
+
+import io.jstach.jstachio.JStachio;
+import reactor.core.publisher.Mono;
+
+/**
+ * A view that streams a section of a page bound to a {@link Publisher} by rendering a
+ * header model, then every element of the publisher as it arrives and finally a footer
+ * model. Each element (and the header and footer) is a JStache model rendered with its
+ * own template.
+ * <p>
+ * Because generated templates are not reactive a template cannot iterate a Publisher
+ * directly. Instead the page is split where the section would be:
+ *
+ * <pre><code class="language-hbs">
+ * {{! header template }}
+ * &lt;table&gt;
+ * {{! row template rendered per element }}
+ * &lt;tr&gt;&lt;td&gt;{{name}}&lt;/td&gt;&lt;/tr&gt;
+ * {{! footer template }}
+ * &lt;/table&gt;
+ * </code></pre>
+ *
+ * Elements are requested from the publisher in batches of {@link #elementsPerBuffer()}
+ * and each batch is rendered into a single buffer that is published downstream. Thus the
+ * publisher is only consumed as fast as the response is written (backpressure) and memory
+ * is bounded by the batch size regardless of how many elements there are. If the
+ * publisher is slow a partial batch is published once it has waited
+ * {@link #maxBufferDelay()} so that elements are still rendered as they arrive.
+ * <p>
+ * The <code>Content-Length</code> is not set as the size is not known till the end.
+ *
+ * @author agentgt
+ */
+@SuppressWarnings("exports")
+public interface JStachioStreamingView extends View {
+
+	/**
+	 * The default number of elements rendered per buffer.
+	 */
+	public static final int DEFAULT_ELEMENTS_PER_BUFFER = 64;
+
+	/**
+	 * The default maximum time a partial batch of elements is held before it is rendered.
+	 */
+	public static final Duration DEFAULT_MAX_BUFFER_DELAY = Duration.ofMillis(100);
+
+	@Override
+	default Mono<Void> render( //
+			@Nullable Map<String, ?> model, //
+			@Nullable MediaType contentType, //
+			ServerWebExchange exchange) {
+		var response = exchange.getResponse();
+		var mediaType = mediaType();
+		response.getHeaders().setContentType(mediaType);
+		return response.writeWith(JStachioEncoder.encodeStream(jstachio(), header(), elements(), footer(),
+				response.bufferFactory(), elementsPerBuffer(), maxBufferDelay(), bufferSize(), mediaType.getCharset()));
+	}
+
+	@Override
+	default List<MediaType> getSupportedMediaTypes() {
+		return List.of(mediaType());
+	}
+
+	/**
+	 * Model rendered before the elements.
+	 * @return model or <code>null</code> if nothing should be rendered before.
+	 */
+	public @Nullable Object header();
+
+	/**
+	 * The section of models rendered as they are published.
+	 * @return publisher of models.
+	 */
+	public Publisher<?> elements();
+
+	/**
+	 * Model rendered after the elements.
+	 * @return model or <code>null</code> if nothing should be rendered after.
+	 */
+	public @Nullable Object footer();
+
+	/**
+	 * Returns the jstachio singleton by default.
+	 * @return stachio singleton by default.
+	 * @see JStachio#setStatic(java.util.function.Supplier)
+	 */
+	default JStachio jstachio() {
+		return JStachio.of();
+	}
+
+	/**
+	 * How many elements to request and render into a single buffer.
+	 * @return by default {@value #DEFAULT_ELEMENTS_PER_BUFFER}.
+	 */
+	default int elementsPerBuffer() {
+		return DEFAULT_ELEMENTS_PER_BUFFER;
+	}
+
+	/**
+	 * How long to wait for a batch to fill before rendering the elements received so far.
+	 * @return by default 100 milliseconds.
+	 * @see #DEFAULT_MAX_BUFFER_DELAY
+	 */
+	default Duration maxBufferDelay() {
+		return DEFAULT_MAX_BUFFER_DELAY;
+	}
+
+	/**
+	 * The initial size of each buffer until the output size of the templates has been
+	 * estimated.
+	 * @return buffer size the default is 4K.
+	 * @see io.jstach.jstachio.output.OutputSizeHint
+	 */
+	default int bufferSize() {
+		return JStachioEncoder.DEFAULT_BUFFER_SIZE;
+	}
+
+	/**
+	 * The media type for the view.
+	 * @return media type the default is "<code>text/html; charset=UTF-8</code>"
+	 */
+	default MediaType mediaType() {
+		return JStachioEncoder.DEFAULT_MEDIA_TYPE;
+	}
+
+	/**
+	 * Creates a streaming view.
+	 * @param header model rendered first or <code>null</code>.
+	 * @param elements models rendered as they are published.
+	 * @param footer model rendered last or <code>null</code>.
+	 * @return view ready for rendering
+	 */
+	public static JStachioStreamingView of(@Nullable Object header, Publisher<?> elements, @Nullable Object footer) {
+		return new JStachioStreamingView() {
+
+			@Override
+			public @Nullable Object header() {
+				return header;
+			}
+
+			@Override
+			public Publisher<?> elements() {
+				return elements;
+			}
+
+			@Override
+			public @Nullable Object footer() {
+				return footer;
+			}
+
+		};
+	}
+
+}
@@ -13,7 +13,8 @@
  * currently does not support anyway) and are not generating massive responses. </em>
  * <p>
  * If you do need streaming or have a rather large result it might be best to use a Flux
- * of models and then apply reactive operators to add header and footer.
+ * of models and then apply reactive operators to add header and footer which is what
+ * {@link io.jstach.opt.spring.webflux.JStachioStreamingView} does.
  */
 @org.eclipse.jdt.annotation.NonNullByDefault
 package io.jstach.opt.spring.webflux;
\ No newline at end of file
@@ -15,6 +15,7 @@ import io.jstach.jstachio.JStachio;
 import io.jstach.jstachio.Output.CloseableEncodedOutput;
 import io.jstach.jstachio.context.ContextJStachio;
 import io.jstach.jstachio.context.ContextNode;
+import io.jstach.jstachio.output.DigestEncodedOutput;
 import io.jstach.opt.spring.web.JStachioHttpMessageConverter;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -31,6 +32,11 @@ import jakarta.servlet.http.HttpServletResponse;
  * This approach has pros and cons. It makes your models slightly coupled to Spring MVC
  * but allows you to return different views if say you had to redirect on some inputs
  * ({@link RedirectView}).
+ * <p>
+ * If {@link #isETag()} is true and the output fits in the buffer an <code>ETag</code>
+ * header is set from the {@linkplain DigestEncodedOutput digest} of the output and if the
+ * request already has it (<code>If-None-Match</code>) a <code>304</code> is sent without
+ * the body.
  *
  * @author agentgt
  *
@@ -57,12 +63,18 @@ public interface JStachioModelView extends View {
 
 		String contentType = getContentType();
 		response.setContentType(contentType);
-		Charset charset = getMediaType().getCharset();
-		if (charset == null) {
-			charset = StandardCharsets.UTF_8;
+		Charset mediaTypeCharset = getMediaType().getCharset();
+		Charset charset = mediaTypeCharset == null ? StandardCharsets.UTF_8 : mediaTypeCharset;
+		var context = createContext(model, request, response);
+		if (isETag()) {
+			try (var o = DigestEncodedOutput
+					.<IOException>of(d -> new ServletThresholdEncodedOutput(charset, response, DEFAULT_BUFFER_LIMIT,
+							size -> ServletThresholdEncodedOutput.createConsumer(request, response, d, size)))) {
+				jstachio().write(model(), context, o);
+			}
+			return;
 		}
 		try (var o = createOutput(charset, response)) {
-			var context = createContext(model, request, response);
 			jstachio().write(model(), context, o);
 		}
 	}
@@ -85,6 +97,17 @@ public interface JStachioModelView extends View {
 		return new ServletThresholdEncodedOutput(charset, response, DEFAULT_BUFFER_LIMIT);
 	}
 
+	/**
+	 * Whether or not to set an ETag and send <code>304</code> if the client already has
+	 * the output. The output is digested while rendering which only works if the output
+	 * fits in the buffer. If true {@link #createOutput(Charset, HttpServletResponse)} is
+	 * not used.
+	 * @return by default false.
+	 */
+	default boolean isETag() {
+		return false;
+	}
+
 	/**
 	 * Returns the jstachio singleton by default.
 	 * @return stachio singleton by default.
@@ -1,19 +1,30 @@
 package io.jstach.opt.spring.webmvc;
 
 import java.io.IOException;
+import java.io.OutputStream;
 
+import org.eclipse.jdt.annotation.Nullable;
 import org.springframework.http.HttpOutputMessage;
 import org.springframework.http.MediaType;
 import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
 
 import io.jstach.jstachio.JStachio;
 import io.jstach.jstachio.Output.CloseableEncodedOutput;
+import io.jstach.jstachio.output.BufferedEncodedOutputPool;
+import io.jstach.jstachio.output.DigestEncodedOutput;
+import io.jstach.jstachio.output.OutputFactory;
 import io.jstach.opt.spring.web.JStachioHttpMessageConverter;
 import jakarta.servlet.http.HttpServletResponse;
 
 /**
  * A servlet server aware {@link JStachioHttpMessageConverter} that will leverage
  * {@link HttpServletResponse#setBufferSize(int)} to reduce duplicate buffering.
+ * <p>
+ * If ETags are enabled the current request is resolved with {@link RequestContextHolder}
+ * and if the output fits in the buffer and matches the <code>If-None-Match</code> header
+ * of the request a <code>304</code> is sent without the body.
  *
  * @author agentgt
  *
@@ -32,6 +43,35 @@ public class ServletJStachioHttpMessageConverter extends JStachioHttpMessageConv
 		super(jstachio, mediaType, bufferLimit);
 	}
 
+	/**
+	 * See {@link JStachioHttpMessageConverter}
+	 * @param jstachio not null.
+	 * @param mediaType used for setContentType
+	 * @param bufferLimit limit used if the response is not a
+	 * {@link ServletServerHttpResponse}.
+	 * @param bufferPool if not null buffers will be acquired from the pool. The charset
+	 * of the pool should match the media type.
+	 */
+	public ServletJStachioHttpMessageConverter(JStachio jstachio, @SuppressWarnings("exports") MediaType mediaType,
+			int bufferLimit, @Nullable BufferedEncodedOutputPool bufferPool) {
+		super(jstachio, mediaType, bufferLimit, bufferPool);
+	}
+
+	/**
+	 * See {@link JStachioHttpMessageConverter}
+	 * @param jstachio not null.
+	 * @param mediaType used for setContentType
+	 * @param bufferLimit limit used if the response is not a
+	 * {@link ServletServerHttpResponse}.
+	 * @param bufferPool if not null buffers will be acquired from the pool. The charset
+	 * of the pool should match the media type.
+	 * @param etag if true an ETag is calculated for output that fits in the buffer.
+	 */
+	public ServletJStachioHttpMessageConverter(JStachio jstachio, @SuppressWarnings("exports") MediaType mediaType,
+			int bufferLimit, @Nullable BufferedEncodedOutputPool bufferPool, boolean etag) {
+		super(jstachio, mediaType, bufferLimit, bufferPool, etag);
+	}
+
 	@Override
 	protected CloseableEncodedOutput<IOException> createOutput(HttpOutputMessage message) {
 		if (message instanceof ServletServerHttpResponse sr) {
@@ -40,13 +80,35 @@ public class ServletJStachioHttpMessageConverter extends JStachioHttpMessageConv
 		return super.createOutput(message);
 	}
 
+	@Override
+	protected CloseableEncodedOutput<IOException> createOutput(HttpOutputMessage message,
+			DigestEncodedOutput<IOException> digest) {
+		if (message instanceof ServletServerHttpResponse sr
+				&& RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes) {
+			var request = attributes.getRequest();
+			var response = sr.getServletResponse();
+			return createOutput(response,
+					size -> ServletThresholdEncodedOutput.createConsumer(request, response, digest, size));
+		}
+		return super.createOutput(message, digest);
+	}
+
 	/**
 	 * Create the output from a servlet response.
 	 * @param response servlet response
 	 * @return closeable output.
 	 */
 	protected CloseableEncodedOutput<IOException> createOutput(HttpServletResponse response) {
-		return new ServletThresholdEncodedOutput(getDefaultCharset(), response, bufferLimit);
+		return createOutput(response, size -> ServletThresholdEncodedOutput.createConsumer(response, size));
+	}
+
+	private CloseableEncodedOutput<IOException> createOutput(HttpServletResponse response,
+			OutputFactory<OutputStream, IOException> factory) {
+		var pool = this.bufferPool;
+		if (pool != null) {
+			return pool.limit(0, ServletThresholdEncodedOutput.calculateLimit(response, bufferLimit), factory);
+		}
+		return new ServletThresholdEncodedOutput(getDefaultCharset(), response, bufferLimit, factory);
 	}
 
 }
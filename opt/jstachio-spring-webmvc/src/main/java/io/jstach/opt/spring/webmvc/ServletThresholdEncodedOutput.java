@@ -4,7 +4,12 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.charset.Charset;
 
+import org.springframework.web.context.request.ServletWebRequest;
+
+import io.jstach.jstachio.output.DigestEncodedOutput;
+import io.jstach.jstachio.output.OutputFactory;
 import io.jstach.jstachio.output.ThresholdEncodedOutput;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
 /**
@@ -14,19 +19,28 @@ import jakarta.servlet.http.HttpServletResponse;
  */
 class ServletThresholdEncodedOutput extends ThresholdEncodedOutput.OutputStreamThresholdEncodedOutput {
 
-	private final HttpServletResponse response;
+	private final OutputFactory<OutputStream, IOException> factory;
 
 	public ServletThresholdEncodedOutput(Charset charset, HttpServletResponse response, int bufferLimit) {
+		this(charset, response, bufferLimit, size -> createConsumer(response, size));
+	}
+
+	ServletThresholdEncodedOutput(Charset charset, HttpServletResponse response, int bufferLimit,
+			OutputFactory<OutputStream, IOException> factory) {
 		super(charset, calculateLimit(response, bufferLimit));
-		this.response = response;
+		this.factory = factory;
 	}
 
-	private static int calculateLimit(HttpServletResponse response, int bufferLimit) {
+	static int calculateLimit(HttpServletResponse response, int bufferLimit) {
 		return Math.max(response.getBufferSize(), bufferLimit);
 	}
 
 	@Override
 	protected OutputStream createConsumer(int size) throws IOException {
+		return factory.create(size);
+	}
+
+	static OutputStream createConsumer(HttpServletResponse response, int size) throws IOException {
 		if (size > -1) {
 			response.setContentLength(size);
 			/*
@@ -37,4 +51,16 @@ class ServletThresholdEncodedOutput extends ThresholdEncodedOutput.OutputStreamT
 		return response.getOutputStream();
 	}
 
+	/*
+	 * If the output fits in the buffer the digest is complete and the ETag can be checked
+	 * against the request before anything is sent.
+	 */
+	static OutputStream createConsumer(HttpServletRequest request, HttpServletResponse response,
+			DigestEncodedOutput<?> digest, int size) throws IOException {
+		if (size > -1 && new ServletWebRequest(request, response).checkNotModified(digest.etag())) {
+			return OutputStream.nullOutputStream();
+		}
+		return createConsumer(response, size);
+	}
+
 }
\ No newline at end of file
@@ -5,6 +5,7 @@ import java.io.OutputStream;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 
+import org.eclipse.jdt.annotation.Nullable;
 import org.springframework.http.HttpInputMessage;
 import org.springframework.http.HttpOutputMessage;
 import org.springframework.http.MediaType;
@@ -15,9 +16,12 @@ import org.springframework.web.bind.annotation.ResponseBody;
 
 import io.jstach.jstachio.JStachio;
 import io.jstach.jstachio.Output.CloseableEncodedOutput;
+import io.jstach.jstachio.output.BufferedEncodedOutputPool;
 import io.jstach.jstachio.output.ByteBufferEncodedOutput;
 import io.jstach.jstachio.output.ChunkEncodedOutput;
+import io.jstach.jstachio.output.DigestEncodedOutput;
 import io.jstach.jstachio.output.LimitEncodedOutput;
+import io.jstach.jstachio.output.OutputFactory;
 import io.jstach.jstachio.output.ThresholdEncodedOutput;
 
 /**
@@ -38,7 +42,14 @@ import io.jstach.jstachio.output.ThresholdEncodedOutput;
  * </code> </pre> Because JStachio by default pre-encodes the static text parts of the
  * template the output strategy handles the buffering instead of the framework (usually
  * servlet) to improve performance and to reliable set <code>Content-Length</code>. This
- * can be changed by overriding {@link #createOutput(HttpOutputMessage)}.
+ * can be changed by overriding {@link #createOutput(HttpOutputMessage)}. If a
+ * {@link BufferedEncodedOutputPool} is passed to the constructor the buffers will be
+ * pooled and reused instead of allocated per request.
+ * <p>
+ * If ETags are enabled the output is {@linkplain DigestEncodedOutput digested} while it
+ * is written and if it fits in the buffer an <code>ETag</code> header is set. If the
+ * client already has the output (see {@link #isNotModified(HttpOutputMessage, String)})
+ * the body is not sent.
  *
  * @author agentgt
  *
@@ -66,6 +77,16 @@ public class JStachioHttpMessageConverter extends AbstractHttpMessageConverter<O
 	 */
 	protected final int bufferLimit;
 
+	/**
+	 * If not null buffering will use pooled buffers.
+	 */
+	protected final @Nullable BufferedEncodedOutputPool bufferPool;
+
+	/**
+	 * If true an ETag is calculated for output that fits in the buffer.
+	 */
+	protected final boolean etag;
+
 	/**
 	 * Create http converter from jstachio
 	 * @param jstachio an instance usually created by spring
@@ -82,10 +103,53 @@ public class JStachioHttpMessageConverter extends AbstractHttpMessageConverter<O
 	 * <code>Content-Length</code>.
 	 */
 	protected JStachioHttpMessageConverter(JStachio jstachio, MediaType mediaType, int bufferLimit) {
+		this(jstachio, mediaType, bufferLimit, null);
+	}
+
+	/**
+	 * Creates a message converter with media type and buffer limit that buffers with
+	 * pooled buffers.
+	 * @param jstachio an instance usually created by spring
+	 * @param mediaType used to set ContentType
+	 * @param bufferLimit buffer limit before bailing on trying to set
+	 * <code>Content-Length</code>.
+	 * @param bufferPool if not null will be used to buffer instead of allocating per
+	 * request. The pool charset should match the charset of the media type.
+	 * @throws IllegalArgumentException if the pool charset does not match the media type
+	 * charset.
+	 * @see BufferedEncodedOutputPool
+	 */
+	protected JStachioHttpMessageConverter(JStachio jstachio, MediaType mediaType, int bufferLimit,
+			@Nullable BufferedEncodedOutputPool bufferPool) {
+		this(jstachio, mediaType, bufferLimit, bufferPool, false);
+	}
+
+	/**
+	 * Creates a message converter with media type and buffer limit that buffers with
+	 * pooled buffers and optionally sets an ETag.
+	 * @param jstachio an instance usually created by spring
+	 * @param mediaType used to set ContentType
+	 * @param bufferLimit buffer limit before bailing on trying to set
+	 * <code>Content-Length</code> and <code>ETag</code>.
+	 * @param bufferPool if not null will be used to buffer instead of allocating per
+	 * request. The pool charset should match the charset of the media type.
+	 * @param etag if true an ETag is calculated for output that fits in the buffer.
+	 * @throws IllegalArgumentException if the pool charset does not match the media type
+	 * charset.
+	 * @see #createOutput(HttpOutputMessage, DigestEncodedOutput)
+	 */
+	protected JStachioHttpMessageConverter(JStachio jstachio, MediaType mediaType, int bufferLimit,
+			@Nullable BufferedEncodedOutputPool bufferPool, boolean etag) {
 		super(resolveCharset(mediaType), mediaType, MediaType.ALL);
 		this.jstachio = jstachio;
 		this.mediaType = mediaType;
 		this.bufferLimit = bufferLimit;
+		if (bufferPool != null && !bufferPool.charset().equals(resolveCharset(mediaType))) {
+			throw new IllegalArgumentException("Buffer pool charset does not match media type charset. pool: "
+					+ bufferPool.charset() + " mediaType: " + mediaType);
+		}
+		this.bufferPool = bufferPool;
+		this.etag = etag;
 	}
 
 	private static Charset resolveCharset(MediaType mediaType) {
@@ -129,6 +193,12 @@ public class JStachioHttpMessageConverter extends AbstractHttpMessageConverter<O
 		 * never desired for HTML.
 		 */
 		headers.setContentType(mediaType);
+		if (etag) {
+			try (var output = DigestEncodedOutput.<IOException>of(d -> createOutput(outputMessage, d))) {
+				jstachio.write(t, output);
+			}
+			return;
+		}
 		try (CloseableEncodedOutput<IOException> output = createOutput(outputMessage)) {
 			jstachio.write(t, output);
 		}
@@ -143,22 +213,68 @@ public class JStachioHttpMessageConverter extends AbstractHttpMessageConverter<O
 	 * @see LimitEncodedOutput
 	 */
 	protected CloseableEncodedOutput<IOException> createOutput(HttpOutputMessage message) {
-		return new HttpOutputMessageEncodedOutput(getDefaultCharset(), message, bufferLimit);
+		return createOutput(size -> HttpOutputMessageEncodedOutput.createConsumer(message, size));
+	}
+
+	/**
+	 * Create the buffered output to use when executing JStachio with ETags enabled. The
+	 * digest is complete when the body is created so if the output fits in the buffer and
+	 * the client already has it an empty body is used.
+	 * @param message response.
+	 * @param digest digests the output that will be written to the returned output.
+	 * @return the output ready for writing to.
+	 * @see #isNotModified(HttpOutputMessage, String)
+	 */
+	protected CloseableEncodedOutput<IOException> createOutput(HttpOutputMessage message,
+			DigestEncodedOutput<IOException> digest) {
+		return createOutput(size -> {
+			if (size > -1 && isNotModified(message, digest.etag())) {
+				return OutputStream.nullOutputStream();
+			}
+			return HttpOutputMessageEncodedOutput.createConsumer(message, size);
+		});
+	}
+
+	private CloseableEncodedOutput<IOException> createOutput(OutputFactory<OutputStream, IOException> factory) {
+		var pool = this.bufferPool;
+		if (pool != null) {
+			return pool.limit(0, bufferLimit, factory);
+		}
+		return new HttpOutputMessageEncodedOutput(getDefaultCharset(), bufferLimit, factory);
+	}
+
+	/**
+	 * Sets the <code>ETag</code> header and determines if the client already has the
+	 * output in which case the status should be set to <code>304</code>. Message
+	 * converters do not have access to the request so the default implementation only
+	 * sets the header and returns <code>false</code>.
+	 * @param message response.
+	 * @param etag the quoted ETag of the output.
+	 * @return true if the body should not be sent.
+	 */
+	protected boolean isNotModified(HttpOutputMessage message, String etag) {
+		message.getHeaders().setETag(etag);
+		return false;
 	}
 
 }
 
 class HttpOutputMessageEncodedOutput extends ThresholdEncodedOutput.OutputStreamThresholdEncodedOutput {
 
-	private final HttpOutputMessage response;
+	private final OutputFactory<OutputStream, IOException> factory;
 
-	public HttpOutputMessageEncodedOutput(Charset charset, HttpOutputMessage response, int limit) {
+	public HttpOutputMessageEncodedOutput(Charset charset, int limit,
+			OutputFactory<OutputStream, IOException> factory) {
 		super(charset, limit);
-		this.response = response;
+		this.factory = factory;
 	}
 
 	@Override
 	protected OutputStream createConsumer(int size) throws IOException {
+		return factory.create(size);
+	}
+
+	static OutputStream createConsumer(HttpOutputMessage response, int size) throws IOException {
 		if (size > -1) {
 			response.getHeaders().setContentLength(size);
 		}
@@ -3,6 +3,8 @@ package io.jstach.examples.encoded;
 import java.util.List;
 
 import io.jstach.jstache.JStache;
+import io.jstach.jstache.JStacheFlags;
+import io.jstach.jstache.JStacheFlags.Flag;
 
 public class Encoded {
 
@@ -19,4 +21,18 @@ public class Encoded {
 	public record EncodedUtf8(String header, List<String> messages) {
 	}
 
+	@JStache(template = """
+			<body title="caf\u00e9 \\ \t \u2713 \ud83d\ude00">
+			{{header}}
+			<ul>
+			{{#messages}}
+			<li>{{.}}</li>
+			{{/messages}}
+			</ul>
+			</body>
+			""")
+	@JStacheFlags(flags = Flag.PACK_TEXT)
+	public record EncodedPacked(String header, List<String> messages) {
+	}
+
 }
@@ -4,6 +4,7 @@ import static org.junit.Assert.*;
 
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Test;
 
@@ -12,6 +13,7 @@ import io.jstach.jstachio.JStachio;
 import io.jstach.jstachio.Output;
 import io.jstach.jstachio.context.ContextJStachio;
 import io.jstach.jstachio.context.ContextNode;
+import io.jstach.jstachio.context.ContextSupplier;
 
 public class ContextAwareTest {
 
@@ -67,4 +69,33 @@ public class ContextAwareTest {
 
 	}
 
+	static final AtomicInteger contextCalls = new AtomicInteger();
+
+	@Test
+	public void testContextResolvedOnlyIfUsed() throws Exception {
+		contextCalls.set(0);
+		assertEquals("Adam", JStachio.render(new ContextUnused("Adam")));
+		assertEquals(0, contextCalls.get());
+		assertEquals("Adam TOKEN", JStachio.render(new ContextUsed("Adam")));
+		assertEquals(1, contextCalls.get());
+	}
+
+	@JStache(template = "{{name}}")
+	record ContextUnused(String name) implements ContextSupplier {
+		@Override
+		public ContextNode context() {
+			contextCalls.incrementAndGet();
+			return ContextNode.of(Map.of("csrf", "TOKEN")::get);
+		}
+	}
+
+	@JStache(template = "{{name}} {{@context.csrf}}")
+	record ContextUsed(String name) implements ContextSupplier {
+		@Override
+		public ContextNode context() {
+			contextCalls.incrementAndGet();
+			return ContextNode.of(Map.of("csrf", "TOKEN")::get);
+		}
+	}
+
 }
@@ -2,6 +2,7 @@ package io.jstach.examples;
 
 import static org.junit.Assert.assertEquals;
 
+import java.util.LinkedList;
 import java.util.List;
 
 import org.junit.Test;
@@ -34,6 +35,13 @@ public class IterableTest {
 		assertEquals(expected, actual);
 	}
 
+	@Test
+	public void testLinkedList() {
+		String actual = JStachio.render(new IterableExample(new LinkedList<>(List.of("Kenny", "Eric", "Stan")), true));
+		String expected = JStachio.render(new IterableExample(List.of("Kenny", "Eric", "Stan"), true));
+		assertEquals(expected, actual);
+	}
+
 	@Test
 	public void testEmpty() throws Exception {
 		String actual = JStachio.render(new IterableExample(List.of(), true));
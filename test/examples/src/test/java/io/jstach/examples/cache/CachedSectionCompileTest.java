@@ -0,0 +1,126 @@
+package io.jstach.examples.cache;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.ServiceLoader;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.annotation.processing.Processor;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+
+import org.junit.Test;
+
+/*
+ * The output of a cached section is shared by every model with an equal value so the
+ * section must not use anything but the value.
+ */
+public class CachedSectionCompileTest {
+
+	private static final String MODEL = """
+			package cached;
+
+			import java.util.List;
+
+			import io.jstach.jstache.JStache;
+			import io.jstach.jstache.JStacheCached;
+			import io.jstach.jstache.JStacheLambda;
+
+			@JStache(template = \"\"\"
+					%s
+					\"\"\")
+			public record Page(@JStacheCached Nav nav, String body) {
+
+				public record Nav(String role, List<String> links) {
+				}
+
+				@JStacheLambda
+				public String shout(Object o) {
+					return "!";
+				}
+
+			}
+			""";
+
+	@Test
+	public void testValueOnly() throws IOException {
+		var errors = compile("{{#nav}}<nav class=\"{{role}}\">{{#links}}<a>{{.}}</a>{{/links}}</nav>{{/nav}}");
+		assertTrue(errors.toString(), errors.isEmpty());
+	}
+
+	@Test
+	public void testOuterName() throws IOException {
+		assertRejected("{{#nav}}{{role}} {{body}}{{/nav}}", "body");
+	}
+
+	@Test
+	public void testOuterNameInNestedSection() throws IOException {
+		assertRejected("{{#nav}}{{#links}}{{body}}{{/links}}{{/nav}}", "body");
+	}
+
+	@Test
+	public void testContext() throws IOException {
+		assertRejected("{{#nav}}{{#@context}}{{user}}{{/@context}}{{/nav}}", "@context");
+	}
+
+	@Test
+	public void testRoot() throws IOException {
+		assertRejected("{{#nav}}{{@root.body}}{{/nav}}", "@root");
+	}
+
+	@Test
+	public void testLambda() throws IOException {
+		assertRejected("{{#nav}}{{#shout}}{{role}}{{/shout}}{{/nav}}", "shout");
+	}
+
+	private static void assertRejected(String template, String name) throws IOException {
+		var errors = compile(template);
+		assertFalse("expected compile error for: " + template, errors.isEmpty());
+		String message = errors.toString();
+		assertTrue(message, message.contains("'" + name + "'"));
+		assertTrue(message, message.contains("JStacheCached"));
+	}
+
+	private static List<String> compile(String template) throws IOException {
+		var compiler = ToolProvider.getSystemJavaCompiler();
+		var diagnostics = new DiagnosticCollector<JavaFileObject>();
+		Path out = Files.createTempDirectory("cached");
+		var source = new SimpleJavaFileObject(URI.create("string:///cached/Page.java"), JavaFileObject.Kind.SOURCE) {
+			@Override
+			public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+				return MODEL.formatted(template);
+			}
+		};
+		/*
+		 * The tests may run on the module path.
+		 */
+		String classpath = Stream.of(System.getProperty("jdk.module.path"), System.getProperty("java.class.path"))
+				.filter(p -> p != null && !p.isBlank()) //
+				.collect(Collectors.joining(File.pathSeparator));
+		var options = List.of("-proc:only", "-d", out.toString(), "-s", out.toString(), "-classpath", classpath);
+		var task = compiler.getTask(null, null, diagnostics, options, null, List.of(source));
+		var processor = ServiceLoader.load(Processor.class).stream() //
+				.filter(p -> p.type().getName().equals("io.jstach.apt.GenerateRendererProcessor")) //
+				.findFirst() //
+				.orElseThrow() //
+				.get();
+		task.setProcessors(List.of(processor));
+		task.call();
+		return diagnostics.getDiagnostics().stream() //
+				.filter(d -> d.getKind() == Diagnostic.Kind.ERROR) //
+				.map(d -> d.getMessage(null)) //
+				.collect(Collectors.toList());
+	}
+
+}
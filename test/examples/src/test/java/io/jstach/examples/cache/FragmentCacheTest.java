@@ -0,0 +1,170 @@
+package io.jstach.examples.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.junit.After;
+import org.junit.Test;
+
+import io.jstach.jstache.JStache;
+import io.jstach.jstache.JStacheCached;
+import io.jstach.jstachio.FragmentCache;
+import io.jstach.jstachio.Output.EncodedOutput;
+import io.jstach.jstachio.output.ByteBufferedOutputStream;
+
+public class FragmentCacheTest {
+
+	public record Nav(String role, List<String> links) {
+	}
+
+	@JStache(template = """
+			{{#nav}}<nav class="{{role}}">{{#links}}<a>{{.}}</a>{{/links}}</nav>{{/nav}}
+			{{body}}
+			""")
+	public record Page(@JStacheCached(ttlSeconds = 60) Nav nav, String body) {
+	}
+
+	/*
+	 * The default cache is process wide so every test installs its own empty cache and
+	 * the previous default is restored afterwards regardless of the order tests run in.
+	 */
+	private @Nullable FragmentCache original;
+
+	@After
+	public void tearDown() {
+		var o = original;
+		if (o != null) {
+			FragmentCache.setDefault(o);
+			original = null;
+		}
+	}
+
+	private FragmentCache useCache(long maxWeight) {
+		var cache = FragmentCache.of(maxWeight);
+		var previous = FragmentCache.setDefault(cache);
+		if (original == null) {
+			original = previous;
+		}
+		return cache;
+	}
+
+	@Test
+	public void testHitRendersSameOutput() {
+		var cache = useCache(1024);
+		var nav = new Nav("admin", List.of("home", "users"));
+		String first = PageRenderer.of().execute(new Page(nav, "first"));
+		String second = PageRenderer.of().execute(new Page(new Nav("admin", List.of("home", "users")), "second"));
+		assertEquals("""
+				<nav class="admin"><a>home</a><a>users</a></nav>
+				first
+				""", first);
+		assertEquals("""
+				<nav class="admin"><a>home</a><a>users</a></nav>
+				second
+				""", second);
+		var stats = cache.stats();
+		assertEquals(1, stats.hits());
+		assertEquals(1, stats.misses());
+		assertEquals(1, stats.size());
+	}
+
+	@Test
+	public void testEncoded() {
+		var cache = useCache(1024);
+		var page = new Page(new Nav("user", List.of("home")), "body");
+		String expected = PageRenderer.of().execute(page);
+		for (int i = 0; i < 2; i++) {
+			var output = new ByteBufferedOutputStream(64, StandardCharsets.UTF_8);
+			PageRenderer.of().write(page, (EncodedOutput<RuntimeException>) output);
+			assertEquals(expected, new String(output.toByteArray(), StandardCharsets.UTF_8));
+		}
+		/*
+		 * Pre-encoded bytes are cached separately from chars.
+		 */
+		var stats = cache.stats();
+		assertEquals(1, stats.hits());
+		assertEquals(2, stats.misses());
+		assertEquals(2, stats.size());
+	}
+
+	@Test
+	public void testEvictedBySize() {
+		var cache = useCache(100);
+		for (int i = 0; i < 5; i++) {
+			PageRenderer.of().execute(new Page(new Nav("role" + i, List.of("home")), "body"));
+		}
+		var stats = cache.stats();
+		assertTrue(stats.evictions() > 0);
+		assertTrue(stats.weight() <= 100);
+		assertEquals(5, stats.misses());
+	}
+
+	@Test
+	public void testRecentlyReadIsNotEvicted() {
+		var cache = FragmentCache.of(30);
+		var first = put(cache, "first", "0123456789");
+		put(cache, "second", "0123456789");
+		put(cache, "third", "0123456789");
+		assertEquals("0123456789", cache.getString(first));
+		put(cache, "fourth", "0123456789");
+		assertEquals("0123456789", cache.getString(first));
+		var stats = cache.stats();
+		assertEquals(1, stats.evictions());
+		assertEquals(30, stats.weight());
+	}
+
+	@Test
+	public void testConcurrentRenders() throws Exception {
+		var cache = useCache(2048);
+		int threads = 8;
+		int renders = 2000;
+		var executor = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int t = 0; t < threads; t++) {
+				int seed = t;
+				futures.add(executor.submit(() -> {
+					for (int i = 0; i < renders; i++) {
+						String role = "role" + ((seed * 31 + i) % 64);
+						String actual = PageRenderer.of().execute(new Page(new Nav(role, List.of("home")), "body"));
+						assertEquals("<nav class=\"" + role + "\"><a>home</a></nav>\nbody\n", actual);
+					}
+				}));
+			}
+			for (var f : futures) {
+				f.get(60, TimeUnit.SECONDS);
+			}
+		}
+		finally {
+			executor.shutdownNow();
+		}
+		var stats = cache.stats();
+		assertEquals((long) threads * renders, stats.hits() + stats.misses());
+		assertTrue(stats.evictions() > 0);
+		assertTrue(stats.weight() <= 2048);
+		/*
+		 * The weight is kept without a lock so it must still match the fragments.
+		 */
+		cache.clear();
+		stats = cache.stats();
+		assertEquals(0, stats.size());
+		assertEquals(0, stats.weight());
+	}
+
+	private static FragmentCache.Key put(FragmentCache cache, String fragment, String content) {
+		var key = new FragmentCache.Key(fragment, null, "formatter", "escaper", null);
+		var output = cache.stringOutput(key);
+		output.append(content);
+		cache.putString(key, output, 60);
+		return key;
+	}
+
+}
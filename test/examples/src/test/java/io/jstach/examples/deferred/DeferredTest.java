@@ -0,0 +1,144 @@
+package io.jstach.examples.deferred;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.Test;
+
+import io.jstach.jstache.JStache;
+import io.jstach.jstache.JStacheConfig;
+import io.jstach.jstache.JStacheType;
+
+public class DeferredTest {
+
+	public record User(String name, List<String> roles) {
+	}
+
+	@JStache(template = """
+			{{#admin}}
+			{{#user}}{{name}}:{{#roles}} {{.}}{{/roles}}{{/user}}
+			{{/admin}}
+			{{^admin}}
+			{{user.name}}
+			{{/admin}}
+			{{title}}
+			{{^empty}}none{{/empty}}
+			""")
+	public record Page(boolean admin, Supplier<User> user, CompletionStage<String> title,
+			Supplier<List<String>> empty) {
+	}
+
+	@JStache(template = """
+			{{#show}}{{expensive}}{{/show}}{{^show}}hidden{{/show}}
+			""")
+	public record Lazy(boolean show, Supplier<String> expensive) {
+	}
+
+	@JStache(template = """
+			{{#value}}{{.}}{{/value}}
+			""")
+	@JStacheConfig(type = JStacheType.STACHE)
+	public record Waiting(Future<String> value) {
+	}
+
+	public static class Names extends ArrayList<String> implements Supplier<String> {
+
+		private static final long serialVersionUID = 1L;
+
+		Names(List<String> names) {
+			super(names);
+		}
+
+		@Override
+		public String get() {
+			return "supplied";
+		}
+
+	}
+
+	public record Greeting(String name) implements Supplier<String> {
+		@Override
+		public String get() {
+			return "supplied";
+		}
+	}
+
+	/*
+	 * Types that only implement the wrapper types are not unwrapped.
+	 */
+	@JStache(template = """
+			{{#names}}{{.}} {{/names}}{{#greeting}}{{name}}{{/greeting}} {{loaded}}
+			""")
+	public record Implementing(Names names, Greeting greeting, CompletableFuture<String> loaded) {
+	}
+
+	@Test
+	public void testOnlyExactTypesAreDeferred() {
+		var model = new Implementing(new Names(List.of("a", "b")), new Greeting("hello"),
+				CompletableFuture.completedFuture("loaded"));
+		assertEquals("a b hello loaded\n", ImplementingRenderer.of().execute(model));
+	}
+
+	@Test
+	public void testSupplierAndCompletionStage() {
+		AtomicInteger calls = new AtomicInteger();
+		Supplier<User> user = () -> {
+			calls.incrementAndGet();
+			return new User("Agent", List.of("a", "b"));
+		};
+		var title = CompletableFuture.completedFuture("Title");
+
+		String actual = PageRenderer.of().execute(new Page(true, user, title, List::of));
+		String expected = """
+				Agent: a b
+				Title
+				none
+				""";
+		assertEquals(expected, actual);
+		/*
+		 * The supplier is resolved once for the section not once per lookup.
+		 */
+		assertEquals(1, calls.get());
+
+		actual = PageRenderer.of().execute(new Page(false, user, title, () -> List.of("x")));
+		expected = """
+				Agent
+				Title
+
+				""";
+		assertEquals(expected, actual);
+	}
+
+	@Test
+	public void testSupplierNotCalledIfNotRendered() {
+		AtomicInteger calls = new AtomicInteger();
+		Supplier<String> expensive = () -> {
+			calls.incrementAndGet();
+			return "expensive";
+		};
+		assertEquals("hidden\n", LazyRenderer.of().execute(new Lazy(false, expensive)));
+		assertEquals(0, calls.get());
+		assertEquals("expensive\n", LazyRenderer.of().execute(new Lazy(true, expensive)));
+		assertEquals(1, calls.get());
+	}
+
+	@Test
+	public void testFuture() throws Exception {
+		var future = new FutureTask<>(() -> "done");
+		Thread thread = new Thread(future);
+		thread.start();
+		StringBuilder sb = new StringBuilder();
+		WaitingRenderer.of().execute(new Waiting(future), sb);
+		assertEquals("done\n", sb.toString());
+		thread.join();
+	}
+
+}
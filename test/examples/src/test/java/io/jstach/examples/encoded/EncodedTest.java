@@ -8,6 +8,7 @@ import java.util.List;
 
 import org.junit.Test;
 
+import io.jstach.examples.encoded.Encoded.EncodedPacked;
 import io.jstach.examples.encoded.Encoded.EncodedUtf8;
 import io.jstach.jstachio.JStachio;
 import io.jstach.jstachio.Template;
@@ -37,4 +38,26 @@ public class EncodedTest {
 
 	}
 
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	@Test
+	public void testPacked() throws Exception {
+		EncodedPacked e = new EncodedPacked("Hello", List.of("Earl", "Randy"));
+		Template t = JStachio.of().findTemplate(e);
+		ByteArrayOutputStream os = new ByteArrayOutputStream();
+		t.write(e, os);
+		String binResult = os.toString(StandardCharsets.UTF_8);
+		String strResult = t.execute(e);
+		String expected = """
+				<body title="caf\u00e9 \\ \t \u2713 \ud83d\ude00">
+				Hello
+				<ul>
+				<li>Earl</li>
+				<li>Randy</li>
+				</ul>
+				</body>
+				""";
+		assertEquals(expected, strResult);
+		assertEquals(expected, binResult);
+	}
+
 }
@@ -1,11 +1,18 @@
 package io.jstach.examples.finder;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
 import java.util.Map;
 
 import org.junit.Test;
 
+import io.jstach.jstachio.Template;
+import io.jstach.jstachio.TemplateConfig;
 import io.jstach.jstachio.spi.JStachioConfig;
 import io.jstach.jstachio.spi.JStachioFactory;
+import io.jstach.jstachio.spi.JStachioTemplateFinder;
 
 public class NoReflectModelTest {
 
@@ -18,4 +25,29 @@ public class NoReflectModelTest {
 		jstachio.execute(new NoReflectModel("asdfasdf"));
 	}
 
+	@Test
+	public void testCatalogIndex() throws Exception {
+		var catalog = new ExampleTemplateFinder();
+		var template = catalog.findTemplateOrNull(NoReflectModel.class, TemplateConfig.empty());
+		assertTrue(template instanceof NoReflectModelRenderer);
+		assertNull(catalog.findTemplateOrNull(String.class, TemplateConfig.empty()));
+	}
+
+	/*
+	 * That the catalog is consulted first is asserted with a counting catalog in
+	 * TemplateIndexTest of the api module. This only checks the generated catalog works
+	 * end to end when reflection is disabled.
+	 */
+	@Test
+	public void testDefaultTemplateFinderWithoutReflection() throws Exception {
+		var m = Map.of(JStachioConfig.REFLECTION_TEMPLATE_DISABLE, "true");
+		JStachioConfig config = m::get;
+		var finder = JStachioTemplateFinder.defaultTemplateFinder(config);
+		var template = finder.findTemplate(NoReflectModel.class);
+		assertTrue(template instanceof NoReflectModelRenderer);
+		@SuppressWarnings("unchecked")
+		var t = (Template<NoReflectModel>) template;
+		assertEquals("hello", t.execute(new NoReflectModel("hello")));
+	}
+
 }
@@ -0,0 +1,102 @@
+package io.jstach.examples.flush;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import io.jstach.jstache.JStache;
+import io.jstach.jstachio.Output;
+import io.jstach.jstachio.output.ThresholdEncodedOutput.OutputStreamThresholdEncodedOutput;
+
+public class FlushTest {
+
+	@JStache(template = """
+			<head><title>{{title}}</title></head>
+			{{@flush}}<body>
+			{{{@flush}}}{{body}}
+			</body>
+			""")
+	public record Page(String title, String body) {
+	}
+
+	static class RecordingOutput implements Output<RuntimeException> {
+
+		final StringBuilder buffer = new StringBuilder();
+
+		final List<String> flushed = new ArrayList<>();
+
+		@Override
+		public void append(CharSequence s) {
+			buffer.append(s);
+		}
+
+		@Override
+		public void append(CharSequence csq, int start, int end) {
+			buffer.append(csq, start, end);
+		}
+
+		@Override
+		public void append(char c) {
+			buffer.append(c);
+		}
+
+		@Override
+		public void flush() {
+			flushed.add(buffer.toString());
+		}
+
+	}
+
+	@Test
+	public void testFlush() {
+		var page = new Page("Hello", "World");
+		var output = new RecordingOutput();
+		PageRenderer.of().execute(page, output);
+		String expected = """
+				<head><title>Hello</title></head>
+				<body>
+				World
+				</body>
+				""";
+		assertEquals(expected, output.buffer.toString());
+		assertEquals(List.of("<head><title>Hello</title></head>\n", "<head><title>Hello</title></head>\n<body>\n"),
+				output.flushed);
+	}
+
+	@Test
+	public void testThresholdFlush() throws Exception {
+		var page = new Page("Hello", "World");
+		List<Integer> sizes = new ArrayList<>();
+		List<String> flushed = new ArrayList<>();
+		ByteArrayOutputStream stream = new ByteArrayOutputStream() {
+			@Override
+			public void flush() throws IOException {
+				flushed.add(toString(StandardCharsets.UTF_8));
+			}
+		};
+		try (var output = new OutputStreamThresholdEncodedOutput(StandardCharsets.UTF_8, 1024 * 64) {
+			@Override
+			protected OutputStream createConsumer(int size) throws IOException {
+				sizes.add(size);
+				return stream;
+			}
+		}) {
+			PageRenderer.of().write(page, output);
+		}
+		/*
+		 * Flushing stops buffering so the content length is not known.
+		 */
+		assertEquals(List.of(-1), sizes);
+		assertEquals(List.of("<head><title>Hello</title></head>\n", "<head><title>Hello</title></head>\n<body>\n"),
+				flushed);
+		assertEquals(PageRenderer.of().execute(page), stream.toString(StandardCharsets.UTF_8));
+	}
+
+}
@@ -0,0 +1,74 @@
+package io.jstach.examples.hoist;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.junit.Test;
+
+import io.jstach.jstache.JStache;
+import io.jstach.jstache.JStacheFlags;
+import io.jstach.jstache.JStacheFlags.Flag;
+
+public class HoistTest {
+
+	static final AtomicInteger calls = new AtomicInteger();
+
+	public record Currency(String symbol) {
+	}
+
+	public record Item(String name, int price) {
+	}
+
+	public record Settings(@Nullable Currency currency) {
+		@Override
+		public @Nullable Currency currency() {
+			calls.incrementAndGet();
+			return currency;
+		}
+	}
+
+	@JStache(template = """
+			{{#items}}
+			{{name}} {{settings.currency.symbol}}{{price}}
+			{{/items}}
+			{{#settings.currency}}{{symbol}}{{/settings.currency}}
+			""")
+	@JStacheFlags(flags = Flag.HOIST_ACCESSORS)
+	public record Page(Settings settings, List<Item> items) {
+	}
+
+	@Test
+	public void testHoisted() {
+		calls.set(0);
+		var page = new Page(new Settings(new Currency("$")), List.of(new Item("a", 1), new Item("b", 2)));
+		String actual = PageRenderer.of().execute(page);
+		String expected = """
+				a $1
+				b $2
+				$
+				""";
+		assertEquals(expected, actual);
+		/*
+		 * Once before the loop and once for the last section.
+		 */
+		assertEquals(2, calls.get());
+	}
+
+	@Test
+	public void testHoistedNull() {
+		calls.set(0);
+		var page = new Page(new Settings(null), List.of(new Item("a", 1), new Item("b", 2)));
+		String actual = PageRenderer.of().execute(page);
+		String expected = """
+				a 1
+				b 2
+
+				""";
+		assertEquals(expected, actual);
+		assertEquals(2, calls.get());
+	}
+
+}
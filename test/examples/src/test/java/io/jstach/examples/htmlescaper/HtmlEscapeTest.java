@@ -1,10 +1,20 @@
 package io.jstach.examples.htmlescaper;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 import org.junit.Test;
 
 import io.jstach.jstache.JStache;
+import io.jstach.jstachio.TemplateConfig;
+import io.jstach.jstachio.escapers.PlainText;
 
 public class HtmlEscapeTest {
 
@@ -30,4 +40,55 @@ public class HtmlEscapeTest {
 		assertEquals(expected, actual);
 	}
 
+	@JStache(template = """
+			{{body}} {{{body}}} {{count}}
+			""")
+	public record EscapeOverrideModel(String body, int count) {
+
+	}
+
+	@Test
+	public void testEscaperOverride() throws Exception {
+		var m = new EscapeOverrideModel("<b>", 1);
+		assertEquals("&lt;b&gt; <b> 1\n", EscapeOverrideModelRenderer.of().execute(m));
+		var r = new EscapeOverrideModelRenderer(null, PlainText.provider());
+		assertEquals("<b> <b> 1\n", r.execute(m));
+	}
+
+	@Test
+	public void testDefaultsUseStaticFormatterAndEscaper() throws Exception {
+		/*
+		 * The generated __format methods only call the formatter and escaper constants
+		 * directly if the renderer holds those same instances.
+		 */
+		Object staticFormatter = staticField("STATIC_FORMATTER");
+		Object staticEscaper = staticField("STATIC_ESCAPER");
+		for (var r : List.of(EscapeOverrideModelRenderer.of(), new EscapeOverrideModelRenderer(),
+				new EscapeOverrideModelRenderer(TemplateConfig.empty()))) {
+			assertSame(staticFormatter, r.templateFormatter());
+			assertSame(staticEscaper, r.templateEscaper());
+		}
+		var r = new EscapeOverrideModelRenderer(null, PlainText.provider());
+		assertSame(staticFormatter, r.templateFormatter());
+		assertNotSame(staticEscaper, r.templateEscaper());
+	}
+
+	@Test
+	public void testOnlyCalledFormatMethodsAreGenerated() throws Exception {
+		Set<Class<?>> formatted = new HashSet<>();
+		for (Method method : EscapeOverrideModelRenderer.class.getDeclaredMethods()) {
+			if (method.getName().equals("__format")) {
+				var parameters = method.getParameterTypes();
+				formatted.add(parameters[parameters.length - 1]);
+			}
+		}
+		assertEquals(Set.of(String.class, int.class), formatted);
+	}
+
+	private static Object staticField(String name) throws Exception {
+		Field field = EscapeOverrideModelRenderer.class.getDeclaredField(name);
+		field.setAccessible(true);
+		return field.get(null);
+	}
+
 }
@@ -26,7 +26,7 @@ public class ModelWithNullableTest {
 		String filePath = ModelWithNullable.class.getName().replace('.', '/') + JStacheName.DEFAULT_SUFFIX + ".java";
 		String java = Files.readString(Path.of("target/generated-sources/annotations/" + filePath),
 				StandardCharsets.UTF_8);
-		String iterable = "java.util.Iterator<? extends java.lang.@org.eclipse.jdt.annotation.Nullable String>";
+		String iterable = "java.util.List<? extends java.lang.@org.eclipse.jdt.annotation.Nullable String>";
 		String element = "java.lang.@org.eclipse.jdt.annotation.Nullable String element";
 		assertTrue(java.contains(iterable));
 		assertTrue(java.contains(element));
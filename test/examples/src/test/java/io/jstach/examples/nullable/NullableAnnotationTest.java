@@ -31,8 +31,7 @@ public class NullableAnnotationTest {
 		 * with the rare possibility of models that have different nullable annotations.
 		 * This is an unlikely use case.
 		 */
-		assertTrue(
-				code.contains("java.util.Iterator<? extends java.lang.@org.eclipse.jdt.annotation.Nullable String>"));
+		assertTrue(code.contains("java.util.List<? extends java.lang.@org.eclipse.jdt.annotation.Nullable String>"));
 		/*
 		 * We should have comments instead of nullable annotations for this generated clas
 		 */
@@ -0,0 +1,139 @@
+package io.jstach.examples.split;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.junit.Test;
+
+import io.jstach.jstache.JStache;
+
+/**
+ * A big layout based page should be split into methods under the HotSpot
+ * <code>HugeMethodLimit</code> otherwise the render methods would never be JIT compiled.
+ */
+public class MethodSplitTest {
+
+	static final int HUGE_METHOD_LIMIT = 8000;
+
+	public record Item(String name, boolean flag) {
+	}
+
+	@JStache(path = "split-page.mustache")
+	public record SplitPage(String title, String message, List<Item> items) {
+	}
+
+	@Test
+	public void testNoMethodIsOverHugeMethodLimit() throws IOException {
+		Map<String, Integer> sizes = codeSizes(SplitPageRenderer.class);
+		sizes.forEach((method, size) -> {
+			assertTrue(method + " is " + size + " bytes", size <= HUGE_METHOD_LIMIT);
+		});
+		assertTrue(sizes.keySet().stream().anyMatch(m -> m.startsWith("__render")));
+		assertTrue(sizes.keySet().stream().anyMatch(m -> m.startsWith("__encode")));
+	}
+
+	@Test
+	public void testSplitRendersEveryLine() throws IOException {
+		var page = new SplitPage("Split", "Hello", List.of(new Item("a", true), new Item("b", false)));
+		var template = SplitPageRenderer.of();
+		String actual = template.execute(page);
+		ByteArrayOutputStream os = new ByteArrayOutputStream();
+		template.write(page, os);
+		assertEquals(actual, os.toString(StandardCharsets.UTF_8));
+
+		assertTrue(actual, actual.contains("<title>Split</title>"));
+		assertTrue(actual, actual.contains("<li>a 1 Split flagged</li>"));
+		assertTrue(actual, actual.contains("<li>a 200 Split flagged</li>"));
+		assertTrue(actual, actual.contains("<li>b 200 Split</li>"));
+		assertTrue(actual, actual.contains("<p>Line 200 Split and Hello</p>"));
+		assertEquals(400, count(actual, "<li>"));
+		assertEquals(200, count(actual, " flagged</li>"));
+		assertEquals(200, count(actual, "<p>"));
+		assertTrue(actual, actual.indexOf("<li>b 200 Split</li>") < actual.indexOf("<p>Line 1 Split"));
+	}
+
+	private static int count(String s, String part) {
+		int count = 0;
+		int i = 0;
+		while ((i = s.indexOf(part, i)) >= 0) {
+			count++;
+			i += part.length();
+		}
+		return count;
+	}
+
+	/*
+	 * Reads the size of the bytecode of each method from the class file.
+	 */
+	private static Map<String, Integer> codeSizes(Class<?> c) throws IOException {
+		Map<String, Integer> sizes = new LinkedHashMap<>();
+		try (InputStream is = Objects.requireNonNull(c.getResourceAsStream(c.getSimpleName() + ".class"));
+				DataInputStream in = new DataInputStream(is)) {
+			in.readInt(); // magic
+			in.readUnsignedShort(); // minor
+			in.readUnsignedShort(); // major
+			int poolCount = in.readUnsignedShort();
+			String[] utf8 = new String[poolCount];
+			for (int i = 1; i < poolCount; i++) {
+				int tag = in.readUnsignedByte();
+				switch (tag) {
+					case 1 -> utf8[i] = in.readUTF();
+					case 7, 8, 16, 19, 20 -> in.skipBytes(2);
+					case 15 -> in.skipBytes(3);
+					case 3, 4, 9, 10, 11, 12, 17, 18 -> in.skipBytes(4);
+					case 5, 6 -> {
+						in.skipBytes(8);
+						i++;
+					}
+					default -> throw new IllegalStateException("Unknown constant pool tag: " + tag);
+				}
+			}
+			in.skipBytes(6); // access, this and super
+			in.skipBytes(2 * in.readUnsignedShort()); // interfaces
+			int fields = in.readUnsignedShort();
+			for (int i = 0; i < fields; i++) {
+				in.skipBytes(6);
+				skipAttributes(in);
+			}
+			int methods = in.readUnsignedShort();
+			for (int i = 0; i < methods; i++) {
+				in.skipBytes(2);
+				String name = utf8[in.readUnsignedShort()] + utf8[in.readUnsignedShort()];
+				int attributes = in.readUnsignedShort();
+				for (int j = 0; j < attributes; j++) {
+					String attribute = utf8[in.readUnsignedShort()];
+					int length = in.readInt();
+					if ("Code".equals(attribute)) {
+						in.skipBytes(4); // max stack and locals
+						int codeLength = in.readInt();
+						sizes.put(name, codeLength);
+						in.skipBytes(length - 8);
+					}
+					else {
+						in.skipBytes(length);
+					}
+				}
+			}
+		}
+		return sizes;
+	}
+
+	private static void skipAttributes(DataInputStream in) throws IOException {
+		int attributes = in.readUnsignedShort();
+		for (int i = 0; i < attributes; i++) {
+			in.skipBytes(2);
+			in.skipBytes(in.readInt());
+		}
+	}
+
+}
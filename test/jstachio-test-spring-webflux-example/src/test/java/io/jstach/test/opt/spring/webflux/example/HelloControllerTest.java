@@ -1,22 +1,55 @@
 package io.jstach.test.opt.spring.webflux.example;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
+import org.reactivestreams.Subscription;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
 import org.springframework.http.HttpStatusCode;
 import org.springframework.http.MediaType;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
 import org.springframework.test.web.reactive.server.EntityExchangeResult;
 import org.springframework.test.web.reactive.server.WebTestClient;
 
+import io.jstach.jstachio.JStachio;
+import io.jstach.opt.spring.webflux.JStachioEncoder;
+import io.jstach.opt.spring.webflux.JStachioStreamingView;
 import io.jstach.opt.spring.webflux.example.App;
 import io.jstach.opt.spring.webflux.example.SpringTemplateConfig;
 import io.jstach.opt.spring.webflux.example.WebConfig;
+import io.jstach.opt.spring.webflux.example.hello.HelloModel;
+import io.jstach.opt.spring.webflux.example.hello.HelloReport;
+import reactor.core.Exceptions;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
 
 @SpringBootTest(classes = { App.class, WebConfig.class, SpringTemplateConfig.class })
 @AutoConfigureWebTestClient
@@ -24,6 +57,10 @@ public class HelloControllerTest {
 
 	@Autowired
 	WebTestClient client;
+
+	@Autowired
+	JStachio jstachio;
+
 	static final String ENCODER_BODY = """
 			<!doctype html>
 			<html lang="en">
@@ -119,6 +156,164 @@ public class HelloControllerTest {
 				.isEqualTo(HttpStatusCode.valueOf(406));
 	}
 
+	@Test
+	public void testChunkedView() {
+		EntityExchangeResult<byte[]> result = client.get().uri("/chunked") //
+				.accept(MediaType.TEXT_HTML) //
+				.exchange().expectHeader().contentType("text/html;charset=UTF-8") //
+				.expectBody() //
+				.returnResult();
+		String actual = new String(result.getResponseBody(), StandardCharsets.UTF_8);
+		assertEquals(VIEW_BODY, actual);
+	}
+
+	@Test
+	public void testChunkedEncoderPublishesChunks() {
+		var bufferFactory = new CountingBufferFactory();
+		var encoder = new JStachioEncoder(jstachio, 64, true);
+		List<DataBuffer> chunks = encoder
+				.encode(Mono.just(new HelloModel("Spring Boot WebFlux View is now JStachioed!")), bufferFactory,
+						ResolvableType.forClass(HelloModel.class), MediaType.TEXT_HTML, Map.of())
+				.collectList().block(Duration.ofSeconds(10));
+		assertNotNull(chunks);
+		StringBuilder actual = new StringBuilder();
+		for (var chunk : chunks) {
+			actual.append(chunk.toString(StandardCharsets.UTF_8));
+		}
+		assertEquals(VIEW_BODY, actual.toString());
+		int length = VIEW_BODY.getBytes(StandardCharsets.UTF_8).length;
+		assertEquals((length + 63) / 64, chunks.size());
+		/*
+		 * Template text is split exactly at the chunk size but escaped variables are
+		 * written whole and may overflow a chunk.
+		 */
+		for (int i = 0; i < chunks.size() - 1; i++) {
+			assertTrue(chunks.get(i).readableByteCount() >= 64);
+		}
+		assertEquals(chunks.size(), bufferFactory.allocated.get());
+	}
+
+	@Test
+	public void testChunkedEncoderWaitsForDemandAndStopsOnCancel() throws InterruptedException {
+		var bufferFactory = new CountingBufferFactory();
+		var encoder = new JStachioEncoder(jstachio, 64, true);
+		List<DataBuffer> received = new CopyOnWriteArrayList<>();
+		CountDownLatch first = new CountDownLatch(1);
+		AtomicBoolean terminated = new AtomicBoolean();
+		var subscriber = new BaseSubscriber<DataBuffer>() {
+			@Override
+			protected void hookOnSubscribe(Subscription subscription) {
+				request(1);
+			}
+
+			@Override
+			protected void hookOnNext(DataBuffer value) {
+				received.add(value);
+				first.countDown();
+			}
+
+			@Override
+			protected void hookOnComplete() {
+				terminated.set(true);
+			}
+
+			@Override
+			protected void hookOnError(Throwable throwable) {
+				terminated.set(true);
+			}
+		};
+		encoder.encode(Mono.just(new HelloModel("Spring Boot WebFlux View is now JStachioed!")), bufferFactory,
+				ResolvableType.forClass(HelloModel.class), MediaType.TEXT_HTML, Map.of()).subscribe(subscriber);
+		assertTrue(first.await(10, TimeUnit.SECONDS));
+		Thread.sleep(100);
+		/*
+		 * Only the requested chunk and the chunk being filled have been allocated.
+		 */
+		assertEquals(1, received.size());
+		assertTrue(bufferFactory.allocated.get() <= 2, "allocated: " + bufferFactory.allocated.get());
+		subscriber.cancel();
+		Thread.sleep(100);
+		assertEquals(1, received.size());
+		assertTrue(bufferFactory.allocated.get() <= 2, "allocated: " + bufferFactory.allocated.get());
+		assertFalse(terminated.get());
+	}
+
+	@Test
+	public void testChunkedEncoderSignalsErrors() {
+		var bufferFactory = new CountingBufferFactory() {
+			@Override
+			public DefaultDataBuffer allocateBuffer(int initialCapacity) {
+				if (allocated.get() == 1) {
+					throw new AssertionError("expected");
+				}
+				return super.allocateBuffer(initialCapacity);
+			}
+		};
+		var encoder = new JStachioEncoder(jstachio, 64, true);
+		var flux = encoder.encode(Mono.just(new HelloModel("Spring Boot WebFlux View is now JStachioed!")),
+				bufferFactory, ResolvableType.forClass(HelloModel.class), MediaType.TEXT_HTML, Map.of());
+		/*
+		 * An Error thrown while rendering must terminate the response instead of hanging.
+		 */
+		var e = assertThrows(RuntimeException.class, () -> flux.blockLast(Duration.ofSeconds(10)));
+		assertInstanceOf(AssertionError.class, Exceptions.unwrap(e));
+	}
+
+	static class CountingBufferFactory extends DefaultDataBufferFactory {
+
+		final AtomicInteger allocated = new AtomicInteger();
+
+		@Override
+		public DefaultDataBuffer allocateBuffer(int initialCapacity) {
+			allocated.incrementAndGet();
+			return super.allocateBuffer(initialCapacity);
+		}
+
+	}
+
+	@Test
+	public void testStreamingView() {
+		int count = 150;
+		EntityExchangeResult<byte[]> result = client.get().uri("/report?count=" + count) //
+				.accept(MediaType.TEXT_HTML) //
+				.exchange().expectHeader().contentType("text/html;charset=UTF-8") //
+				.expectBody() //
+				.returnResult();
+		String actual = new String(result.getResponseBody(), StandardCharsets.UTF_8);
+		StringBuilder expected = new StringBuilder();
+		expected.append("<table title=\"Greetings\">\n");
+		for (int i = 1; i <= count; i++) {
+			expected.append("<tr><td>" + i + "</td><td>Hello &amp; welcome</td></tr>\n");
+		}
+		expected.append("</table>\n<p>" + count + " rows</p>\n");
+		assertEquals(expected.toString(), actual);
+	}
+
+	@Test
+	public void testStreamingViewRendersSlowElementsAsTheyArrive() throws InterruptedException {
+		Sinks.Many<HelloReport.Row> rows = Sinks.many().unicast().onBackpressureBuffer();
+		var view = JStachioStreamingView.of(new HelloReport.Header("Greetings"), rows.asFlux(),
+				new HelloReport.Footer(2));
+		var exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/report"));
+		BlockingQueue<String> written = new LinkedBlockingQueue<>();
+		exchange.getResponse().setWriteHandler(body -> body.doOnNext(buffer -> {
+			written.add(buffer.toString(StandardCharsets.UTF_8));
+			DataBufferUtils.release(buffer);
+		}).then());
+		view.render(null, null, exchange).subscribe();
+		assertEquals("<table title=\"Greetings\">\n", written.poll(10, TimeUnit.SECONDS));
+		/*
+		 * The batch is far from full but the row should still be written without waiting
+		 * for more elements.
+		 */
+		rows.tryEmitNext(new HelloReport.Row(1, "Hello"));
+		assertEquals("<tr><td>1</td><td>Hello</td></tr>\n", written.poll(10, TimeUnit.SECONDS));
+		rows.tryEmitNext(new HelloReport.Row(2, "Bye"));
+		rows.tryEmitComplete();
+		assertEquals("<tr><td>2</td><td>Bye</td></tr>\n", written.poll(10, TimeUnit.SECONDS));
+		assertEquals("</table>\n<p>2 rows</p>\n", written.poll(10, TimeUnit.SECONDS));
+	}
+
 	void assertEndpoint(String path, String expected, MediaType accept) {
 		long contentLength = expected.getBytes(StandardCharsets.UTF_8).length;
 		EntityExchangeResult<byte[]> result = client.get().uri(path) //